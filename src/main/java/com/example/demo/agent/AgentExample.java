@@ -1,11 +1,14 @@
 package com.example.demo.agent;
 
 import com.example.demo.agent.base.AbstractAgent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class AgentExample extends AbstractAgent {
+    private static final Logger logger = LoggerFactory.getLogger(AgentExample.class);
 
     @Override
     public void setup() {
-        System.out.println("Agent " + getLocalName() + " started.");
+        logger.info("Agent {} started.", getLocalName());
     }
 }
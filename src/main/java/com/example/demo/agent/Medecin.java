@@ -1,18 +1,21 @@
 package com.example.demo.agent;
 
 import com.example.demo.agent.base.AbstractAgent;
-import jade.content.abs.AbsContentElement;
+import com.example.demo.agent.base.ComportementDeporte;
+import com.example.demo.agent.base.RepartiteurMessages;
+import com.example.demo.metrics.AgentMetrics;
 import jade.core.Location;
 
+import com.example.demo.ontology.CodecNegotiator;
 import com.example.demo.ontology.MedicalOntology;
 import com.example.demo.ontology.ations.*;
 import com.example.demo.ontology.concepts.*;
 import com.example.demo.ontology.concepts.Diagnostic;
 import com.example.demo.ontology.concepts.Disponibilite;
-import jade.content.ContentElement;
-import jade.content.lang.Codec;
+import com.example.demo.planning.PlanningMedecin;
+import com.example.demo.routing.AnnuaireMedecins;
+import com.example.demo.routing.ReceptionnisteRouteur;
 import jade.content.lang.Codec.CodecException;
-import jade.content.lang.sl.SLCodec;
 import jade.content.onto.Ontology;
 import jade.content.onto.OntologyException;
 import jade.content.onto.basic.Action;
@@ -20,12 +23,15 @@ import jade.core.AID;
 import jade.core.Agent;
 import jade.core.behaviours.CyclicBehaviour;
 import jade.core.behaviours.OneShotBehaviour;
+import jade.core.behaviours.WakerBehaviour;
 import jade.domain.DFService;
 import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.Property;
 import jade.domain.FIPAAgentManagement.ServiceDescription;
 import jade.domain.FIPAException;
 import jade.lang.acl.ACLMessage;
-import jade.lang.acl.MessageTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -34,29 +40,41 @@ import java.util.List;
 import java.util.Map;
 
     public class Medecin extends AbstractAgent {
-        private Codec codec = new SLCodec();
+        private static final Logger logger = LoggerFactory.getLogger(Medecin.class);
+
+        // Publication groupée des disponibilités : fenêtre d'accumulation et taille maximale d'un lot
+        private static final long FENETRE_PUBLICATION_MS = 20;
+        private static final int TAILLE_MAX_LOT = 256;
+
+        private CodecNegotiator codecs;
+        private RepartiteurMessages repartiteur;
+        private AgentMetrics metrics = new AgentMetrics("medecin");
+        private ReceptionnisteRouteur routeur;
         private Ontology ontology = MedicalOntology.getInstance();
         private String nom;
         private String specialite;
-        private List<Disponibilite> disponibilites = new ArrayList<>();
+        private PlanningMedecin planning = new PlanningMedecin();
         private List<Consultation> consultationsAcceptees = new ArrayList<>();
+        // Créneau réservé dans le planning pour chaque consultation acceptée : une demande répétée
+        // (relance après échéance, redémarrage du réceptionniste) reçoit le même accord
+        private Map<Integer, Date> reservations = new HashMap<>();
         private Map<Integer, List<Diagnostic>> historiquePatients = new HashMap<>();
+        private List<Disponibilite> disponibilitesAPublier = new ArrayList<>();
+        private boolean publicationPlanifiee;
 
         @Override
         protected void setup() {
-            // Enregistrement du codec et de l'ontologie
-            getContentManager().registerLanguage(codec);
-            getContentManager().registerOntology(ontology);
+            // Enregistrement des codecs et de l'ontologie
+            codecs = new CodecNegotiator(getContentManager(), ontology);
 
             // Récupération des arguments
             Object[] args = getArguments();
             if (args != null && args.length > 1) {
                 nom = (String) args[0];
                 specialite = (String) args[1];
-                System.out.println("Agent médecin " + getLocalName() + " initialisé: Dr. " + nom +
-                        " (Spécialité: " + specialite + ")");
+                logger.info("Agent médecin {} initialisé: Dr. {} (Spécialité: {})", getLocalName(), nom, specialite);
             } else {
-                System.out.println("Agent médecin initialisé sans informations");
+                logger.info("Agent médecin {} initialisé sans informations", getLocalName());
                 nom = "Inconnu";
                 specialite = "Généraliste";
             }
@@ -65,16 +83,44 @@ import java.util.Map;
             DFAgentDescription dfd = new DFAgentDescription();
             dfd.setName(getAID());
             ServiceDescription sd = new ServiceDescription();
-            sd.setType("medecin");
+            sd.setType(AnnuaireMedecins.TYPE_SERVICE);
             sd.setName(getLocalName());
+            // La spécialité, propriété du service, alimente l'annuaire des réceptionnistes
+            sd.addProperties(new Property(AnnuaireMedecins.PROPRIETE_SPECIALITE, specialite));
 
             dfd.addServices(sd);
 
-            try {
-                DFService.register(this, dfd);
-            } catch (FIPAException e) {
-                e.printStackTrace();
-            }
+            // Aller-retour avec le DF sur un thread virtuel : la file de l'agent est traitée pendant ce temps
+            addBehaviour(new ComportementDeporte<Void>(this) {
+                @Override
+                protected Void calculer() throws FIPAException {
+                    DFService.register(myAgent, dfd);
+                    return null;
+                }
+
+                @Override
+                protected void surResultat(Void resultat) {
+                    logger.debug("Agent {}: enregistré auprès du DF", getLocalName());
+                }
+
+                @Override
+                protected void surEchec(Throwable cause) {
+                    logger.error("Agent {}: enregistrement auprès du DF impossible", getLocalName(), cause);
+                }
+            });
+
+            // Routage vers les réceptionnistes : disponibilités diffusées à tous, diagnostics par patient ;
+            // chaque réceptionniste qui arrive reçoit le planning complet
+            routeur = new ReceptionnisteRouteur(this).surArrivee(this::publierPlanning);
+            routeur.demarrer();
+
+            metrics.surveillerBoiteAuxLettres(this);
+
+            // Table de dispatch : (performatif, action) -> traitement
+            repartiteur = new RepartiteurMessages(this, codecs, metrics)
+                    .sur(ACLMessage.REQUEST, DemanderConsultation.class, this::processDemandeConsultation)
+                    .sur(ACLMessage.INFORM, OrganiserConsultation.class, this::processConsultationOrganisee)
+                    .sur(ACLMessage.INFORM, AnnulerConsultation.class, this::processAnnulation);
 
             // Ajout des comportements
             addBehaviour(new ReceptionConsultationBehaviour());
@@ -82,11 +128,15 @@ import java.util.Map;
 
         @Override
         protected void takeDown() {
+            // Les disponibilités encore dans la fenêtre sont publiées avant l'arrêt
+            publierDisponibilites();
+            metrics.arreter();
+
             // Désenregistrement du DF
             try {
                 DFService.deregister(this);
             } catch (FIPAException e) {
-                e.printStackTrace();
+                logger.error("Agent {}: désenregistrement du DF impossible", getLocalName(), e);
             }
         }
 
@@ -94,96 +144,103 @@ import java.util.Map;
         private class ReceptionConsultationBehaviour extends CyclicBehaviour {
             @Override
             public void action() {
-                MessageTemplate mt = MessageTemplate.and(
-                        MessageTemplate.MatchLanguage(codec.getName()),
-                        MessageTemplate.MatchOntology(ontology.getName())
-                );
-
-                ACLMessage message = myAgent.receive(mt);
-
-                if (message != null) {
-                    try {
-                        // Traitement des différents types de messages
-                        switch (message.getPerformative()) {
-                            case ACLMessage.REQUEST:
-                                // Demande d'approbation pour une consultation
-                                ContentElement ce = getContentManager().extractContent(message);
-
-                                if (ce instanceof Action) {
-                                    Action act = (Action) ce;
-                                    if (act.getAction() instanceof DemanderConsultation) {
-                                        processDemandeConsultation(message, act);
-                                    }
-                                }
-                                break;
-
-                            case ACLMessage.INFORM:
-                                // Notification d'une consultation planifiée
-                                Object content = getContentManager().extractContent(message);
-                                if (content instanceof Consultation) {
-                                    Consultation consultation = (Consultation) content;
-                                    System.out.println("Agent " + getLocalName() + ": Notification de consultation reçue pour le " +
-                                            consultation.getDateHeure());
-
-                                    // Enregistrement de la consultation
-                                    updateConsultation(consultation);
-                                }
-                                break;
-
-                            default:
-                                System.out.println("Agent " + getLocalName() + ": Message non traité de type " +
-                                        ACLMessage.getPerformative(message.getPerformative()));
-                        }
-                    } catch (CodecException | OntologyException e) {
-                        e.printStackTrace();
-                    }
-                } else {
+                if (!repartiteur.traiterSuivant()) {
                     block();
                 }
             }
         }
 
+        // Notification d'une consultation organisée par le réceptionniste
+        private void processConsultationOrganisee(ACLMessage message, OrganiserConsultation oc) {
+            Consultation consultation = oc.getConsultation();
+            logger.debug("Agent {}: Notification de consultation reçue pour le {}", getLocalName(),
+                    consultation.getDateHeure());
+
+            // Le créneau choisi par le réceptionniste remplace celui que la consultation tenait
+            if (!reserver(consultation, false)) {
+                logger.warn("Agent {}: créneau du {} déjà réservé, consultation #{} organisée malgré tout", getLocalName(),
+                        consultation.getDateHeure(), consultation.getId());
+            }
+
+            // Enregistrement de la consultation
+            updateConsultation(consultation);
+        }
+
+        // Consultation retirée à ce médecin (autre médecin, annulation, diagnostic rédigé) : son créneau est libéré
+        private void processAnnulation(ACLMessage message, AnnulerConsultation ac) {
+            int idConsultation = ac.getConsultation().getId();
+            if (libererReservation(idConsultation)) {
+                logger.debug("Agent {}: créneau de la consultation #{} libéré", getLocalName(), idConsultation);
+            }
+        }
+
         // Traitement d'une demande de consultation
-        private void processDemandeConsultation(ACLMessage message, Action act) {
+        private void processDemandeConsultation(ACLMessage message, DemanderConsultation dc) {
             try {
-                DemanderConsultation dc = (DemanderConsultation) act.getAction();
                 Consultation consultation = dc.getConsultation();
 
                 // Vérification de la disponibilité
-                boolean estDisponible = verifierDisponibilite(consultation.getDateHeure());
+                boolean estDisponible = verifierDisponibilite(consultation);
 
+                // La réponse reprend le conversationId et, en inReplyTo, le replyWith de la demande :
+                // le réceptionniste la corrèle sans analyser son contenu
                 ACLMessage reply = message.createReply();
 
                 if (estDisponible) {
                     // Acceptation de la consultation
                     reply.setPerformative(ACLMessage.AGREE);
-                    System.out.println("Agent " + getLocalName() + ": Consultation acceptée pour la date " +
-                            consultation.getDateHeure());
+                    reply.setContent("Acceptation de la consultation " + consultation.getId());
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Agent {}: Consultation #{} acceptée pour la date {}", getLocalName(),
+                                consultation.getId(), consultation.getDateHeure());
+                    }
                 } else {
                     // Refus de la consultation
                     reply.setPerformative(ACLMessage.REFUSE);
-                    System.out.println("Agent " + getLocalName() + ": Consultation refusée pour la date " +
-                            consultation.getDateHeure() + " (indisponible)");
+                    reply.setContent("Refus de la consultation " + consultation.getId());
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Agent {}: Consultation #{} refusée pour la date {} (indisponible)", getLocalName(),
+                                consultation.getId(), consultation.getDateHeure());
+                    }
                 }
 
                 // Envoi de la réponse
                 send(reply);
 
             } catch (Exception e) {
-                e.printStackTrace();
+                logger.error("Agent {}: échec du traitement de la demande de consultation", getLocalName(), e);
             }
         }
 
-        // Méthode pour vérifier la disponibilité
-        private boolean verifierDisponibilite(Date dateConsultation) {
-            for (Disponibilite dispo : disponibilites) {
-                // Vérifier si la date de consultation correspond à une disponibilité
-                if (dispo.getDateHeure().equals(dateConsultation)) {
-                    return true;
-                }
-            }
+        // Méthode pour vérifier la disponibilité et réserver le créneau demandé
+        private boolean verifierDisponibilite(Consultation consultation) {
             // Si aucune disponibilité n'est définie, on accepte par défaut (à des fins de test)
-            return disponibilites.isEmpty();
+            if (planning.isEmpty()) {
+                return true;
+            }
+            // Le créneau doit être couvert par une disponibilité et ne chevaucher aucune autre consultation acceptée
+            return reserver(consultation, true);
+        }
+
+        // Réservation du créneau de la consultation, à la place de celui qu'elle tenait ; true si elle le tient.
+        // La même consultation à la même date garde son créneau : c'est une demande répétée
+        private boolean reserver(Consultation consultation, boolean couvertureExigee) {
+            Date date = consultation.getDateHeure();
+            if (date == null || date.equals(reservations.get(consultation.getId()))) {
+                return true;
+            }
+            libererReservation(consultation.getId());
+            if ((couvertureExigee && !planning.estLibre(date, PlanningMedecin.DUREE_CONSULTATION))
+                    || !planning.reserver(date, PlanningMedecin.DUREE_CONSULTATION)) {
+                return false;
+            }
+            reservations.put(consultation.getId(), date);
+            return true;
+        }
+
+        private boolean libererReservation(int idConsultation) {
+            Date date = reservations.remove(idConsultation);
+            return date != null && planning.liberer(date, PlanningMedecin.DUREE_CONSULTATION);
         }
 
         // Méthode pour mettre à jour la liste des consultations
@@ -224,7 +281,7 @@ import java.util.Map;
                     }
 
                     if (consultation == null) {
-                        System.out.println("Agent " + getLocalName() + ": Consultation #" + idConsultation + " non trouvée");
+                        logger.warn("Agent {}: Consultation #{} non trouvée", getLocalName(), idConsultation);
                         return;
                     }
 
@@ -248,19 +305,18 @@ import java.util.Map;
 
                     // Notification au réceptionniste
                     ACLMessage message = new ACLMessage(ACLMessage.INFORM);
-                    message.addReceiver(new AID("receptionniste", AID.ISLOCALNAME));
-                    message.setLanguage(codec.getName());
-                    message.setOntology(ontology.getName());
+                    codecs.preparer(message);
 
                     // Remplissage du contenu du message
-                    getContentManager().fillContent(message, new Action(getAID(), redigerDiagnostic));
+                    codecs.remplir(message, new Action(getAID(), redigerDiagnostic));
 
                     // Envoi du message
-                    send(message);
+                    routeur.envoyer(message, idPatient);
 
-                    System.out.println("Agent " + getLocalName() + ": Diagnostic rédigé pour la consultation #" + idConsultation);
+                    logger.debug("Agent {}: Diagnostic rédigé pour la consultation #{}", getLocalName(), idConsultation);
                 } catch (CodecException | OntologyException e) {
-                    e.printStackTrace();
+                    logger.error("Agent {}: envoi du diagnostic de la consultation #{} impossible", getLocalName(),
+                            idConsultation, e);
                 }
             }
         }
@@ -271,30 +327,81 @@ import java.util.Map;
             disponibilite.setIdMedecin(Integer.parseInt(getLocalName().replace("medecin", "")));
             disponibilite.setDateHeure(dateHeure);
             disponibilite.setDuree(duree);
-            disponibilites.add(disponibilite);
+            planning.ajouterDisponibilite(disponibilite);
+
+            // Le réceptionniste sera informé avec les autres disponibilités de la fenêtre
+            planifierPublication(disponibilite);
 
-            // Informer le réceptionniste de la nouvelle disponibilité
-            informerDisponibilite(disponibilite);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Agent {}: Nouvelle disponibilité ajoutée: {} (durée: {} minutes)", getLocalName(),
+                        dateHeure, duree);
+            }
+        }
 
-            System.out.println("Agent " + getLocalName() + ": Nouvelle disponibilité ajoutée: " +
-                    dateHeure + " (durée: " + duree + " minutes)");
+        // Mise en attente d'une disponibilité : le lot part à la fin de la fenêtre, ou dès qu'il est plein
+        private void planifierPublication(Disponibilite disponibilite) {
+            disponibilitesAPublier.add(disponibilite);
+            if (disponibilitesAPublier.size() >= TAILLE_MAX_LOT) {
+                publierDisponibilites();
+            } else if (!publicationPlanifiee) {
+                publicationPlanifiee = true;
+                addBehaviour(new WakerBehaviour(this, FENETRE_PUBLICATION_MS) {
+                    @Override
+                    protected void onWake() {
+                        publicationPlanifiee = false;
+                        publierDisponibilites();
+                    }
+                });
+            }
         }
 
-        // Méthode pour informer le réceptionniste d'une disponibilité
-        private void informerDisponibilite(Disponibilite disponibilite) {
+        // Méthode pour informer les réceptionnistes des disponibilités en attente, en un seul message :
+        // chaque partition peut recevoir une demande pour ce médecin, toutes tiennent son planning
+        private void publierDisponibilites() {
+            if (disponibilitesAPublier.isEmpty()) {
+                return;
+            }
+            PublierDisponibilites lot = new PublierDisponibilites(disponibilitesAPublier);
+            disponibilitesAPublier = new ArrayList<>();
+            if (!routeur.receptionnisteConnu()) {
+                // Le planning complet partira vers chaque réceptionniste à son arrivée
+                return;
+            }
+
             try {
                 ACLMessage message = new ACLMessage(ACLMessage.INFORM);
-                message.addReceiver(new AID("receptionniste", AID.ISLOCALNAME));
-                message.setLanguage(codec.getName());
-                message.setOntology(ontology.getName());
+                codecs.preparer(message);
 
                 // Remplissage du contenu du message
-                getContentManager().fillContent(message, (AbsContentElement) disponibilite);
+                codecs.remplir(message, new Action(getAID(), lot));
 
                 // Envoi du message
+                routeur.diffuser(message);
+
+                logger.debug("Agent {}: {} disponibilités publiées", getLocalName(), lot.getDisponibilites().size());
+            } catch (CodecException | OntologyException e) {
+                logger.error("Agent {}: publication des disponibilités impossible", getLocalName(), e);
+            }
+        }
+
+        // Planning complet pour un réceptionniste qui vient d'arriver ; une disponibilité déjà connue est remplacée à l'identique
+        private void publierPlanning(AID receptionniste) {
+            List<Disponibilite> disponibilites = planning.getDisponibilites();
+            if (disponibilites.isEmpty()) {
+                return;
+            }
+            try {
+                ACLMessage message = new ACLMessage(ACLMessage.INFORM);
+                message.addReceiver(receptionniste);
+                codecs.preparer(message);
+                codecs.remplir(message, new Action(getAID(), new PublierDisponibilites(disponibilites)));
                 send(message);
+
+                logger.debug("Agent {}: planning de {} disponibilités publié à {}", getLocalName(),
+                        disponibilites.size(), receptionniste.getLocalName());
             } catch (CodecException | OntologyException e) {
-                e.printStackTrace();
+                logger.error("Agent {}: publication du planning à {} impossible", getLocalName(),
+                        receptionniste.getLocalName(), e);
             }
         }
 
@@ -305,7 +412,7 @@ import java.util.Map;
 
         // Méthodes d'accès aux données
         public List<Disponibilite> getDisponibilites() {
-            return new ArrayList<>(disponibilites);
+            return planning.getDisponibilites();
         }
 
         public List<Consultation> getConsultations() {
@@ -0,0 +1,206 @@
+package com.example.demo.agent;
+
+import com.example.demo.agent.base.AbstractPasserelle;
+import com.example.demo.agent.base.RepartiteurMessages;
+import com.example.demo.ontology.ations.DemanderConsultation;
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.patients.TablePatients;
+import jade.content.onto.basic.Action;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.UnreadableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Agent passerelle représentant un grand nombre de patients logiques.
+ *
+ * Au lieu d'un agent Patient (et d'un thread) par personne, les patients
+ * sont des entrées d'une TablePatients indexée par idPatient, et leurs
+ * conversations avec les réceptionnistes partagent la boîte aux lettres de
+ * cet agent. Les demandes sont les mêmes que celles d'un agent Patient :
+ * REQUEST portant l'action DemanderConsultation, adressée au réceptionniste
+ * responsable du patient ; le réceptionniste répond à l'émetteur, et la
+ * notification finale est rattachée à sa demande par inReplyTo.
+ *
+ * Arguments : [0] écouteur des consultations confirmées (facultatif),
+ * [1] nombre de patients attendus (facultatif, dimensionne la table).
+ */
+public class PasserellePatients extends AbstractPasserelle<Integer> {
+    private static final Logger logger = LoggerFactory.getLogger(PasserellePatients.class);
+
+    public static final String NOM = "passerelle-patients";
+
+    // Patients représentés ; le contexte d'une demande en attente est le patient qui l'a émise
+    private TablePatients patients;
+    private Consumer<Consultation> ecouteurConfirmation;
+
+    /**
+     * Inscription d'un patient logique ; un patient inconnu est aussi inscrit à sa première demande
+     */
+    public static final class Inscription {
+        private final int idPatient;
+        private final String nom;
+        private final String prenom;
+
+        public Inscription(int idPatient, String nom, String prenom) {
+            this.idPatient = idPatient;
+            this.nom = nom;
+            this.prenom = prenom;
+        }
+    }
+
+    /**
+     * Inscriptions groupées : la file O2A de JADE (liste dont on retire la tête) coûte O(n) par objet
+     * retiré, un million d'inscriptions unitaires la rendraient quadratique
+     */
+    public static final class Inscriptions {
+        private final List<Inscription> inscriptions;
+
+        public Inscriptions(List<Inscription> inscriptions) {
+            this.inscriptions = inscriptions;
+        }
+    }
+
+    /**
+     * Demande de consultation au nom d'un patient : à un médecin (idMedecin) ou à une spécialité (idMedecin = 0)
+     */
+    public static final class Demande {
+        private final int idPatient;
+        private final int idMedecin;
+        private final String specialite;
+        private final Date dateHeure;
+
+        public Demande(int idPatient, int idMedecin, Date dateHeure) {
+            this(idPatient, idMedecin, null, dateHeure);
+        }
+
+        public Demande(int idPatient, String specialite, Date dateHeure) {
+            this(idPatient, 0, specialite, dateHeure);
+        }
+
+        private Demande(int idPatient, int idMedecin, String specialite, Date dateHeure) {
+            this.idPatient = idPatient;
+            this.idMedecin = idMedecin;
+            this.specialite = specialite;
+            this.dateHeure = dateHeure;
+        }
+    }
+
+    public PasserellePatients() {
+        super("passerelle-patients");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void setup() {
+        Object[] args = getArguments();
+        int capacite = 1024;
+        if (args != null && args.length > 0 && args[0] instanceof Consumer) {
+            this.ecouteurConfirmation = (Consumer<Consultation>) args[0];
+        }
+        if (args != null && args.length > 1 && args[1] instanceof Integer) {
+            capacite = (Integer) args[1];
+        }
+        patients = new TablePatients(capacite);
+
+        super.setup();
+
+        logger.info("Agent passerelle {} initialisé (table de {} patients)", getLocalName(), capacite);
+    }
+
+    @Override
+    protected void takeDown() {
+        super.takeDown();
+        logger.info("Agent passerelle {} terminé ({} patients).", getLocalName(), patients.size());
+    }
+
+    // Les notifications arrivent sérialisées ; AGREE et REFUSE ne sont que des accusés de réception
+    @Override
+    protected RepartiteurMessages routes(RepartiteurMessages repartiteur) {
+        return repartiteur
+                .sur(ACLMessage.INFORM, this::processNotificationConsultation)
+                .sur(ACLMessage.AGREE, message -> logger.debug("Agent {}: Demande de consultation acceptée", getLocalName()))
+                .sur(ACLMessage.REFUSE, message -> logger.debug("Agent {}: Demande de consultation refusée", getLocalName()));
+    }
+
+    @Override
+    protected void traiterCommande(Object commande) {
+        if (commande instanceof Demande) {
+            transmettre((Demande) commande);
+        } else if (commande instanceof Inscription) {
+            inscrire((Inscription) commande);
+        } else if (commande instanceof Inscriptions) {
+            ((Inscriptions) commande).inscriptions.forEach(this::inscrire);
+        }
+    }
+
+    @Override
+    protected void surEcheance(Integer idPatient) {
+        patients.demandeTerminee(idPatient);
+    }
+
+    private void inscrire(Inscription inscription) {
+        if (inscription.idPatient == 0) {
+            logger.warn("Agent {}: inscription sans idPatient ignorée", getLocalName());
+            return;
+        }
+        patients.inscrire(inscription.idPatient, inscription.nom, inscription.prenom);
+    }
+
+    // Même message que DemanderConsultationBehaviour de l'agent Patient, émis au nom du patient logique
+    private void transmettre(Demande demande) {
+        if (demande.idPatient == 0) {
+            logger.warn("Agent {}: demande de consultation sans idPatient ignorée", getLocalName());
+            return;
+        }
+        try {
+            Consultation consultation = new Consultation();
+            consultation.setDateHeure(demande.dateHeure);
+            consultation.setStatus("demandée");
+            consultation.setIdPatient(demande.idPatient);
+            consultation.setIdMedecin(demande.idMedecin);
+
+            ACLMessage message = new ACLMessage(ACLMessage.REQUEST);
+            codecs.preparer(message);
+            codecs.remplir(message, new Action(getAID(), new DemanderConsultation(consultation, demande.specialite)));
+            // Ouverte une fois le contenu encodé : un échec d'encodage ne laisse pas de demande en attente
+            demandes.ouvrir(message, demande.idPatient, DELAI_REPONSE_MS);
+            patients.demandeEnvoyee(demande.idPatient);
+            routeur.envoyer(message, demande.idPatient);
+        } catch (Exception e) {
+            logger.error("Agent {}: envoi de la demande de consultation du patient #{} impossible",
+                    getLocalName(), demande.idPatient, e);
+        }
+    }
+
+    // Notification d'une consultation planifiée, refusée ou annulée, rattachée au patient qu'elle concerne
+    private void processNotificationConsultation(ACLMessage message) throws UnreadableException {
+        Object contenu = message.getContentObject();
+        if (!(contenu instanceof Consultation)) {
+            return;
+        }
+        Consultation consultation = (Consultation) contenu;
+
+        Integer idPatient = demandes.resoudre(message);
+        if (idPatient != null) {
+            patients.demandeTerminee(idPatient);
+        }
+        if (consultation.getIdPatient() == 0) {
+            return;
+        }
+        patients.consultation(consultation.getIdPatient(), consultation.getId(), consultation.getStatus());
+
+        if (!"planifiée".equals(consultation.getStatus())) {
+            logger.debug("Agent {}: Consultation #{} du patient #{} {}", getLocalName(), consultation.getId(),
+                    consultation.getIdPatient(), consultation.getStatus());
+            return;
+        }
+        if (ecouteurConfirmation != null) {
+            ecouteurConfirmation.accept(consultation);
+        }
+    }
+}
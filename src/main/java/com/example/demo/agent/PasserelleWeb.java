@@ -0,0 +1,150 @@
+package com.example.demo.agent;
+
+import com.example.demo.agent.base.AbstractPasserelle;
+import com.example.demo.agent.base.RepartiteurMessages;
+import com.example.demo.ontology.ations.DemanderConsultation;
+import com.example.demo.ontology.ations.EnregistrerPatient;
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.ontology.concepts.Patient;
+import jade.content.AgentAction;
+import jade.content.onto.basic.Action;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.UnreadableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Passerelle entre l'API REST et les agents.
+ *
+ * Les requêtes HTTP déposent une commande dans la file O2A de l'agent et
+ * reçoivent un CompletableFuture ; l'agent envoie la requête au réceptionniste
+ * responsable du patient et complète le futur à la réponse finale, corrélée
+ * par inReplyTo. Aucun thread HTTP n'attend de réponse d'agent : une requête
+ * sans réponse dans DELAI_REPONSE_MS échoue par TimeoutException.
+ */
+public class PasserelleWeb extends AbstractPasserelle<CompletableFuture<Object>> {
+    private static final Logger logger = LoggerFactory.getLogger(PasserelleWeb.class);
+
+    public static final String NOM = "passerelle-web";
+
+    // Demande de consultation : à un médecin (idMedecin) ou à une spécialité (idMedecin = 0)
+    public static final class DemandeConsultation {
+        private final int idPatient;
+        private final int idMedecin;
+        private final String specialite;
+        private final Date dateHeure;
+        private final CompletableFuture<Consultation> resultat = new CompletableFuture<>();
+
+        public DemandeConsultation(int idPatient, int idMedecin, String specialite, Date dateHeure) {
+            this.idPatient = idPatient;
+            this.idMedecin = idMedecin;
+            this.specialite = specialite;
+            this.dateHeure = dateHeure;
+        }
+
+        public CompletableFuture<Consultation> getResultat() {
+            return resultat;
+        }
+    }
+
+    // Enregistrement d'un patient ; le futur reçoit le patient avec son identifiant attribué
+    public static final class EnregistrementPatient {
+        private final Patient patient;
+        private final CompletableFuture<Patient> resultat = new CompletableFuture<>();
+
+        public EnregistrementPatient(Patient patient) {
+            this.patient = patient;
+        }
+
+        public CompletableFuture<Patient> getResultat() {
+            return resultat;
+        }
+    }
+
+    public PasserelleWeb() {
+        super("passerelle");
+    }
+
+    @Override
+    protected void setup() {
+        super.setup();
+        logger.info("Agent passerelle {} initialisé", getLocalName());
+    }
+
+    @Override
+    protected void takeDown() {
+        super.takeDown();
+        logger.info("Agent passerelle {} terminé.", getLocalName());
+    }
+
+    // Les réponses finales arrivent sérialisées ; AGREE et REFUSE ne sont que des accusés de réception
+    @Override
+    protected RepartiteurMessages routes(RepartiteurMessages repartiteur) {
+        return repartiteur
+                .sur(ACLMessage.INFORM, this::processReponse)
+                .sur(ACLMessage.AGREE, message -> logger.debug("Agent {}: Demande acceptée", getLocalName()))
+                .sur(ACLMessage.REFUSE, message -> logger.debug("Agent {}: Demande refusée", getLocalName()));
+    }
+
+    @Override
+    protected void traiterCommande(Object commande) {
+        if (commande instanceof DemandeConsultation) {
+            transmettre((DemandeConsultation) commande);
+        } else if (commande instanceof EnregistrementPatient) {
+            transmettre((EnregistrementPatient) commande);
+        }
+    }
+
+    @Override
+    protected void surEcheance(CompletableFuture<Object> resultat) {
+        resultat.completeExceptionally(new TimeoutException("Pas de réponse du réceptionniste en " + DELAI_REPONSE_MS + " ms"));
+    }
+
+    private void transmettre(DemandeConsultation demande) {
+        Consultation consultation = new Consultation();
+        consultation.setDateHeure(demande.dateHeure);
+        consultation.setStatus("demandée");
+        consultation.setIdPatient(demande.idPatient);
+        consultation.setIdMedecin(demande.idMedecin);
+
+        envoyer(demande.idPatient, new DemanderConsultation(consultation, demande.specialite), demande.resultat);
+    }
+
+    private void transmettre(EnregistrementPatient enregistrement) {
+        Patient patient = enregistrement.patient;
+        // Même clé de routage que l'identifiant par défaut d'un agent patient
+        int cle = patient.getId() != 0 ? patient.getId() : (patient.getNom() + patient.getPrenom()).hashCode();
+
+        EnregistrerPatient action = new EnregistrerPatient();
+        action.setPatient(patient);
+        envoyer(cle, action, enregistrement.resultat);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void envoyer(int cle, AgentAction action, CompletableFuture<?> resultat) {
+        try {
+            ACLMessage message = new ACLMessage(ACLMessage.REQUEST);
+            codecs.preparer(message);
+            codecs.remplir(message, new Action(getAID(), action));
+            // Ouverte une fois le contenu encodé : un échec d'encodage ne laisse pas de requête en attente
+            demandes.ouvrir(message, (CompletableFuture<Object>) resultat, DELAI_REPONSE_MS);
+            routeur.envoyer(message, cle);
+        } catch (Exception e) {
+            resultat.completeExceptionally(e);
+        }
+    }
+
+    // Réponse finale : consultation notifiée ou patient enregistré
+    private void processReponse(ACLMessage message) throws UnreadableException {
+        CompletableFuture<Object> resultat = demandes.resoudre(message);
+        if (resultat == null) {
+            logger.debug("Agent {}: Réponse sans requête en attente (inReplyTo {})", getLocalName(), message.getInReplyTo());
+            return;
+        }
+        resultat.complete(message.getContentObject());
+    }
+}
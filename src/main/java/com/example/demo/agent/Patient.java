@@ -1,28 +1,38 @@
 package com.example.demo.agent;
 
 import com.example.demo.agent.base.AbstractAgent;
+import com.example.demo.agent.base.RepartiteurMessages;
+import com.example.demo.metrics.AgentMetrics;
+import com.example.demo.ontology.CodecNegotiator;
 import com.example.demo.ontology.MedicalOntology;
 import com.example.demo.ontology.ations.DemanderConsultation;
 import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.routing.ReceptionnisteRouteur;
 import jade.content.lang.Codec;
-import jade.content.lang.sl.SLCodec;
 import jade.content.onto.Ontology;
 import jade.content.onto.OntologyException;
 import jade.content.onto.basic.Action;
-import jade.core.AID;
 import jade.core.behaviours.CyclicBehaviour;
 import jade.core.behaviours.OneShotBehaviour;
 import jade.lang.acl.ACLMessage;
-import jade.lang.acl.MessageTemplate;
+import jade.lang.acl.UnreadableException;
 import lombok.Getter;
 import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class Patient extends AbstractAgent {
-    private Codec codec = new SLCodec();
+    private static final Logger logger = LoggerFactory.getLogger(Patient.class);
+
+    private CodecNegotiator codecs;
+    private RepartiteurMessages repartiteur;
+    private AgentMetrics metrics = new AgentMetrics("patient");
+    private ReceptionnisteRouteur routeur;
     private Ontology ontology = MedicalOntology.getInstance();
 
     // Getters
@@ -41,11 +51,52 @@ public class Patient extends AbstractAgent {
 
     private List<Consultation> consultations = new ArrayList<>();
 
+    // Notifié à chaque consultation confirmée (générateur de charge, passerelles)
+    private Consumer<Consultation> ecouteurConfirmation;
+
+    // Demande de consultation transmise par la file O2A
+    public static class DemandeO2A {
+        private final int idMedecin;
+        private final String specialite;
+        private final Date dateHeure;
+
+        public DemandeO2A(int idMedecin, Date dateHeure) {
+            this.idMedecin = idMedecin;
+            this.specialite = null;
+            this.dateHeure = dateHeure;
+        }
+
+        // Demande adressée à la spécialité : le réceptionniste choisit le médecin
+        public DemandeO2A(String specialite, Date dateHeure) {
+            this.idMedecin = 0;
+            this.specialite = specialite;
+            this.dateHeure = dateHeure;
+        }
+    }
+
+    /**
+     * Nouvelle identité d'un agent du pool de patients, transmise par la file O2A :
+     * elle est appliquée avant les demandes déposées après elle
+     */
+    public static class Identite {
+        private final String nom;
+        private final String prenom;
+        private final int idPatient;
+        private final Consumer<Consultation> ecouteurConfirmation;
+
+        public Identite(String nom, String prenom, int idPatient, Consumer<Consultation> ecouteurConfirmation) {
+            this.nom = nom;
+            this.prenom = prenom;
+            this.idPatient = idPatient;
+            this.ecouteurConfirmation = ecouteurConfirmation;
+        }
+    }
+
     @Override
+    @SuppressWarnings("unchecked")
     protected void setup() {
-        // Enregistrement du codec et de l'ontologie
-        getContentManager().registerLanguage(codec);
-        getContentManager().registerOntology(ontology);
+        // Enregistrement des codecs et de l'ontologie
+        codecs = new CodecNegotiator(getContentManager(), ontology);
 
         // Récupération des arguments
         Object[] args = getArguments();
@@ -65,32 +116,55 @@ public class Patient extends AbstractAgent {
                 // ID par défaut basé sur hashCode du nom et prénom
                 this.idPatient = (nom + prenom).hashCode();
             }
+            if (args.length > 4 && args[4] instanceof Consumer) {
+                this.ecouteurConfirmation = (Consumer<Consultation>) args[4];
+            }
         }
 
-        System.out.println("Agent patient " + getLocalName() + " initialisé: " +
-                nom + " " + prenom + " (ID: " + idPatient + ")");
+        logger.info("Agent patient {} initialisé: {} {} (ID: {})", getLocalName(), nom, prenom, idPatient);
+
+        // Les demandes peuvent aussi arriver par la file O2A, depuis un autre thread de la JVM
+        setEnabledO2ACommunication(true, 0);
+
+        // Routage vers le réceptionniste responsable de ce patient
+        routeur = new ReceptionnisteRouteur(this);
+        routeur.demarrer();
+
+        // Table de dispatch : les notifications arrivent sérialisées, sans décodage par l'ontologie
+        repartiteur = new RepartiteurMessages(this, codecs, metrics)
+                .sur(ACLMessage.AGREE, message -> logger.debug("Agent {}: Demande de consultation acceptée", getLocalName()))
+                .sur(ACLMessage.REFUSE, message -> logger.debug("Agent {}: Demande de consultation refusée", getLocalName()))
+                .sur(ACLMessage.INFORM, this::processNotificationConsultation);
 
         // Ajout des comportements
         addBehaviour(new ReceptionReponseBehaviour());
+        addBehaviour(new DemandeO2ABehaviour());
     }
 
     @Override
     protected void takeDown() {
-        System.out.println("Agent patient " + getLocalName() + " terminé.");
+        logger.info("Agent patient {} terminé.", getLocalName());
     }
 
     // Méthode pour demander une consultation
     public void demanderConsultation(int idMedecin, Date dateHeure) {
-        addBehaviour(new DemanderConsultationBehaviour(idMedecin, dateHeure));
+        addBehaviour(new DemanderConsultationBehaviour(idMedecin, null, dateHeure));
+    }
+
+    // Méthode pour demander une consultation auprès de n'importe quel médecin d'une spécialité
+    public void demanderConsultation(String specialite, Date dateHeure) {
+        addBehaviour(new DemanderConsultationBehaviour(0, specialite, dateHeure));
     }
 
     // Comportement pour demander une consultation
     private class DemanderConsultationBehaviour extends OneShotBehaviour {
         private int idMedecin;
+        private String specialite;
         private Date dateHeure;
 
-        public DemanderConsultationBehaviour(int idMedecin, Date dateHeure) {
+        public DemanderConsultationBehaviour(int idMedecin, String specialite, Date dateHeure) {
             this.idMedecin = idMedecin;
+            this.specialite = specialite;
             this.dateHeure = dateHeure;
         }
 
@@ -108,76 +182,97 @@ public class Patient extends AbstractAgent {
                 // Création de l'action de demande
                 DemanderConsultation demanderConsultation = new DemanderConsultation();
                 demanderConsultation.setConsultation(consultation);
+                demanderConsultation.setSpecialite(specialite);
 
                 // Création du message
                 ACLMessage message = new ACLMessage(ACLMessage.REQUEST);
-                message.addReceiver(new AID("receptionniste", AID.ISLOCALNAME));
-                message.setLanguage(codec.getName());
-                message.setOntology(ontology.getName());
+                codecs.preparer(message);
 
                 // Remplissage du contenu
-                getContentManager().fillContent(message, new Action(getAID(), demanderConsultation));
+                codecs.remplir(message, new Action(getAID(), demanderConsultation));
 
                 // Envoi du message
-                send(message);
+                routeur.envoyer(message, idPatient);
 
-                System.out.println("Agent " + getLocalName() + ": Demande de consultation envoyée pour le " +
-                        dateHeure + " avec le médecin #" + idMedecin);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Agent {}: Demande de consultation envoyée pour le {} avec le médecin #{} ({})",
+                            getLocalName(), dateHeure, idMedecin, specialite);
+                }
 
             } catch (Codec.CodecException | OntologyException e) {
-                e.printStackTrace();
+                logger.error("Agent {}: envoi de la demande de consultation impossible", getLocalName(), e);
             }
         }
     }
 
+    // Comportement pour traiter les demandes déposées dans la file O2A
+    private class DemandeO2ABehaviour extends CyclicBehaviour {
+        @Override
+        public void action() {
+            Object objet = myAgent.getO2AObject();
+
+            if (objet instanceof DemandeO2A) {
+                DemandeO2A demande = (DemandeO2A) objet;
+                myAgent.addBehaviour(new DemanderConsultationBehaviour(demande.idMedecin, demande.specialite, demande.dateHeure));
+            } else if (objet instanceof Identite) {
+                lier((Identite) objet);
+            } else if (objet == null) {
+                block();
+            }
+        }
+    }
+
+    // Réaffectation de l'agent à un autre patient : l'abonnement au DF et les comportements sont conservés
+    private void lier(Identite identite) {
+        this.nom = identite.nom;
+        this.prenom = identite.prenom;
+        this.informationsPersonnelles = null;
+        this.idPatient = identite.idPatient;
+        this.ecouteurConfirmation = identite.ecouteurConfirmation;
+        consultations.clear();
+        logger.debug("Agent {}: lié au patient {} {} (ID: {})", getLocalName(), nom, prenom, idPatient);
+    }
+
     // Comportement pour réceptionner les réponses
     private class ReceptionReponseBehaviour extends CyclicBehaviour {
         @Override
         public void action() {
-            MessageTemplate mt = MessageTemplate.and(
-                    MessageTemplate.MatchLanguage(codec.getName()),
-                    MessageTemplate.MatchOntology(ontology.getName())
-            );
-
-            ACLMessage message = myAgent.receive(mt);
-
-            if (message != null) {
-                try {
-                    // Traitement des différents types de messages
-                    switch (message.getPerformative()) {
-                        case ACLMessage.AGREE:
-                            System.out.println("Agent " + getLocalName() + ": Demande de consultation acceptée");
-                            break;
-
-                        case ACLMessage.REFUSE:
-                            System.out.println("Agent " + getLocalName() + ": Demande de consultation refusée");
-                            break;
-
-                        case ACLMessage.INFORM:
-                            // Notification d'une consultation planifiée
-                            if (message.getContentObject() instanceof Consultation) {
-                                Consultation consultation = (Consultation) message.getContentObject();
-                                System.out.println("Agent " + getLocalName() + ": Consultation confirmée pour le " +
-                                        consultation.getDateHeure() + " avec le médecin #" + consultation.getIdMedecin());
-
-                                // Mettre à jour la liste des consultations
-                                updateConsultation(consultation);
-                            }
-                            break;
-
-                        default:
-                            System.out.println("Agent " + getLocalName() + ": Message non traité de type " +
-                                    ACLMessage.getPerformative(message.getPerformative()));
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            } else {
+            if (!repartiteur.traiterSuivant()) {
                 block();
             }
         }
     }
 
+    // Notification d'une consultation planifiée, refusée ou annulée (contenu sérialisé)
+    private void processNotificationConsultation(ACLMessage message) throws UnreadableException {
+        Object contenu = message.getContentObject();
+        if (!(contenu instanceof Consultation)) {
+            return;
+        }
+        Consultation consultation = (Consultation) contenu;
+        // Réponse tardive adressée à l'identité précédente de l'agent
+        if (consultation.getIdPatient() != idPatient) {
+            logger.debug("Agent {}: notification de la consultation #{} ignorée (patient #{})",
+                    getLocalName(), consultation.getId(), consultation.getIdPatient());
+            return;
+        }
+
+        // Mettre à jour la liste des consultations
+        updateConsultation(consultation);
+
+        if (!"planifiée".equals(consultation.getStatus())) {
+            logger.info("Agent {}: Consultation #{} {}", getLocalName(), consultation.getId(), consultation.getStatus());
+            return;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Agent {}: Consultation confirmée pour le {} avec le médecin #{}",
+                    getLocalName(), consultation.getDateHeure(), consultation.getIdMedecin());
+        }
+        if (ecouteurConfirmation != null) {
+            ecouteurConfirmation.accept(consultation);
+        }
+    }
+
     // Méthode pour mettre à jour une consultation
     private void updateConsultation(Consultation consultation) {
         // Vérifier si la consultation existe déjà
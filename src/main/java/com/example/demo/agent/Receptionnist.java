@@ -1,189 +1,565 @@
 package com.example.demo.agent;
 
 import com.example.demo.agent.base.AbstractAgent;
+import com.example.demo.agent.base.ComportementDeporte;
+import com.example.demo.agent.base.EnvoisGroupes;
+import com.example.demo.agent.base.RepartiteurMessages;
+import com.example.demo.correlation.TableCorrelation;
+import com.example.demo.journal.ConfigurationJournal;
+import com.example.demo.journal.InstantaneReceptionniste;
+import com.example.demo.journal.JournalReceptionniste;
+import com.example.demo.metrics.AgentMetrics;
+import com.example.demo.ontology.CodecNegotiator;
 import com.example.demo.ontology.MedicalOntology;
+import com.example.demo.ontology.ations.AnnulerConsultation;
 import com.example.demo.ontology.ations.DemanderConsultation;
 import com.example.demo.ontology.ations.EnregistrerPatient;
 import com.example.demo.ontology.ations.OrganiserConsultation;
+import com.example.demo.ontology.ations.PublierDisponibilites;
 import com.example.demo.ontology.ations.RedigerDiagnostic;
 import com.example.demo.ontology.concepts.Consultation;
 import com.example.demo.ontology.concepts.Diagnostic;
 import com.example.demo.ontology.concepts.Disponibilite;
 import com.example.demo.ontology.concepts.Patient;
-import jade.content.ContentElement;
+import com.example.demo.planning.PlanningMedecin;
+import com.example.demo.repository.ConsultationRepository;
+import com.example.demo.routing.AnnuaireMedecins;
+import com.example.demo.routing.ReceptionnisteRouteur;
+import com.example.demo.routing.SelectionMedecin;
+import com.example.demo.vues.VueReceptionniste;
+import com.example.demo.vues.VuesReceptionnistes;
 import jade.content.lang.Codec;
-import jade.content.lang.sl.SLCodec;
 import jade.content.onto.Ontology;
 import jade.content.onto.OntologyException;
 import jade.content.onto.basic.Action;
 import jade.core.AID;
 import jade.core.behaviours.CyclicBehaviour;
 import jade.core.behaviours.OneShotBehaviour;
+import jade.core.behaviours.TickerBehaviour;
 import jade.domain.DFService;
 import jade.domain.FIPAAgentManagement.DFAgentDescription;
 import jade.domain.FIPAAgentManagement.ServiceDescription;
 import jade.domain.FIPAException;
 import jade.lang.acl.ACLMessage;
-import jade.lang.acl.MessageTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Receptionnist extends AbstractAgent {
-    private Codec codec = new SLCodec();
+    private static final Logger logger = LoggerFactory.getLogger(Receptionnist.class);
+
+    // Délai de réponse d'un médecin, doublé à chaque nouvelle tentative ; précision de la roue des échéances
+    private static final long DELAI_REPONSE_MEDECIN_MS = 5_000;
+    private static final int TENTATIVES_MAX = 3;
+    private static final long TICK_ECHEANCES_MS = 100;
+
+    // Traitement par lots : au plus N messages et BUDGET_LOT_NANOS par activation, pour laisser passer les autres comportements
+    private static final int LOT_MAX_DEFAUT = 64;
+    private static final long BUDGET_LOT_NANOS = 5_000_000;
+
+    private CodecNegotiator codecs;
+    private RepartiteurMessages repartiteur;
+    private AnnuaireMedecins annuaire;
+    // Demandes en attente par médecin, pour choisir parmi une spécialité
+    private final SelectionMedecin selection = new SelectionMedecin();
+    private EnvoisGroupes envois;
+    private int lotMax = LOT_MAX_DEFAUT;
+    private AgentMetrics metrics = new AgentMetrics("receptionniste");
     private Ontology ontology = MedicalOntology.getInstance();
 
-    private List<Patient> patients = new ArrayList<>();
-    private List<Consultation> consultations = new ArrayList<>();
-    private Map<Integer, List<Disponibilite>> disponibilitesMedecins = new HashMap<>();
-    private Map<Integer, List<Diagnostic>> diagnosticsPatients = new HashMap<>();
+    private ConsultationRepository consultations = new ConsultationRepository();
+    // Plannings de tous les médecins : les disponibilités sont diffusées à chaque partition, car une demande
+    // pour un médecin arrive à la partition du patient. Les réservations n'y couvrent que les consultations
+    // de cette partition ; entre partitions, c'est le planning du médecin qui tranche (AGREE ou REFUSE).
+    private Map<Integer, PlanningMedecin> disponibilitesMedecins = new HashMap<>();
+
+    // État publié pour les lectures depuis d'autres threads : remplacé à chaque modification, jamais modifié
+    private volatile VueReceptionniste vue = VueReceptionniste.VIDE;
+    private VuesReceptionnistes registreVues;
+
+    // Partition de ce réceptionniste : les identifiants attribués sont entrelacés entre partitions
+    private int indexPartition = 0;
+    private int nombrePartitions = 1;
 
     private int nextConsultationId = 1;
     private int nextPatientId = 1;
 
+    // Demandes transmises aux médecins en attente de réponse, par identifiant de corrélation
+    private TableCorrelation<DemandeMedecin> demandesMedecins;
+
+    // Réponse préparée pour l'émetteur de chaque demande de consultation, jusqu'à sa notification finale
+    private final Map<Integer, ACLMessage> notificationsDemandeurs = new HashMap<>();
+
+    // Adresse de chaque patient : l'émetteur de sa dernière demande (agent Patient, agent du pool ou
+    // passerelle) ; les émetteurs sont partagés, une passerelle ne coûte qu'une AID pour tous ses patients
+    private final Map<Integer, AID> adressesPatients = new HashMap<>();
+    private final Map<AID, AID> emetteurs = new HashMap<>();
+
+    // Consultations dont le créneau est réservé dans le planning de leur médecin : de la transmission
+    // de la demande jusqu'au refus, à l'annulation, au changement de médecin ou au diagnostic
+    private final Set<Integer> creneauxReserves = new HashSet<>();
+
+    private static class DemandeMedecin {
+        final int idConsultation;
+        final int idMedecin;
+        final int tentative;
+
+        DemandeMedecin(int idConsultation, int idMedecin, int tentative) {
+            this.idConsultation = idConsultation;
+            this.idMedecin = idMedecin;
+            this.tentative = tentative;
+        }
+    }
+
+    // Journal d'écriture anticipée et instantanés, absents si aucune configuration n'est fournie
+    private JournalReceptionniste journal;
+    private InstantaneReceptionniste instantane;
+    private ExecutorService ecritureInstantanes;
+    private Future<?> instantaneEnCours;
+    // Consultations restaurées encore en attente d'une réponse de médecin : relancées une fois l'agent prêt
+    private List<Consultation> demandesRestaurees = new ArrayList<>();
+
+    /**
+     * Nom local de la partition index sur nombre (une seule partition : "receptionnist")
+     */
+    public static String nomPartition(int index, int nombre) {
+        return nombre > 1 ? "receptionnist-" + index : "receptionnist";
+    }
+
     @Override
     protected void setup() {
-        // Enregistrement du codec et de l'ontologie
-        getContentManager().registerLanguage(codec);
-        getContentManager().registerOntology(ontology);
+        // Enregistrement des codecs et de l'ontologie
+        codecs = new CodecNegotiator(getContentManager(), ontology);
+
+        // Récupération des arguments : [1] index de partition, [2] nombre de partitions
+        Object[] args = getArguments();
+        if (args != null && args.length > 2 && args[1] instanceof Integer && args[2] instanceof Integer) {
+            indexPartition = (Integer) args[1];
+            nombrePartitions = (Integer) args[2];
+            nextConsultationId = indexPartition + 1;
+            nextPatientId = indexPartition + 1;
+        }
+
+        // [4] taille maximale d'un lot de messages (1 : un message par activation)
+        if (args != null && args.length > 4 && args[4] instanceof Integer) {
+            lotMax = Math.max(1, (Integer) args[4]);
+        }
+        envois = new EnvoisGroupes(this);
 
-        System.out.println("Agent réceptionniste " + getLocalName() + " initialisé.");
+        // [3] configuration du journal : reconstruction de l'état avant de recevoir des messages
+        if (args != null && args.length > 3 && args[3] instanceof ConfigurationJournal) {
+            restaurer((ConfigurationJournal) args[3]);
+        }
+
+        // [5] registre où publier la vue de l'état, lue sans verrou par les composants Spring
+        if (args != null && args.length > 5 && args[5] instanceof VuesReceptionnistes) {
+            registreVues = (VuesReceptionnistes) args[5];
+            registreVues.enregistrer(getLocalName(), this::vue);
+        }
+
+        logger.info("Agent réceptionniste {} initialisé (partition {}/{})", getLocalName(),
+                indexPartition + 1, nombrePartitions);
 
         // Enregistrement auprès du Directory Facilitator
         DFAgentDescription dfd = new DFAgentDescription();
         dfd.setName(getAID());
         ServiceDescription sd = new ServiceDescription();
-        sd.setType("receptionniste");
+        sd.setType(ReceptionnisteRouteur.TYPE_SERVICE);
         sd.setName(getLocalName());
         dfd.addServices(sd);
 
-        try {
-            DFService.register(this, dfd);
-        } catch (FIPAException e) {
-            e.printStackTrace();
-        }
+        // Aller-retour avec le DF sur un thread virtuel : la file de l'agent est traitée pendant ce temps
+        addBehaviour(new ComportementDeporte<Void>(this) {
+            @Override
+            protected Void calculer() throws FIPAException {
+                DFService.register(myAgent, dfd);
+                return null;
+            }
+
+            @Override
+            protected void surResultat(Void resultat) {
+                logger.debug("Agent {}: enregistré auprès du DF", getLocalName());
+            }
+
+            @Override
+            protected void surEchec(Throwable cause) {
+                logger.error("Agent {}: enregistrement auprès du DF impossible", getLocalName(), cause);
+            }
+        });
+
+        metrics.surveillerBoiteAuxLettres(this);
+
+        // Annuaire des médecins tenu à jour par abonnement au DF
+        annuaire = new AnnuaireMedecins(this);
+        annuaire.demarrer();
+
+        demandesMedecins = new TableCorrelation<>(getLocalName(), TICK_ECHEANCES_MS, System.currentTimeMillis());
+
+        // Table de dispatch : (performatif, action) -> traitement
+        repartiteur = new RepartiteurMessages(this, codecs, metrics)
+                .sur(ACLMessage.REQUEST, DemanderConsultation.class, this::processDemandeConsultation)
+                .sur(ACLMessage.REQUEST, EnregistrerPatient.class, this::processEnregistrementPatient)
+                .sur(ACLMessage.INFORM, PublierDisponibilites.class,
+                        (message, lot) -> appliquerDisponibilites(lot.lister()))
+                .sur(ACLMessage.INFORM, RedigerDiagnostic.class,
+                        (message, rd) -> enregistrerDiagnostic(rd.getDiagnostic()))
+                // Réponses des médecins, corrélées par inReplyTo sans décoder leur contenu
+                .sur(ACLMessage.AGREE, this::processReponseMedecin)
+                .sur(ACLMessage.REFUSE, this::processReponseMedecin);
 
         // Ajout des comportements
         addBehaviour(new ReceptionMessageBehaviour());
+        addBehaviour(new EcheancesDemandesBehaviour());
+
+        relancerDemandesRestaurees();
+    }
+
+    // Les demandes transmises avant l'arrêt n'ont plus d'échéance : nouvel envoi au médecin, avec relances
+    // puis annulation s'il ne répond pas ; la notification finale ira à l'adresse connue du patient
+    private void relancerDemandesRestaurees() {
+        for (Consultation consultation : demandesRestaurees) {
+            try {
+                transmettreAuMedecin(consultation, 0);
+            } catch (Exception e) {
+                logger.error("Agent {}: relance de la consultation restaurée #{} impossible", getLocalName(),
+                        consultation.getId(), e);
+            }
+        }
+        if (!demandesRestaurees.isEmpty()) {
+            logger.info("Agent {}: {} demandes de consultation restaurées relancées auprès des médecins",
+                    getLocalName(), demandesRestaurees.size());
+        }
+        demandesRestaurees = new ArrayList<>();
     }
 
     @Override
     protected void takeDown() {
+        metrics.arreter();
+        if (registreVues != null) {
+            registreVues.retirer(getLocalName());
+        }
+
+        if (journal != null) {
+            journal.close();
+        }
+        if (ecritureInstantanes != null) {
+            ecritureInstantanes.shutdown();
+        }
+
         // Désenregistrement du DF
         try {
             DFService.deregister(this);
         } catch (FIPAException e) {
-            e.printStackTrace();
+            logger.error("Agent {}: désenregistrement du DF impossible", getLocalName(), e);
         }
 
-        System.out.println("Agent réceptionniste " + getLocalName() + " terminé.");
+        logger.info("Agent réceptionniste {} terminé.", getLocalName());
     }
 
-    // Comportement pour réceptionner les messages
+    // Comportement pour réceptionner les messages : vide la file par lots dont la taille suit sa profondeur,
+    // les réponses du lot partant ensuite groupées par destinataire
     private class ReceptionMessageBehaviour extends CyclicBehaviour {
         @Override
         public void action() {
-            MessageTemplate mt = MessageTemplate.and(
-                    MessageTemplate.MatchLanguage(codec.getName()),
-                    MessageTemplate.MatchOntology(ontology.getName())
-            );
-
-            ACLMessage message = myAgent.receive(mt);
-
-            if (message != null) {
-                try {
-                    // Traitement des différents types de messages selon le performatif
-                    switch (message.getPerformative()) {
-                        case ACLMessage.REQUEST:
-                            // Extraction du contenu
-                            ContentElement ce = getContentManager().extractContent(message);
-
-                            if (ce instanceof Action) {
-                                Action act = (Action) ce;
-
-                                // Traitement selon le type d'action
-                                if (act.getAction() instanceof DemanderConsultation) {
-                                    processDemandeConsultation(message, (DemanderConsultation) act.getAction());
-                                } else if (act.getAction() instanceof EnregistrerPatient) {
-                                    processEnregistrementPatient(message, (EnregistrerPatient) act.getAction());
-                                }
-                            }
-                            break;
-
-                        case ACLMessage.INFORM:
-                            // Traitement des notifications
-                            Object content = message.getContentObject();
-
-                            if (content instanceof Disponibilite) {
-                                // Mise à jour des disponibilités des médecins
-                                updateDisponibiliteMedecin((Disponibilite) content);
-                            } else if (content instanceof Action && ((Action) content).getAction() instanceof RedigerDiagnostic) {
-                                // Enregistrement d'un diagnostic
-                                RedigerDiagnostic rd = (RedigerDiagnostic) ((Action) content).getAction();
-                                enregistrerDiagnostic(rd.getDiagnostic());
-                            }
-                            break;
-
-                        case ACLMessage.AGREE:
-                        case ACLMessage.REFUSE:
-                            // Réponse d'un médecin à une demande de consultation
-                            processReponseMedecin(message);
-                            break;
-
-                        default:
-                            System.out.println("Agent " + getLocalName() + ": Message non traité de type " +
-                                    ACLMessage.getPerformative(message.getPerformative()));
+            int lot = Math.min(lotMax, Math.max(1, getCurQueueSize()));
+            long limite = System.nanoTime() + BUDGET_LOT_NANOS;
+            int traites = 0;
+
+            envois.ouvrir();
+            try {
+                while (traites < lot && repartiteur.traiterSuivant()) {
+                    traites++;
+                    if (System.nanoTime() - limite > 0) {
+                        break;
                     }
-                } catch (Exception e) {
-                    e.printStackTrace();
                 }
-            } else {
+            } finally {
+                envois.fermer();
+            }
+
+            if (traites == 0) {
                 block();
+            } else {
+                metrics.lotTraite(traites);
             }
         }
     }
 
+    // Enregistrement (ou mise à jour) d'une consultation dans l'index, la vue publiée et le journal
+    private void enregistrerConsultation(Consultation consultation) {
+        consultations.save(consultation);
+        vue = vue.avecConsultation(copie(consultation));
+        if (journal != null) {
+            journal.consultation(consultation);
+        }
+    }
+
+    // Changement de statut d'une consultation, avec comptage de la transition
+    private void changerStatut(Consultation consultation, String statut) {
+        metrics.transition(consultation.getStatus(), statut);
+        consultation.setStatus(statut);
+    }
+
     // Traitement d'une demande de consultation
     private void processDemandeConsultation(ACLMessage message, DemanderConsultation dc) {
         try {
             Consultation consultation = dc.getConsultation();
 
             // Attribution d'un ID unique
-            consultation.setId(nextConsultationId++);
+            consultation.setId(prochainIdConsultation());
+            metrics.transition(null, consultation.getStatus());
+
+            // Demande adressée à une spécialité : choix du médecin au créneau le plus proche, puis le moins chargé
+            if (consultation.getIdMedecin() <= 0 && dc.getSpecialite() != null) {
+                SelectionMedecin.Choix choix = selection.choisir(annuaire.medecinsDe(dc.getSpecialite()),
+                        consultation.getDateHeure(), disponibilitesMedecins);
+                if (choix == null) {
+                    notificationsDemandeurs.put(consultation.getId(), message.createReply());
+                    refuserSansMedecin(message, consultation, dc.getSpecialite());
+                    return;
+                }
+                consultation.setIdMedecin(choix.idMedecin());
+                // Date demandée déjà prise : la consultation est demandée au premier créneau libre du médecin choisi
+                if (choix.creneau() != null) {
+                    consultation.setDateHeure(choix.creneau());
+                }
+            }
 
-            // Enregistrement de la consultation
-            consultations.add(consultation);
+            // Enregistrement de la consultation ; la notification finale sera adressée à l'émetteur
+            memoriserAdresse(consultation.getIdPatient(), message.getSender());
+            enregistrerConsultation(consultation);
+            notificationsDemandeurs.put(consultation.getId(), message.createReply());
 
-            System.out.println("Agent " + getLocalName() + ": Demande de consultation reçue du patient #" +
-                    consultation.getIdPatient() + " pour le médecin #" + consultation.getIdMedecin() +
-                    " à la date " + consultation.getDateHeure());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Agent {}: Demande de consultation #{} reçue du patient #{} pour le médecin #{} à la date {}",
+                        getLocalName(), consultation.getId(), consultation.getIdPatient(),
+                        consultation.getIdMedecin(), consultation.getDateHeure());
+            }
 
             // Transfert de la demande au médecin concerné
-            ACLMessage forwardMsg = new ACLMessage(ACLMessage.REQUEST);
-            forwardMsg.addReceiver(new AID("medecin" + consultation.getIdMedecin(), AID.ISLOCALNAME));
-            forwardMsg.setLanguage(codec.getName());
-            forwardMsg.setOntology(ontology.getName());
-
-            // Création de l'action
-            Action action = new Action(getAID(), dc);
-            getContentManager().fillContent(forwardMsg, action);
-
-            // Envoi du message
-            send(forwardMsg);
+            transmettreAuMedecin(consultation, 0);
 
             // Réponse au patient
             ACLMessage reply = message.createReply();
             reply.setPerformative(ACLMessage.AGREE);
             reply.setContent("Demande de consultation transmise au médecin");
-            send(reply);
+            envois.envoyer(reply);
 
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Agent {}: échec du transfert de la demande de consultation", getLocalName(), e);
+        }
+    }
+
+    private void memoriserAdresse(int idPatient, AID emetteur) {
+        if (idPatient != 0 && emetteur != null) {
+            adressesPatients.put(idPatient, emetteurs.computeIfAbsent(emetteur, aid -> aid));
+        }
+    }
+
+    // Adresse des notifications d'un patient ; à défaut (aucune demande depuis le démarrage), l'agent "patient<id>"
+    private AID adressePatient(int idPatient) {
+        AID adresse = adressesPatients.get(idPatient);
+        return adresse != null ? adresse : new AID("patient" + idPatient, AID.ISLOCALNAME);
+    }
+
+    // Transfert d'une demande de consultation à son médecin, avec échéance de réponse
+    private void transmettreAuMedecin(Consultation consultation, int tentative) throws Codec.CodecException, OntologyException {
+        // Le créneau est tenu pendant l'attente de la réponse : une autre demande ne peut pas le choisir
+        reserverCreneau(consultation);
+        ACLMessage forwardMsg = new ACLMessage(ACLMessage.REQUEST);
+        forwardMsg.addReceiver(annuaire.medecin(consultation.getIdMedecin()));
+        forwardMsg.setConversationId("consultation-" + consultation.getId());
+        demandesMedecins.ouvrir(forwardMsg, new DemandeMedecin(consultation.getId(), consultation.getIdMedecin(), tentative),
+                DELAI_REPONSE_MEDECIN_MS << tentative);
+        selection.affecter(consultation.getIdMedecin());
+        codecs.preparer(forwardMsg);
+
+        // Création de l'action
+        DemanderConsultation dc = new DemanderConsultation();
+        dc.setConsultation(consultation);
+        codecs.remplir(forwardMsg, new Action(getAID(), dc));
+
+        // Envoi du message
+        envois.envoyer(forwardMsg);
+    }
+
+    // Aucun médecin de la spécialité demandée n'est inscrit : refus immédiat
+    private void refuserSansMedecin(ACLMessage message, Consultation consultation, String specialite) throws IOException {
+        logger.warn("Agent {}: Consultation #{} refusée, aucun médecin inscrit en {}",
+                getLocalName(), consultation.getId(), specialite);
+        changerStatut(consultation, "refusée");
+        enregistrerConsultation(consultation);
+
+        ACLMessage reply = message.createReply();
+        reply.setPerformative(ACLMessage.REFUSE);
+        reply.setContent("Aucun médecin disponible en " + specialite);
+        envois.envoyer(reply);
+
+        notifierPatient(consultation);
+    }
+
+    // Chargement du dernier instantané, relecture de la fin du journal puis ouverture en écriture
+    private void restaurer(ConfigurationJournal configuration) {
+        instantane = configuration.instantane(getLocalName());
+        journal = configuration.journal(getLocalName());
+        try {
+            long debut = System.nanoTime();
+            ReconstructionEtat reconstruction = new ReconstructionEtat();
+            long generation = instantane.charger(reconstruction);
+            int depuisInstantane = consultations.size();
+            long relus = journal.rejouer(generation, reconstruction);
+
+            // Les créneaux des consultations planifiées sont de nouveau réservés ; consultations et
+            // disponibilités sont publiées en une passe plutôt qu'à chaque enregistrement relu
+            VueReceptionniste restauree = vue;
+            for (Consultation consultation : consultations.findAll()) {
+                if ("planifiée".equals(consultation.getStatus())) {
+                    reserverCreneau(consultation);
+                } else if ("demandée".equals(consultation.getStatus())) {
+                    demandesRestaurees.add(consultation);
+                }
+                restauree = restauree.avecConsultation(copie(consultation));
+            }
+            for (Map.Entry<Integer, PlanningMedecin> planning : disponibilitesMedecins.entrySet()) {
+                restauree = restauree.avecDisponibilites(planning.getKey(), planning.getValue().getDisponibilites());
+            }
+            vue = restauree;
+            logger.info("Agent {}: état restauré en {} ms ({} consultations de l'instantané, {} enregistrements du journal rejoués)",
+                    getLocalName(), (System.nanoTime() - debut) / 1_000_000, depuisInstantane, relus);
+
+            // Segments déjà couverts par l'instantané mais non supprimés (arrêt pendant la compaction)
+            journal.compacter(generation);
+            // Journal défaillant : l'agent s'arrête plutôt que d'acquitter des changements qu'il ne conserverait pas
+            journal.surDefaillance(cause -> {
+                logger.error("Agent {}: journal défaillant, arrêt de l'agent", getLocalName(), cause);
+                doDelete();
+            });
+            journal.ouvrir();
+        } catch (IOException e) {
+            logger.error("Agent {}: journal indisponible, l'état ne sera pas conservé", getLocalName(), e);
+            journal = null;
+            return;
+        }
+
+        if (configuration.getIntervalleInstantaneSecondes() > 0) {
+            ecritureInstantanes = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "instantane-" + getLocalName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            addBehaviour(new InstantaneBehaviour(configuration.getIntervalleInstantaneSecondes() * 1000,
+                    configuration.getSeuilInstantane()));
         }
     }
 
+    // Comportement périodique : instantané de l'état puis compaction du journal
+    private class InstantaneBehaviour extends TickerBehaviour {
+        private final long seuil;
+
+        public InstantaneBehaviour(long periode, long seuil) {
+            super(Receptionnist.this, periode);
+            this.seuil = seuil;
+        }
+
+        @Override
+        protected void onTick() {
+            if (journal.getEnregistrementsDepuisBascule() < seuil
+                    || (instantaneEnCours != null && !instantaneEnCours.isDone())) {
+                return;
+            }
+            try {
+                // Tout ce qui précède la bascule est dans l'état copié ci-dessous ; la fin de l'ancien segment
+                // est écrite par le thread du journal, sans attente ici
+                CompletableFuture<Long> bascule = journal.basculer();
+
+                // La vue publiée est l'état à la bascule : saisie en O(1), sans copie sur le thread de l'agent
+                VueReceptionniste etat = vue;
+
+                // Mise à plat, sérialisation, écriture et compaction en arrière-plan
+                instantaneEnCours = ecritureInstantanes.submit(() -> {
+                    long debut = System.nanoTime();
+                    try {
+                        // Segments précédents synchronisés et fermés avant l'instantané qui les remplace
+                        long generation = bascule.get();
+                        List<Patient> copiePatients = new ArrayList<>(etat.patients());
+                        List<Consultation> copieConsultations = new ArrayList<>(etat.consultations());
+                        List<Disponibilite> copieDisponibilites = new ArrayList<>();
+                        List<Diagnostic> copieDiagnostics = new ArrayList<>();
+                        for (List<Disponibilite> disponibilites : etat.disponibilitesParMedecin()) {
+                            copieDisponibilites.addAll(disponibilites);
+                        }
+                        for (List<Diagnostic> diagnostics : etat.diagnosticsParPatient()) {
+                            copieDiagnostics.addAll(diagnostics);
+                        }
+                        instantane.ecrire(generation, copiePatients, copieDisponibilites, copieConsultations, copieDiagnostics);
+                        journal.compacter(generation);
+                        logger.info("Agent {}: instantané de génération {} écrit en {} ms ({} consultations)", getLocalName(),
+                                generation, (System.nanoTime() - debut) / 1_000_000, copieConsultations.size());
+                    } catch (IOException | ExecutionException e) {
+                        logger.error("Agent {}: écriture de l'instantané impossible", getLocalName(), e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (IOException e) {
+                logger.error("Agent {}: bascule du journal impossible", getLocalName(), e);
+            }
+        }
+    }
+
+    // Application des enregistrements relus du journal, sans nouvelle écriture
+    private class ReconstructionEtat implements JournalReceptionniste.Lecteur {
+        @Override
+        public void patient(Patient patient) {
+            vue = vue.avecPatient(patient);
+            if (patient.getId() >= nextPatientId) {
+                nextPatientId = patient.getId() + nombrePartitions;
+            }
+        }
+
+        @Override
+        public void consultation(Consultation consultation) {
+            consultations.save(consultation);
+            if (consultation.getId() >= nextConsultationId) {
+                nextConsultationId = consultation.getId() + nombrePartitions;
+            }
+        }
+
+        @Override
+        public void disponibilite(Disponibilite disponibilite) {
+            disponibilitesMedecins.computeIfAbsent(disponibilite.getIdMedecin(), k -> new PlanningMedecin())
+                    .ajouterDisponibilite(disponibilite);
+        }
+
+        @Override
+        public void diagnostic(Diagnostic diagnostic) {
+            Consultation consultation = consultations.findById(diagnostic.getIdConsultation());
+            if (consultation != null) {
+                vue = vue.avecDiagnostic(consultation.getIdPatient(), diagnostic);
+            }
+        }
+    }
+
+    private int prochainIdConsultation() {
+        int id = nextConsultationId;
+        nextConsultationId += nombrePartitions;
+        return id;
+    }
+
     // Traitement d'une demande d'enregistrement de patient
     private void processEnregistrementPatient(ACLMessage message, EnregistrerPatient ep) {
         try {
@@ -191,160 +567,249 @@ public class Receptionnist extends AbstractAgent {
 
             // Attribution d'un ID unique si nécessaire
             if (patient.getId() == 0) {
-                patient.setId(nextPatientId++);
+                patient.setId(nextPatientId);
+                nextPatientId += nombrePartitions;
             }
 
             // Vérification si le patient existe déjà
-            boolean patientExiste = false;
-            for (Patient p : patients) {
-                if (p.getNom().equals(patient.getNom()) && p.getPrenom().equals(patient.getPrenom())) {
-                    patientExiste = true;
-                    break;
-                }
-            }
+            Patient existant = vue.patientNomme(patient.getNom(), patient.getPrenom());
 
             // Enregistrement du patient s'il n'existe pas
-            if (!patientExiste) {
-                patients.add(patient);
-                System.out.println("Agent " + getLocalName() + ": Nouveau patient enregistré: " +
-                        patient.getPrenom() + " " + patient.getNom() + " (ID: " + patient.getId() + ")");
+            if (existant == null) {
+                vue = vue.avecPatient(patient);
+                if (journal != null) {
+                    journal.patient(patient);
+                }
+                logger.info("Agent {}: Nouveau patient enregistré: {} {} (ID: {})", getLocalName(),
+                        patient.getPrenom(), patient.getNom(), patient.getId());
             } else {
-                System.out.println("Agent " + getLocalName() + ": Patient déjà enregistré: " +
-                        patient.getPrenom() + " " + patient.getNom());
+                logger.debug("Agent {}: Patient déjà enregistré: {} {}", getLocalName(),
+                        patient.getPrenom(), patient.getNom());
             }
 
             // Réponse au demandeur
             ACLMessage reply = message.createReply();
             reply.setPerformative(ACLMessage.INFORM);
-            reply.setContent("Patient enregistré avec l'ID: " + patient.getId());
-            send(reply);
+            codecs.preparer(reply);
+            reply.setContentObject(existant != null ? existant : patient);
+            envois.envoyer(reply);
 
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Agent {}: échec de l'enregistrement du patient", getLocalName(), e);
         }
     }
 
     // Traitement d'une réponse d'un médecin à une demande de consultation
     private void processReponseMedecin(ACLMessage message) {
         try {
-            // Extraction de l'ID de la consultation depuis le contenu du message
-            String content = message.getContent();
-            int consultationId = -1;
-
-            if (content != null && content.contains("consultation")) {
-                // Extraction de l'ID de consultation (dépend du format du message)
-                // Logique d'extraction à adapter selon les besoins
-                try {
-                    consultationId = Integer.parseInt(content.replaceAll("[^0-9]", ""));
-                } catch (NumberFormatException e) {
-                    System.out.println("Impossible d'extraire l'ID de consultation du message");
-                }
+            // Demande à laquelle répond le médecin, retrouvée par son identifiant de corrélation
+            DemandeMedecin demande = demandesMedecins.resoudre(message);
+            if (demande == null) {
+                logger.warn("Agent {}: Réponse du médecin {} sans demande en attente (inReplyTo {})",
+                        getLocalName(), message.getSender(), message.getInReplyTo());
+                return;
             }
+            selection.liberer(demande.idMedecin);
+            int consultationId = demande.idConsultation;
 
             // Recherche de la consultation concernée
-            Consultation consultation = null;
-            for (Consultation c : consultations) {
-                if (c.getId() == consultationId) {
-                    consultation = c;
-                    break;
-                }
-            }
+            Consultation consultation = consultations.findById(consultationId);
 
             if (consultation != null) {
                 // Mise à jour du statut de la consultation
                 if (message.getPerformative() == ACLMessage.AGREE) {
-                    consultation.setStatus("planifiée");
-                    System.out.println("Agent " + getLocalName() + ": Consultation #" + consultationId +
-                            " confirmée par le médecin");
+                    changerStatut(consultation, "planifiée");
+                    enregistrerConsultation(consultation);
+                    reserverCreneau(consultation);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Agent {}: Consultation #{} confirmée par le médecin", getLocalName(), consultationId);
+                    }
 
                     // Notification au patient
-                    ACLMessage notifMsg = new ACLMessage(ACLMessage.INFORM);
-                    notifMsg.addReceiver(new AID("patient" + consultation.getIdPatient(), AID.ISLOCALNAME));
-                    notifMsg.setLanguage(codec.getName());
-                    notifMsg.setOntology(ontology.getName());
-                    notifMsg.setContentObject(consultation);
-                    send(notifMsg);
+                    notifierPatient(consultation);
 
                 } else if (message.getPerformative() == ACLMessage.REFUSE) {
-                    consultation.setStatus("refusée");
-                    System.out.println("Agent " + getLocalName() + ": Consultation #" + consultationId +
-                            " refusée par le médecin");
+                    changerStatut(consultation, "refusée");
+                    enregistrerConsultation(consultation);
+                    libererCreneau(consultation);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Agent {}: Consultation #{} refusée par le médecin", getLocalName(), consultationId);
+                    }
 
                     // Notification au patient
-                    ACLMessage notifMsg = new ACLMessage(ACLMessage.INFORM);
-                    notifMsg.addReceiver(new AID("patient" + consultation.getIdPatient(), AID.ISLOCALNAME));
-                    notifMsg.setContent("Consultation refusée par le médecin");
-                    send(notifMsg);
+                    notifierPatient(consultation);
                 }
+            } else {
+                logger.warn("Agent {}: Réponse du médecin {} pour une consultation inconnue #{}",
+                        getLocalName(), message.getSender(), consultationId);
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Agent {}: échec du traitement de la réponse du médecin", getLocalName(), e);
+        }
+    }
+
+    // Notification de l'état final d'une consultation (planifiée, refusée ou annulée) à l'émetteur de la demande,
+    // en réponse à celle-ci ; à défaut (demande antérieure à un redémarrage), à l'adresse du patient
+    private void notifierPatient(Consultation consultation) throws IOException {
+        ACLMessage notifMsg = notificationsDemandeurs.remove(consultation.getId());
+        if (notifMsg == null) {
+            notifMsg = new ACLMessage(ACLMessage.INFORM);
+            notifMsg.addReceiver(adressePatient(consultation.getIdPatient()));
         }
+        notifMsg.setPerformative(ACLMessage.INFORM);
+        notifMsg.setConversationId("consultation-" + consultation.getId());
+        codecs.preparer(notifMsg);
+        notifMsg.setContentObject(consultation);
+        envois.envoyer(notifMsg);
     }
 
-    // Mise à jour des disponibilités d'un médecin
-    private void updateDisponibiliteMedecin(Disponibilite disponibilite) {
-        int idMedecin = disponibilite.getIdMedecin();
+    // Comportement périodique : avance la roue des échéances des demandes transmises aux médecins
+    private class EcheancesDemandesBehaviour extends TickerBehaviour {
+        public EcheancesDemandesBehaviour() {
+            super(Receptionnist.this, TICK_ECHEANCES_MS);
+        }
 
-        if (!disponibilitesMedecins.containsKey(idMedecin)) {
-            disponibilitesMedecins.put(idMedecin, new ArrayList<>());
+        @Override
+        protected void onTick() {
+            demandesMedecins.expirer(System.currentTimeMillis(), this::demandeExpiree);
         }
 
-        List<Disponibilite> disponibilites = disponibilitesMedecins.get(idMedecin);
+        // Nouvelle tentative auprès d'un autre médecin de la même spécialité s'il en existe,
+        // sinon auprès du même médecin, qui accorde de nouveau le créneau déjà réservé pour cette
+        // consultation ; abandon et notification du patient après TENTATIVES_MAX
+        private void demandeExpiree(DemandeMedecin demande) {
+            selection.liberer(demande.idMedecin);
+            Consultation consultation = consultations.findById(demande.idConsultation);
+            if (consultation == null || !"demandée".equals(consultation.getStatus())) {
+                return;
+            }
+            try {
+                if (demande.tentative + 1 >= TENTATIVES_MAX) {
+                    logger.warn("Agent {}: Consultation #{} annulée, aucun médecin n'a répondu après {} tentatives",
+                            getLocalName(), consultation.getId(), TENTATIVES_MAX);
+                    changerStatut(consultation, "annulée");
+                    enregistrerConsultation(consultation);
+                    libererCreneau(consultation);
+                    // Un accord tardif du médecin ne sera plus corrélé : il rend le créneau qu'il a pu réserver
+                    annulerAupresDuMedecin(consultation);
+                    notifierPatient(consultation);
+                    return;
+                }
 
-        // Vérifier si la disponibilité existe déjà
-        boolean existe = false;
-        for (int i = 0; i < disponibilites.size(); i++) {
-            if (disponibilites.get(i).getDateHeure().equals(disponibilite.getDateHeure())) {
-                disponibilites.set(i, disponibilite);
-                existe = true;
-                break;
+                int idMedecin = consultation.getIdMedecin();
+                int remplacant = annuaire.suivant(idMedecin);
+                if (remplacant != idMedecin) {
+                    // Le créneau tenu chez le médecin muet est rendu, ici et chez lui, avant la réservation chez son remplaçant
+                    libererCreneau(consultation);
+                    annulerAupresDuMedecin(consultation);
+                    consultation.setIdMedecin(remplacant);
+                    enregistrerConsultation(consultation);
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Agent {}: Pas de réponse du médecin #{} pour la consultation #{}, tentative {} auprès du médecin #{}",
+                            getLocalName(), idMedecin, consultation.getId(), demande.tentative + 2, remplacant);
+                }
+                transmettreAuMedecin(consultation, demande.tentative + 1);
+            } catch (Exception e) {
+                logger.error("Agent {}: échec de la relance de la consultation #{}", getLocalName(), consultation.getId(), e);
             }
         }
+    }
 
-        // Si non, l'ajouter
-        if (!existe) {
-            disponibilites.add(disponibilite);
+    // La consultation quitte son médecin ou l'état planifiée : le médecin libère le créneau réservé pour elle
+    private void annulerAupresDuMedecin(Consultation consultation) {
+        try {
+            ACLMessage message = new ACLMessage(ACLMessage.INFORM);
+            message.addReceiver(annuaire.medecin(consultation.getIdMedecin()));
+            message.setConversationId("consultation-" + consultation.getId());
+            codecs.preparer(message);
+            codecs.remplir(message, new Action(getAID(), new AnnulerConsultation(consultation)));
+            envois.envoyer(message);
+        } catch (Codec.CodecException | OntologyException e) {
+            logger.error("Agent {}: libération du créneau de la consultation #{} chez le médecin #{} impossible",
+                    getLocalName(), consultation.getId(), consultation.getIdMedecin(), e);
         }
+    }
 
-        System.out.println("Agent " + getLocalName() + ": Disponibilité du médecin #" + idMedecin +
-                " mise à jour pour le " + disponibilite.getDateHeure());
+    // Réservation du créneau d'une consultation dans l'index de son médecin, une seule fois par consultation
+    private void reserverCreneau(Consultation consultation) {
+        PlanningMedecin planning = disponibilitesMedecins.get(consultation.getIdMedecin());
+        if (planning != null && consultation.getDateHeure() != null
+                && !creneauxReserves.contains(consultation.getId())
+                && planning.reserver(consultation.getDateHeure(), PlanningMedecin.DUREE_CONSULTATION)) {
+            creneauxReserves.add(consultation.getId());
+        }
+    }
+
+    // Libération du créneau réservé par une consultation qui quitte son médecin ou l'état planifiée
+    private void libererCreneau(Consultation consultation) {
+        if (!creneauxReserves.remove(consultation.getId())) {
+            return;
+        }
+        PlanningMedecin planning = disponibilitesMedecins.get(consultation.getIdMedecin());
+        if (planning != null) {
+            planning.liberer(consultation.getDateHeure(), PlanningMedecin.DUREE_CONSULTATION);
+        }
+    }
+
+    // Application d'un lot de disponibilités à l'index, en une passe par médecin
+    private void appliquerDisponibilites(List<Disponibilite> lot) {
+        Map<Integer, List<Disponibilite>> parMedecin = new HashMap<>();
+        for (Disponibilite disponibilite : lot) {
+            parMedecin.computeIfAbsent(disponibilite.getIdMedecin(), k -> new ArrayList<>()).add(disponibilite);
+            if (journal != null) {
+                journal.disponibilite(disponibilite);
+            }
+        }
+        VueReceptionniste nouvelle = vue;
+        for (Map.Entry<Integer, List<Disponibilite>> entree : parMedecin.entrySet()) {
+            PlanningMedecin planning = disponibilitesMedecins.computeIfAbsent(entree.getKey(), k -> new PlanningMedecin());
+            planning.ajouterDisponibilites(entree.getValue());
+            nouvelle = nouvelle.avecDisponibilites(entree.getKey(), planning.getDisponibilites());
+        }
+        vue = nouvelle;
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Agent {}: {} disponibilités mises à jour pour les médecins {}", getLocalName(),
+                    lot.size(), parMedecin.keySet());
+        }
     }
 
     // Enregistrement d'un diagnostic
     private void enregistrerDiagnostic(Diagnostic diagnostic) {
         // Recherche de la consultation associée
-        Consultation consultation = null;
-        for (Consultation c : consultations) {
-            if (c.getId() == diagnostic.getIdConsultation()) {
-                consultation = c;
-                break;
-            }
-        }
+        Consultation consultation = consultations.findById(diagnostic.getIdConsultation());
 
         if (consultation != null) {
             int idPatient = consultation.getIdPatient();
 
             // Mise à jour du statut de la consultation
-            consultation.setStatus("terminée");
+            changerStatut(consultation, "terminée");
+            enregistrerConsultation(consultation);
+            libererCreneau(consultation);
+            annulerAupresDuMedecin(consultation);
 
             // Enregistrement du diagnostic dans l'historique du patient
-            if (!diagnosticsPatients.containsKey(idPatient)) {
-                diagnosticsPatients.put(idPatient, new ArrayList<>());
+            vue = vue.avecDiagnostic(idPatient, diagnostic);
+            if (journal != null) {
+                journal.diagnostic(diagnostic);
             }
-            diagnosticsPatients.get(idPatient).add(diagnostic);
 
-            System.out.println("Agent " + getLocalName() + ": Diagnostic enregistré pour le patient #" +
-                    idPatient + " (consultation #" + diagnostic.getIdConsultation() + ")");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Agent {}: Diagnostic enregistré pour le patient #{} (consultation #{})", getLocalName(),
+                        idPatient, diagnostic.getIdConsultation());
+            }
 
-            // Notification au patient
+            // Notification au patient, sous la même forme que les autres : la consultation, désormais terminée
             try {
                 ACLMessage notifMsg = new ACLMessage(ACLMessage.INFORM);
-                notifMsg.addReceiver(new AID("patient" + idPatient, AID.ISLOCALNAME));
-                notifMsg.setContent("Votre consultation a été complétée. Un diagnostic est disponible.");
-                send(notifMsg);
+                notifMsg.addReceiver(adressePatient(idPatient));
+                notifMsg.setConversationId("consultation-" + consultation.getId());
+                codecs.preparer(notifMsg);
+                notifMsg.setContentObject(consultation);
+                envois.envoyer(notifMsg);
             } catch (Exception e) {
-                e.printStackTrace();
+                logger.error("Agent {}: notification du diagnostic au patient #{} impossible", getLocalName(), idPatient, e);
             }
         }
     }
@@ -367,29 +832,32 @@ public class Receptionnist extends AbstractAgent {
         @Override
         public void action() {
             try {
-                // Recherche d'une disponibilité du médecin
-                List<Disponibilite> disponibilites = disponibilitesMedecins.getOrDefault(idMedecin, new ArrayList<>());
-                Disponibilite disponibiliteChoisie = null;
-
-                for (Disponibilite disponibilite : disponibilites) {
-                    // Vérification de la disponibilité
-                    if (isDisponible(disponibilite)) {
-                        disponibiliteChoisie = disponibilite;
-                        break;
-                    }
-                }
+                // Recherche du premier créneau libre du médecin à partir de la date souhaitée
+                PlanningMedecin planning = disponibilitesMedecins.get(idMedecin);
+                Date apres = consultation.getDateHeure() != null ? consultation.getDateHeure() : new Date();
+                Date creneau = planning != null
+                        ? planning.prochainCreneauLibre(apres, PlanningMedecin.DUREE_CONSULTATION)
+                        : null;
+
+                if (creneau != null) {
+                    Disponibilite disponibiliteChoisie = planning.disponibiliteContenant(creneau);
 
-                if (disponibiliteChoisie != null) {
                     // Mise à jour de la consultation
                     if (consultation.getId() == 0) {
-                        consultation.setId(nextConsultationId++);
+                        consultation.setId(prochainIdConsultation());
                     }
-                    consultation.setDateHeure(disponibiliteChoisie.getDateHeure());
+                    libererCreneau(consultation);
+                    // Confiée à un autre médecin : l'ancien rend son créneau ; le nouveau réserve à la notification
+                    if (consultation.getIdMedecin() > 0 && consultation.getIdMedecin() != idMedecin) {
+                        annulerAupresDuMedecin(consultation);
+                    }
+                    consultation.setDateHeure(creneau);
                     consultation.setIdMedecin(idMedecin);
-                    consultation.setStatus("planifiée");
+                    changerStatut(consultation, "planifiée");
+                    reserverCreneau(consultation);
 
                     // Enregistrement de la consultation
-                    consultations.add(consultation);
+                    enregistrerConsultation(consultation);
 
                     // Création de l'action OrganiserConsultation
                     OrganiserConsultation organiserConsultation = new OrganiserConsultation();
@@ -398,61 +866,63 @@ public class Receptionnist extends AbstractAgent {
 
                     // Notification au médecin
                     ACLMessage msgMedecin = new ACLMessage(ACLMessage.INFORM);
-                    msgMedecin.addReceiver(new AID("medecin" + idMedecin, AID.ISLOCALNAME));
-                    msgMedecin.setLanguage(codec.getName());
-                    msgMedecin.setOntology(ontology.getName());
-                    getContentManager().fillContent(msgMedecin, new Action(getAID(), organiserConsultation));
-                    send(msgMedecin);
+                    msgMedecin.addReceiver(annuaire.medecin(idMedecin));
+                    codecs.preparer(msgMedecin);
+                    codecs.remplir(msgMedecin, new Action(getAID(), organiserConsultation));
+                    envois.envoyer(msgMedecin);
 
                     // Notification au patient
                     ACLMessage msgPatient = new ACLMessage(ACLMessage.INFORM);
-                    msgPatient.addReceiver(new AID("patient" + consultation.getIdPatient(), AID.ISLOCALNAME));
-                    msgPatient.setLanguage(codec.getName());
-                    msgPatient.setOntology(ontology.getName());
+                    msgPatient.addReceiver(adressePatient(consultation.getIdPatient()));
+                    codecs.preparer(msgPatient);
                     msgPatient.setContentObject(consultation);
-                    send(msgPatient);
+                    envois.envoyer(msgPatient);
 
-                    System.out.println("Agent " + getLocalName() + ": Consultation organisée pour le patient #" +
-                            consultation.getIdPatient() + " avec le médecin #" + idMedecin +
-                            " à la date " + consultation.getDateHeure());
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Agent {}: Consultation organisée pour le patient #{} avec le médecin #{} à la date {}",
+                                getLocalName(), consultation.getIdPatient(), idMedecin, consultation.getDateHeure());
+                    }
                 } else {
-                    System.out.println("Agent " + getLocalName() + ": Impossible d'organiser la consultation. " +
-                            "Aucune disponibilité trouvée pour le médecin #" + idMedecin);
+                    logger.warn("Agent {}: Impossible d'organiser la consultation. Aucune disponibilité trouvée pour le médecin #{}",
+                            getLocalName(), idMedecin);
                 }
 
             } catch (Exception e) {
-                e.printStackTrace();
+                logger.error("Agent {}: échec de l'organisation de la consultation", getLocalName(), e);
             }
         }
+    }
 
-        // Vérification si une disponibilité est toujours valide
-        private boolean isDisponible(Disponibilite disponibilite) {
-            // Vérifier que la disponibilité n'est pas déjà utilisée pour une autre consultation
-            for (Consultation c : consultations) {
-                if (c.getIdMedecin() == idMedecin &&
-                        c.getDateHeure().equals(disponibilite.getDateHeure()) &&
-                        !c.getStatus().equals("refusée") && !c.getStatus().equals("annulée")) {
-                    return false;
-                }
-            }
-            return true;
-        }
+    // Copie publiée dans la vue : l'agent continue de modifier la consultation d'origine
+    private static Consultation copie(Consultation c) {
+        return new Consultation(c.getId(), c.getDateHeure(), c.getStatus(), c.getIdPatient(), c.getIdMedecin());
+    }
+
+    /**
+     * Dernière vue publiée de l'état, lisible depuis n'importe quel thread
+     */
+    public VueReceptionniste vue() {
+        return vue;
+    }
+
+    // Getters : lectures sur la dernière vue publiée, sans verrou ni copie de l'état
+    public Collection<Patient> getPatients() {
+        return vue.patients();
     }
 
-    // Getters
-    public List<Patient> getPatients() {
-        return new ArrayList<>(patients);
+    public Collection<Consultation> getConsultations() {
+        return vue.consultations();
     }
 
-    public List<Consultation> getConsultations() {
-        return new ArrayList<>(consultations);
+    public List<Consultation> getConsultationsPatient(int idPatient) {
+        return vue.consultationsPatient(idPatient);
     }
 
     public List<Disponibilite> getDisponibilitesMedecin(int idMedecin) {
-        return new ArrayList<>(disponibilitesMedecins.getOrDefault(idMedecin, new ArrayList<>()));
+        return vue.disponibilitesMedecin(idMedecin);
     }
 
     public List<Diagnostic> getDiagnosticsPatient(int idPatient) {
-        return new ArrayList<>(diagnosticsPatients.getOrDefault(idPatient, new ArrayList<>()));
+        return vue.diagnosticsPatient(idPatient);
     }
-}
\ No newline at end of file
+}
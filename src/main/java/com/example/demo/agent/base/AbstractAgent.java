@@ -1,16 +1,43 @@
 package com.example.demo.agent.base;
 
 import jade.core.Agent;
+import jade.core.behaviours.OneShotBehaviour;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
-
+/**
+ * Base des agents du cabinet : accès au contexte Spring, signal de fin de
+ * setup() et écouteur de fin de vie.
+ *
+ * Les structures qu'un agent crée pour lui-même (répartiteur, tables de
+ * corrélation, plannings, annuaire, codecs...) ne sont pas synchronisées :
+ * seuls ses comportements y touchent, sur son thread. Les autres threads
+ * passent par la file O2A, par un message ou par une vue immuable publiée par
+ * l'agent ; le calcul d'un ComportementDeporte ne lit que des copies.
+ */
 public abstract class AbstractAgent extends Agent implements ApplicationContextAware {
 
     private static ApplicationContext context;
 
+    // Prévenu de la fin de l'agent, quelle qu'en soit la cause : arrêt demandé, doDelete() ou exception
+    private transient volatile Consumer<AbstractAgent> ecouteurFin;
+
+    // Complété à la fin de setup() : JADE n'ordonnance les comportements qu'après, celui-ci en premier
+    private final transient CompletableFuture<Void> pret = new CompletableFuture<>();
+
+    protected AbstractAgent() {
+        addBehaviour(new OneShotBehaviour(this) {
+            @Override
+            public void action() {
+                pret.complete(null);
+            }
+        });
+    }
+
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         context = applicationContext;
@@ -27,4 +54,35 @@ public abstract class AbstractAgent extends Agent implements ApplicationContextA
     protected Object getBean(String beanName) {
         return context.getBean(beanName);
     }
-}
\ No newline at end of file
+
+    /**
+     * Futur complété quand l'agent a terminé son setup() et commence à traiter ses comportements
+     */
+    public CompletableFuture<Void> pret() {
+        return pret;
+    }
+
+    /**
+     * Écouteur appelé sur le thread de l'agent quand il se termine, après son takeDown() ;
+     * à fixer avant le démarrage pour couvrir une fin pendant setup()
+     */
+    public void surFin(Consumer<AbstractAgent> ecouteur) {
+        ecouteurFin = ecouteur;
+    }
+
+    // Fin de vie commune à tous les chemins de JADE (supprimé, tué, suspendu puis tué) : appelle takeDown(),
+    // que les sous-classes redéfinissent sans appeler super, puis libère l'agent auprès du conteneur
+    @Override
+    public void clean(boolean ok) {
+        try {
+            super.clean(ok);
+        } finally {
+            // Sans effet si setup() s'est terminé ; sinon l'attente de pret() s'arrête
+            pret.completeExceptionally(new IllegalStateException("Agent " + getLocalName() + " terminé avant d'être prêt"));
+            Consumer<AbstractAgent> ecouteur = ecouteurFin;
+            if (ecouteur != null) {
+                ecouteur.accept(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.agent.base;
+
+import com.example.demo.correlation.TableCorrelation;
+import com.example.demo.metrics.AgentMetrics;
+import com.example.demo.ontology.CodecNegotiator;
+import com.example.demo.ontology.MedicalOntology;
+import com.example.demo.routing.ReceptionnisteRouteur;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.TickerBehaviour;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Agent passerelle : des commandes déposées dans sa file O2A deviennent des
+ * requêtes aux réceptionnistes, dont les réponses sont corrélées par inReplyTo.
+ *
+ * Trois comportements communs : vidage de la file O2A par lots, vidage de la
+ * boîte aux lettres par lots à travers le répartiteur, et avancée périodique
+ * des échéances des requêtes en attente. Chaque passerelle ne fournit que ses
+ * traitements : commandes, routes des réponses et fin d'attente d'une requête,
+ * dont le contexte C est conservé dans la table de corrélation.
+ */
+public abstract class AbstractPasserelle<C> extends AbstractAgent {
+    private static final Logger logger = LoggerFactory.getLogger(AbstractPasserelle.class);
+
+    // Délai de réponse finale : couvre les relances du réceptionniste auprès des médecins (5 s, 10 s puis 20 s)
+    protected static final long DELAI_REPONSE_MS = 40_000;
+    private static final long TICK_ECHEANCES_MS = 100;
+
+    // Commandes et réponses traitées au plus par activation : JADE cède le processeur après chaque action
+    private static final int LOT_MAX = 64;
+
+    protected final AgentMetrics metrics;
+    protected CodecNegotiator codecs;
+    protected ReceptionnisteRouteur routeur;
+    // Requêtes en attente de leur réponse finale, avec leur contexte
+    protected TableCorrelation<C> demandes;
+    private RepartiteurMessages repartiteur;
+
+    protected AbstractPasserelle(String nomMetriques) {
+        this.metrics = new AgentMetrics(nomMetriques);
+        // File O2A ouverte dès la création : une commande déposée avant setup() n'est pas perdue
+        setEnabledO2ACommunication(true, 0);
+    }
+
+    @Override
+    protected void setup() {
+        codecs = new CodecNegotiator(getContentManager(), MedicalOntology.getInstance());
+
+        routeur = new ReceptionnisteRouteur(this);
+        routeur.demarrer();
+
+        demandes = new TableCorrelation<>(getLocalName(), TICK_ECHEANCES_MS, System.currentTimeMillis());
+        repartiteur = routes(new RepartiteurMessages(this, codecs, metrics));
+
+        metrics.surveillerBoiteAuxLettres(this);
+
+        addBehaviour(new CommandesO2ABehaviour());
+        addBehaviour(new ReceptionReponseBehaviour());
+        addBehaviour(new EcheancesBehaviour());
+    }
+
+    @Override
+    protected void takeDown() {
+        metrics.arreter();
+    }
+
+    /**
+     * Routes des réponses des réceptionnistes
+     */
+    protected abstract RepartiteurMessages routes(RepartiteurMessages repartiteur);
+
+    /**
+     * Commande retirée de la file O2A
+     */
+    protected abstract void traiterCommande(Object commande);
+
+    /**
+     * Requête restée sans réponse finale dans son délai
+     */
+    protected abstract void surEcheance(C contexte);
+
+    // Comportement pour traiter les commandes déposées dans la file O2A, par lots
+    private class CommandesO2ABehaviour extends CyclicBehaviour {
+        @Override
+        public void action() {
+            int traitees = 0;
+            Object objet;
+            while (traitees < LOT_MAX && (objet = getO2AObject()) != null) {
+                traiterCommande(objet);
+                traitees++;
+            }
+            if (traitees == 0) {
+                block();
+            }
+        }
+    }
+
+    // Comportement pour réceptionner les réponses des réceptionnistes, par lots
+    private class ReceptionReponseBehaviour extends CyclicBehaviour {
+        @Override
+        public void action() {
+            int traitees = 0;
+            while (traitees < LOT_MAX && repartiteur.traiterSuivant()) {
+                traitees++;
+            }
+            if (traitees == 0) {
+                block();
+            } else {
+                metrics.lotTraite(traitees);
+            }
+        }
+    }
+
+    // Comportement périodique : fin d'attente des requêtes restées sans réponse
+    private class EcheancesBehaviour extends TickerBehaviour {
+        public EcheancesBehaviour() {
+            super(AbstractPasserelle.this, TICK_ECHEANCES_MS);
+        }
+
+        @Override
+        protected void onTick() {
+            int expirees = demandes.expirer(System.currentTimeMillis(), AbstractPasserelle.this::surEcheance);
+            if (expirees > 0) {
+                logger.warn("Agent {}: {} requêtes sans réponse en {} ms", getLocalName(), expirees, DELAI_REPONSE_MS);
+            }
+        }
+    }
+}
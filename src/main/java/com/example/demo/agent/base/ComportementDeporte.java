@@ -0,0 +1,101 @@
+package com.example.demo.agent.base;
+
+import jade.core.Agent;
+import jade.core.behaviours.Behaviour;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Comportement dont le travail bloquant s'exécute sur un thread virtuel.
+ *
+ * calculer() tourne hors du thread de l'agent, qui continue de traiter sa
+ * file pendant ce temps ; le résultat est ensuite remis à surResultat() (ou
+ * l'erreur à surEchec()) sur le thread de l'agent, qui seul touche à son
+ * état. calculer() ne doit donc lire que des données immuables ou copiées.
+ *
+ * Le thread virtuel réveille le comportement en déposant dans la file de
+ * l'agent un message qui lui est adressé, identifié par un conversationId
+ * propre au comportement : le message reste en file tant qu'il n'est pas
+ * retiré, donc un réveil arrivant pendant que le comportement se bloque n'est
+ * pas perdu. Sans langage ni ontologie, il n'est pris par aucun répartiteur.
+ */
+public abstract class ComportementDeporte<R> extends Behaviour {
+    private static final Logger logger = LoggerFactory.getLogger(ComportementDeporte.class);
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private static final ExecutorService THREADS_VIRTUELS =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("deporte-", 0).factory());
+
+    private final String conversationId = "deporte-" + SEQUENCE.incrementAndGet();
+    private final MessageTemplate reveil = MessageTemplate.MatchConversationId(conversationId);
+    private boolean soumis;
+    private boolean termine;
+    private R resultat;
+    private Throwable echec;
+
+    protected ComportementDeporte(Agent agent) {
+        super(agent);
+    }
+
+    /**
+     * Travail exécuté sur un thread virtuel
+     */
+    protected abstract R calculer() throws Exception;
+
+    /**
+     * Résultat remis sur le thread de l'agent
+     */
+    protected abstract void surResultat(R resultat);
+
+    /**
+     * Échec de calculer(), remis sur le thread de l'agent
+     */
+    protected void surEchec(Throwable cause) {
+        logger.error("Agent {}: échec d'un traitement déporté", myAgent.getLocalName(), cause);
+    }
+
+    @Override
+    public void action() {
+        if (!soumis) {
+            soumis = true;
+            THREADS_VIRTUELS.execute(() -> {
+                try {
+                    resultat = calculer();
+                } catch (Throwable t) {
+                    echec = t;
+                } finally {
+                    // La file de l'agent est synchronisée : resultat et echec sont publiés avec le message
+                    ACLMessage message = new ACLMessage(ACLMessage.INFORM);
+                    message.setSender(myAgent.getAID());
+                    message.addReceiver(myAgent.getAID());
+                    message.setConversationId(conversationId);
+                    myAgent.postMessage(message);
+                }
+            });
+            block();
+            return;
+        }
+        if (myAgent.receive(reveil) == null) {
+            block();
+            return;
+        }
+        termine = true;
+        if (echec != null) {
+            surEchec(echec);
+        } else {
+            surResultat(resultat);
+        }
+    }
+
+    @Override
+    public boolean done() {
+        return termine;
+    }
+}
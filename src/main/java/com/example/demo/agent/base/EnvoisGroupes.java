@@ -0,0 +1,69 @@
+package com.example.demo.agent.base;
+
+import jade.core.AID;
+import jade.core.Agent;
+import jade.lang.acl.ACLMessage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envois d'un agent regroupés par destinataire le temps d'un lot de traitement.
+ *
+ * Hors lot, un message part immédiatement. Pendant un lot, les messages sont
+ * mis de côté et envoyés à la fermeture, destinataire par destinataire :
+ * chaque destinataire reçoit ses réponses d'un bloc et les traite dans une
+ * même activation, et les envois successifs vers un même conteneur
+ * réutilisent sa route. L'ordre est conservé pour un même destinataire.
+ */
+public class EnvoisGroupes {
+
+    private final Agent agent;
+    private final Map<AID, List<ACLMessage>> parDestinataire = new LinkedHashMap<>();
+    private boolean lotOuvert;
+
+    public EnvoisGroupes(Agent agent) {
+        this.agent = agent;
+    }
+
+    /**
+     * Ouvre un lot : les envois suivants sont différés jusqu'à fermer()
+     */
+    public void ouvrir() {
+        lotOuvert = true;
+    }
+
+    /**
+     * Envoie le message, ou le met de côté si un lot est ouvert
+     */
+    public void envoyer(ACLMessage message) {
+        if (!lotOuvert) {
+            agent.send(message);
+            return;
+        }
+        // Un message à plusieurs destinataires est rangé sous le premier
+        Iterator<?> destinataires = message.getAllReceiver();
+        AID destinataire = destinataires.hasNext() ? (AID) destinataires.next() : null;
+        parDestinataire.computeIfAbsent(destinataire, k -> new ArrayList<>(2)).add(message);
+    }
+
+    /**
+     * Ferme le lot et envoie les messages différés, groupés par destinataire.
+     * Retourne le nombre de messages envoyés.
+     */
+    public int fermer() {
+        lotOuvert = false;
+        int envoyes = 0;
+        for (List<ACLMessage> messages : parDestinataire.values()) {
+            for (ACLMessage message : messages) {
+                agent.send(message);
+            }
+            envoyes += messages.size();
+        }
+        parDestinataire.clear();
+        return envoyes;
+    }
+}
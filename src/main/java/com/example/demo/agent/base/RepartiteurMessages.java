@@ -0,0 +1,172 @@
+package com.example.demo.agent.base;
+
+import com.example.demo.metrics.AgentMetrics;
+import com.example.demo.ontology.CodecNegotiator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import jade.content.ContentElement;
+import jade.content.lang.Codec;
+import jade.content.onto.OntologyException;
+import jade.content.onto.basic.Action;
+import jade.core.Agent;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Table de dispatch des messages d'un agent.
+ *
+ * Le modèle de réception est construit une seule fois. Les routes sont
+ * indexées par performatif (tableau) puis par classe de l'action, ou du
+ * contenu s'il ne s'agit pas d'une Action (table de hachage) : un message
+ * est routé sans chaîne d'instanceof. Une route « brute » reçoit le message
+ * sans décodage (réponses AGREE/REFUSE, contenus sérialisés). Chaque route
+ * porte ses propres compteurs et son timer, résolus à l'enregistrement.
+ */
+public class RepartiteurMessages {
+    private static final Logger logger = LoggerFactory.getLogger(RepartiteurMessages.class);
+
+    // Les performatifs FIPA de ACLMessage vont de 0 à 21
+    private static final int NOMBRE_PERFORMATIFS = 22;
+
+    /**
+     * Traitement d'un message routé, avec son contenu décodé
+     */
+    @FunctionalInterface
+    public interface Traitement<T> {
+        void traiter(ACLMessage message, T contenu) throws Exception;
+    }
+
+    /**
+     * Traitement d'un message routé sur son seul performatif, sans décodage
+     */
+    @FunctionalInterface
+    public interface TraitementBrut {
+        void traiter(ACLMessage message) throws Exception;
+    }
+
+    private static final class Route {
+        final Traitement<Object> traitement;
+        final Counter messages;
+        final Counter echecs;
+        final Timer duree;
+
+        Route(Traitement<Object> traitement, AgentMetrics metrics, String performatif, String action) {
+            this.traitement = traitement;
+            this.messages = metrics.compteurMessages(performatif, action);
+            this.echecs = metrics.compteurEchecs(performatif, action);
+            this.duree = metrics.dureeTraitement(performatif, action);
+        }
+    }
+
+    private final Agent agent;
+    private final CodecNegotiator codecs;
+    private final AgentMetrics metrics;
+    private final MessageTemplate template;
+    private final Route[] routesBrutes = new Route[NOMBRE_PERFORMATIFS];
+    @SuppressWarnings("unchecked")
+    private final Map<Class<?>, Route>[] routesContenu = new Map[NOMBRE_PERFORMATIFS];
+
+    public RepartiteurMessages(Agent agent, CodecNegotiator codecs, AgentMetrics metrics) {
+        this.agent = agent;
+        this.codecs = codecs;
+        this.metrics = metrics;
+        this.template = codecs.template();
+    }
+
+    /**
+     * Route les messages de ce performatif dont l'action (ou le contenu) est de cette classe
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RepartiteurMessages sur(int performatif, Class<T> classe, Traitement<? super T> traitement) {
+        if (routesContenu[performatif] == null) {
+            routesContenu[performatif] = new HashMap<>();
+        }
+        routesContenu[performatif].put(classe, new Route((Traitement<Object>) traitement, metrics,
+                ACLMessage.getPerformative(performatif), classe.getSimpleName()));
+        return this;
+    }
+
+    /**
+     * Route tous les messages de ce performatif, sans décoder leur contenu
+     */
+    public RepartiteurMessages sur(int performatif, TraitementBrut traitement) {
+        routesBrutes[performatif] = new Route((message, contenu) -> traitement.traiter(message), metrics,
+                ACLMessage.getPerformative(performatif), AgentMetrics.SANS_ACTION);
+        return this;
+    }
+
+    /**
+     * Retire un message de la file de l'agent et le traite ; retourne false si la file est vide
+     */
+    public boolean traiterSuivant() {
+        ACLMessage message = agent.receive(template);
+        if (message == null) {
+            return false;
+        }
+        traiter(message);
+        return true;
+    }
+
+    /**
+     * Route un message déjà retiré de la file
+     */
+    public void traiter(ACLMessage message) {
+        codecs.observer(message);
+        long debut = System.nanoTime();
+        int performatif = message.getPerformative();
+        if (performatif < 0 || performatif >= NOMBRE_PERFORMATIFS) {
+            nonTraite(message, null);
+            return;
+        }
+
+        Route route = routesBrutes[performatif];
+        Object contenu = null;
+        if (route == null) {
+            Map<Class<?>, Route> routes = routesContenu[performatif];
+            if (routes == null) {
+                nonTraite(message, null);
+                return;
+            }
+            // Décodage sur le thread de l'agent : calcul en mémoire sans attente, sur le
+            // ContentManager de l'agent, et l'ordre des messages d'un émetteur est conservé
+            try {
+                ContentElement ce = codecs.extraire(message);
+                contenu = ce instanceof Action ? ((Action) ce).getAction() : ce;
+            } catch (Codec.CodecException | OntologyException e) {
+                logger.error("Agent {}: contenu illisible dans un message {} de {}", agent.getLocalName(),
+                        ACLMessage.getPerformative(performatif), message.getSender(), e);
+                nonTraite(message, null);
+                return;
+            }
+            route = contenu != null ? routes.get(contenu.getClass()) : null;
+            if (route == null) {
+                nonTraite(message, contenu);
+                return;
+            }
+        }
+
+        try {
+            route.traitement.traiter(message, contenu);
+        } catch (Exception e) {
+            route.echecs.increment();
+            logger.error("Agent {}: échec du traitement d'un message {} de {}", agent.getLocalName(),
+                    ACLMessage.getPerformative(performatif), message.getSender(), e);
+        } finally {
+            route.messages.increment();
+            route.duree.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Message sans route : compté avec des étiquettes résolues à la volée
+    private void nonTraite(ACLMessage message, Object contenu) {
+        logger.warn("Agent {}: Message non traité de type {} (émetteur {})", agent.getLocalName(),
+                ACLMessage.getPerformative(message.getPerformative()), message.getSender());
+        metrics.messageTraite(metrics.debut(), message, contenu);
+    }
+}
@@ -7,6 +7,9 @@ import jade.wrapper.AgentContainer;
 import jade.wrapper.ControllerException;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,12 +18,19 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Configuration
 @PropertySource("classpath:application.properties")
 public class ContainerConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(ContainerConfig.class);
+
     private Runtime jadeRuntime;
 
     @Value("${jade.main.host}")
@@ -32,22 +42,73 @@ public class ContainerConfig {
     @Value("${jade.container.names}")
     private String containerNames;
 
-    public ContainerConfig(Runtime jadeRuntime) {
+    @Value("${jade.startup.threads:8}")
+    private int parallelisme;
+
+    // Présent en mode embarqué seulement (jade.mode=embedded)
+    private ObjectProvider<AgentContainer> mainContainer;
+
+    public ContainerConfig(Runtime jadeRuntime, @Qualifier("mainContainer") ObjectProvider<AgentContainer> mainContainer) {
         this.jadeRuntime = jadeRuntime;
+        this.mainContainer = mainContainer;
     }
 
+    /**
+     * Conteneurs de jade.container.names, créés en parallèle : chaque création
+     * est un aller-retour avec le conteneur principal. Le premier est créé seul,
+     * il initialise les ressources partagées du Runtime JADE.
+     */
     @Bean
     public Map<String, AgentContainer> agentContainers() throws ControllerException {
+        long debut = System.nanoTime();
+        String[] names = containerNames.split(",");
         Map<String, AgentContainer> containers = new HashMap<>();
 
-        String[] names = containerNames.split(",");
-        for (String name : names) {
-            String trimmedName = name.trim();
-            AgentContainer container = createContainer(trimmedName);
-            containers.put(trimmedName, container);
+        // Mode embarqué : chaque nom désigne le conteneur principal, les messages entre agents
+        // y sont remis en mémoire ; des conteneurs distincts échangeraient par l'IMTP, même dans la JVM
+        AgentContainer principal = mainContainer.getIfAvailable();
+        if (principal != null) {
+            for (String name : names) {
+                containers.put(name.trim(), principal);
+            }
+            logger.info("Mode embarqué: conteneurs {} hébergés par le conteneur principal", containers.keySet());
+            return containers;
         }
 
-        return containers;
+        // Échoue ici si le conteneur principal est injoignable, avant de lancer les autres créations
+        containers.put(names[0].trim(), createContainer(names[0].trim()));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelisme, names.length - 1)));
+        try {
+            Map<String, Future<AgentContainer>> creations = new LinkedHashMap<>();
+            for (int i = 1; i < names.length; i++) {
+                String trimmedName = names[i].trim();
+                creations.put(trimmedName, executor.submit(() -> createContainer(trimmedName)));
+            }
+
+            for (Map.Entry<String, Future<AgentContainer>> creation : creations.entrySet()) {
+                containers.put(creation.getKey(), attendre(creation.getKey(), creation.getValue()));
+            }
+
+            logger.info("{} conteneurs créés en {} ms", containers.size(), (System.nanoTime() - debut) / 1_000_000);
+            return containers;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static AgentContainer attendre(String containerName, Future<AgentContainer> creation) throws ControllerException {
+        try {
+            return creation.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ControllerException) {
+                throw (ControllerException) e.getCause();
+            }
+            throw new ControllerException("Création du conteneur " + containerName + " impossible: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ControllerException("Création du conteneur " + containerName + " interrompue");
+        }
     }
 
     private AgentContainer createContainer(String containerName) throws ControllerException {
@@ -56,6 +117,12 @@ public class ContainerConfig {
         profile.setParameter(Profile.MAIN_PORT, String.valueOf(mainPort));
         profile.setParameter(Profile.CONTAINER_NAME, containerName);
 
-        return jadeRuntime.createAgentContainer(profile);
+        // JADE journalise l'échec de connexion et retourne null
+        AgentContainer container = jadeRuntime.createAgentContainer(profile);
+        if (container == null) {
+            throw new ControllerException("Conteneur principal injoignable (" + mainHost + ":" + mainPort
+                    + "): création du conteneur " + containerName + " impossible");
+        }
+        return container;
     }
 }
@@ -9,6 +9,7 @@ import jade.wrapper.ControllerException;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
@@ -35,17 +36,25 @@ public class JadeConfig {
         return Runtime.instance();
     }
 
-    /*@Bean(name = "mainContainer")
+    /**
+     * Conteneur principal dans la JVM de l'application (jade.mode=embedded) :
+     * plus de conteneur principal externe, et tous les agents y sont hébergés
+     * (voir ContainerConfig), leurs messages restant en mémoire.
+     */
+    @Bean(name = "mainContainer")
+    @ConditionalOnProperty(name = "jade.mode", havingValue = "embedded")
     public AgentContainer mainContainer() throws ControllerException {
         Profile mainProfile = createMainProfile();
         return jadeRuntime().createMainContainer(mainProfile);
-    }*/
+    }
 
     private Profile createMainProfile(){
         ProfileImpl profile = new ProfileImpl();
         profile.setParameter(Profile.MAIN_HOST, mainHost);
         profile.setParameter(Profile.MAIN_PORT, String.valueOf(mainPort));
         profile.setParameter(Profile.PLATFORM_ID, platformId);
+        // Pas de MTP HTTP : aucune plateforme externe ne s'adresse à ce cabinet
+        profile.setParameter(Profile.NO_MTP, "true");
 
         if (useGUI) {
             profile.setParameter(Profile.GUI, "true");
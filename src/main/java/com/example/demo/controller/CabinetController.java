@@ -0,0 +1,108 @@
+package com.example.demo.controller;
+
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.ontology.concepts.Disponibilite;
+import com.example.demo.ontology.concepts.Patient;
+import com.example.demo.services.CabinetService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * API REST du cabinet. Les demandes retournent un CompletableFuture : le
+ * thread HTTP est rendu dès la requête déposée auprès des agents, et la
+ * réponse est écrite quand l'agent complète le futur. Les lectures
+ * répondent directement depuis l'état publié par les réceptionnistes.
+ */
+@RestController
+@RequestMapping("/api")
+public class CabinetController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CabinetController.class);
+
+    private final CabinetService cabinetService;
+
+    public record DemandeConsultationRequete(int idPatient, int idMedecin, String specialite, Date dateHeure) {
+    }
+
+    public record PatientRequete(String nom, String prenom, String informationsPersonnelles) {
+    }
+
+    public CabinetController(CabinetService cabinetService) {
+        this.cabinetService = cabinetService;
+    }
+
+    /**
+     * Demande de consultation auprès d'un médecin (idMedecin) ou d'une spécialité ;
+     * répond avec la consultation planifiée, refusée ou annulée
+     */
+    @PostMapping("/consultations")
+    public CompletableFuture<Consultation> demanderConsultation(@RequestBody DemandeConsultationRequete requete) {
+        if (requete.dateHeure() == null || (requete.idMedecin() <= 0 && requete.specialite() == null)) {
+            throw new IllegalArgumentException("dateHeure et idMedecin ou specialite sont obligatoires");
+        }
+        return cabinetService.demanderConsultation(requete.idPatient(), requete.idMedecin(), requete.specialite(),
+                requete.dateHeure());
+    }
+
+    @PostMapping("/patients")
+    public CompletableFuture<Patient> enregistrerPatient(@RequestBody PatientRequete requete) {
+        if (requete.nom() == null || requete.prenom() == null) {
+            throw new IllegalArgumentException("nom et prenom sont obligatoires");
+        }
+        String informations = requete.informationsPersonnelles() != null ? requete.informationsPersonnelles() : "";
+        return cabinetService.enregistrerPatient(new Patient(0, requete.nom(), requete.prenom(), informations));
+    }
+
+    @GetMapping("/patients/{idPatient}/consultations")
+    public List<Consultation> consultationsPatient(@PathVariable int idPatient) {
+        return cabinetService.consultationsPatient(idPatient);
+    }
+
+    @GetMapping("/medecins/{idMedecin}/disponibilites")
+    public List<Disponibilite> disponibilitesMedecin(@PathVariable int idMedecin) {
+        return cabinetService.disponibilitesMedecin(idMedecin);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> requeteInvalide(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<String> delaiDepasse(TimeoutException e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<String> agentIndisponible(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    @ExceptionHandler(CompletionException.class)
+    public ResponseEntity<String> echec(CompletionException e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof TimeoutException) {
+            return delaiDepasse((TimeoutException) cause);
+        }
+        if (cause instanceof IllegalStateException) {
+            return agentIndisponible((IllegalStateException) cause);
+        }
+        logger.error("Échec d'une requête aux agents", cause);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(String.valueOf(cause.getMessage()));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.correlation;
+
+import com.example.demo.scheduling.RoueTemporelle;
+import jade.lang.acl.ACLMessage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Table des requêtes en attente de réponse, indexée par identifiant de corrélation.
+ *
+ * L'identifiant est placé dans le replyWith de la requête ; la réponse,
+ * créée par createReply(), le porte dans son inReplyTo. Chaque requête a
+ * sa propre échéance, tenue par une roue temporelle : ouverture, résolution
+ * et annulation de l'échéance sont en O(1).
+ */
+public class TableCorrelation<T> {
+
+    private static class EnAttente<T> {
+        final String id;
+        final T contexte;
+        RoueTemporelle.Echeance<EnAttente<T>> echeance;
+
+        EnAttente(String id, T contexte) {
+            this.id = id;
+            this.contexte = contexte;
+        }
+    }
+
+    private final String prefixe;
+    private final RoueTemporelle<EnAttente<T>> roue;
+    private final Map<String, EnAttente<T>> enAttente = new HashMap<>();
+    private long sequence;
+
+    /**
+     * @param prefixe     préfixe des identifiants, propre à l'agent pour rester unique sur la plateforme
+     * @param dureeTickMs précision des échéances
+     */
+    public TableCorrelation(String prefixe, long dureeTickMs, long maintenant) {
+        this.prefixe = prefixe + "-";
+        this.roue = new RoueTemporelle<>(512, dureeTickMs, maintenant);
+    }
+
+    /**
+     * Enregistre une requête qui expirera sans réponse dans delaiMs, et positionne son replyWith
+     */
+    public String ouvrir(ACLMessage requete, T contexte, long delaiMs) {
+        String id = prefixe + (++sequence);
+        EnAttente<T> entree = new EnAttente<>(id, contexte);
+        entree.echeance = roue.planifier(entree, delaiMs);
+        enAttente.put(id, entree);
+        requete.setReplyWith(id);
+        return id;
+    }
+
+    /**
+     * Retire et retourne le contexte de la requête à laquelle répond ce message,
+     * ou null si elle est inconnue, déjà résolue ou expirée
+     */
+    public T resoudre(ACLMessage reponse) {
+        String id = reponse.getInReplyTo();
+        if (id == null) {
+            return null;
+        }
+        EnAttente<T> entree = enAttente.remove(id);
+        if (entree == null) {
+            return null;
+        }
+        roue.annuler(entree.echeance);
+        return entree.contexte;
+    }
+
+    /**
+     * Retire les requêtes échues et transmet leur contexte.
+     * Retourne le nombre de requêtes expirées.
+     */
+    public int expirer(long maintenant, Consumer<T> surExpiration) {
+        return roue.avancer(maintenant, entree -> {
+            enAttente.remove(entree.id);
+            surExpiration.accept(entree.contexte);
+        });
+    }
+
+    public int size() {
+        return enAttente.size();
+    }
+}
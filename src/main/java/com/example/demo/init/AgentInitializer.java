@@ -3,60 +3,137 @@ package com.example.demo.init;
 
 import com.example.demo.agent.AgentExample;
 import com.example.demo.agent.Medecin;
+import com.example.demo.agent.PasserellePatients;
+import com.example.demo.agent.PasserelleWeb;
 import com.example.demo.agent.Patient;
 import com.example.demo.agent.Receptionnist;
+import com.example.demo.journal.ConfigurationJournal;
 import com.example.demo.services.AgentService;
-import jade.wrapper.StaleProxyException;
+import com.example.demo.services.AgentService.BilanDemarrage;
+import com.example.demo.services.AgentService.DemandeDemarrage;
+import com.example.demo.vues.VuesReceptionnistes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class AgentInitializer {
 
     private static final Logger logger = LoggerFactory.getLogger(AgentInitializer.class);
     private AgentService agentService;
+    private VuesReceptionnistes vuesReceptionnistes;
+
+    @Value("${reception.shards:1}")
+    private int nombrePartitions;
+
+    @Value("${reception.journal.enabled:false}")
+    private boolean journalActive;
+
+    @Value("${reception.journal.dir:data/journal}")
+    private String repertoireJournal;
+
+    @Value("${reception.journal.fsync-interval-ms:5}")
+    private long intervalleFsyncMs;
+
+    @Value("${reception.journal.fsync-batch:512}")
+    private int lotFsync;
+
+    @Value("${reception.snapshot.interval-seconds:60}")
+    private long intervalleInstantane;
+
+    @Value("${reception.snapshot.min-records:10000}")
+    private long seuilInstantane;
+
+    @Value("${reception.batch.max-messages:64}")
+    private int lotMaxReception;
+
+    @Value("${patient.gateway.enabled:false}")
+    private boolean passerellePatientsActive;
 
-    public  AgentInitializer(AgentService agentService) {
+    @Value("${patient.gateway.capacity:1024}")
+    private int capacitePasserellePatients;
+
+    @Value("${jade.startup.ready-timeout-ms:30000}")
+    private long delaiPretMs;
+
+    public  AgentInitializer(AgentService agentService, VuesReceptionnistes vuesReceptionnistes) {
         this.agentService = agentService;
+        this.vuesReceptionnistes = vuesReceptionnistes;
     }
 
     @EventListener(ApplicationReadyEvent.class)
     public void initializeAgents() {
-        try {
-            // Démarrage des agents médecins avec différentes spécialités
-            /*agentService.startAgentInContainer("Container-2",
-                    "example",
-                    AgentExample.class.getName(),
-                    new Object[]{"Généraliste"});*/
+        long debut = System.nanoTime();
+        // Démarrage des agents médecins avec différentes spécialités
+        /*agentService.startAgentInContainer("Container-2",
+                "example",
+                AgentExample.class.getName(),
+                new Object[]{"Généraliste"});*/
 
+        //Demarrage des partitions de l'agent Receptionnist, d'abord : les autres agents s'adressent à elles
+        ConfigurationJournal journal = journalActive
+                ? new ConfigurationJournal(Path.of(repertoireJournal), intervalleFsyncMs, lotFsync,
+                        intervalleInstantane, seuilInstantane)
+                : null;
+        List<DemandeDemarrage> receptionnistes = new ArrayList<>();
+        for (int i = 0; i < nombrePartitions; i++) {
+            receptionnistes.add(new DemandeDemarrage("Container-Receptionnist",
+                    Receptionnist.nomPartition(i, nombrePartitions),
+                    Receptionnist.class.getName(),
+                    new Object[]{"Recptionnist", i, nombrePartitions, journal, lotMaxReception,
+                            vuesReceptionnistes}));
+        }
+        BilanDemarrage bilanReception = demarrer("réceptionnistes", receptionnistes);
 
-            //Démarrage de l'agent Patient
-            agentService.startAgentInContainer("Container-Patient",
-                    "patient",
-                    Patient.class.getName(),
-                    new Object[]{"Patient"});
+        List<DemandeDemarrage> agents = new ArrayList<>();
+        //Démarrage de l'agent Patient
+        agents.add(new DemandeDemarrage("Container-Patient",
+                "patient",
+                Patient.class.getName(),
+                new Object[]{"Patient"}));
 
+        //Démarrage de la passerelle de l'API REST
+        agents.add(new DemandeDemarrage("Container-Patient",
+                PasserelleWeb.NOM,
+                PasserelleWeb.class.getName(),
+                new Object[]{}));
 
-            //Demarrage de l'agent Receptionnist
-            agentService.startAgentInContainer("Container-Receptionnist",
-                    "receptionnist",
-                    Receptionnist.class.getName(),
-                    new Object[]{"Recptionnist"});
-
+        //Démarrage de la passerelle des patients logiques
+        if (passerellePatientsActive) {
+            agents.add(new DemandeDemarrage("Container-Patient",
+                    PasserellePatients.NOM,
+                    PasserellePatients.class.getName(),
+                    new Object[]{null, capacitePasserellePatients}));
+        }
 
-            //Demarrage de l'agent Medecin
-            agentService.startAgentInContainer("Container-Medecin",
-                    "Medecin",
-                    Medecin.class.getName(),
-                    new Object[]{"Généraliste"});
+        //Demarrage de l'agent Medecin
+        agents.add(new DemandeDemarrage("Container-Medecin",
+                "Medecin",
+                Medecin.class.getName(),
+                new Object[]{"Généraliste"}));
+        BilanDemarrage bilanAgents = demarrer("agents", agents);
 
-            logger.info("Tous les agents ont été démarrés avec succès");
-        } catch (StaleProxyException e) {
-            logger.error("Erreur lors de l'initialisation des agents: {}", e.getMessage());
+        if (bilanReception.echecs() + bilanAgents.echecs() == 0) {
+            logger.info("Tous les agents ont été démarrés avec succès en {} ms", (System.nanoTime() - debut) / 1_000_000);
+        } else {
+            logger.error("Erreur lors de l'initialisation des agents: {} agents non démarrés",
+                    bilanReception.echecs() + bilanAgents.echecs());
         }
     }
+
+    // Démarrage groupé en parallèle, jusqu'à ce que chaque agent ait terminé son setup()
+    private BilanDemarrage demarrer(String groupe, List<DemandeDemarrage> demandes) {
+        BilanDemarrage bilan = agentService.startAgents(demandes, delaiPretMs);
+        logger.info("Démarrage des {}: {}/{} démarrés en {} ms, {} prêts en {} ms", groupe, bilan.demarres(),
+                bilan.demandes(), bilan.dureeDemarrageMs(), bilan.prets(), bilan.dureePretMs());
+        return bilan;
+    }
 }
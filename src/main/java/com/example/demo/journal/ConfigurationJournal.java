@@ -0,0 +1,59 @@
+package com.example.demo.journal;
+
+import java.nio.file.Path;
+
+/**
+ * Paramètres du journal des réceptionnistes, transmis en argument de l'agent.
+ *
+ * Le journal est écrit par lots : un fsync est fait dès que lotFsync
+ * enregistrements sont en attente, ou au plus tard toutes les
+ * intervalleFsyncMs millisecondes. Une panne peut donc perdre au plus
+ * cette fenêtre d'écriture.
+ *
+ * Toutes les intervalleInstantaneSecondes, si au moins seuilInstantane
+ * enregistrements ont été journalisés depuis le dernier instantané, un
+ * nouvel instantané est écrit et les segments qu'il couvre sont supprimés.
+ */
+public class ConfigurationJournal {
+
+    private final Path repertoire;
+    private final long intervalleFsyncMs;
+    private final int lotFsync;
+    private final long intervalleInstantaneSecondes;
+    private final long seuilInstantane;
+
+    public ConfigurationJournal(Path repertoire, long intervalleFsyncMs, int lotFsync,
+                                long intervalleInstantaneSecondes, long seuilInstantane) {
+        this.repertoire = repertoire;
+        this.intervalleFsyncMs = intervalleFsyncMs;
+        this.lotFsync = lotFsync;
+        this.intervalleInstantaneSecondes = intervalleInstantaneSecondes;
+        this.seuilInstantane = seuilInstantane;
+    }
+
+    /**
+     * Journal propre à un agent
+     */
+    public JournalReceptionniste journal(String nomAgent) {
+        return new JournalReceptionniste(repertoire, nomAgent, intervalleFsyncMs, lotFsync);
+    }
+
+    /**
+     * Instantané propre à un agent
+     */
+    public InstantaneReceptionniste instantane(String nomAgent) {
+        return new InstantaneReceptionniste(repertoire.resolve(nomAgent + ".snapshot"));
+    }
+
+    public Path getRepertoire() {
+        return repertoire;
+    }
+
+    public long getIntervalleInstantaneSecondes() {
+        return intervalleInstantaneSecondes;
+    }
+
+    public long getSeuilInstantane() {
+        return seuilInstantane;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.demo.journal;
+
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.ontology.concepts.Diagnostic;
+import com.example.demo.ontology.concepts.Disponibilite;
+import com.example.demo.ontology.concepts.Patient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.zip.CRC32;
+
+/**
+ * Format binaire commun au journal et aux instantanés : chaque enregistrement
+ * est encadré par [longueur][crc32] puis contient [type][données].
+ *
+ * Une instance encode dans un tampon réutilisé et n'est pas thread-safe.
+ */
+final class FormatEnregistrement {
+
+    private static final Logger logger = LoggerFactory.getLogger(FormatEnregistrement.class);
+
+    static final byte PATIENT = 1;
+    static final byte CONSULTATION = 2;
+    static final byte DISPONIBILITE = 3;
+    static final byte DIAGNOSTIC = 4;
+
+    // longueur + crc32
+    static final int ENTETE = 8;
+    private static final int TAILLE_MAX_ENREGISTREMENT = 1 << 20;
+    private static final long DATE_ABSENTE = Long.MIN_VALUE;
+
+    private ByteBuffer tampon = ByteBuffer.allocate(256);
+    private final CRC32 crc = new CRC32();
+
+    // Encodage : chaque méthode retourne l'enregistrement encadré, prêt à être lu
+
+    ByteBuffer patient(Patient patient) {
+        commencer(PATIENT);
+        ecrireEntier(patient.getId());
+        ecrireTexte(patient.getNom());
+        ecrireTexte(patient.getPrenom());
+        ecrireTexte(patient.getInformationsPersonnelles());
+        return terminer();
+    }
+
+    ByteBuffer consultation(Consultation consultation) {
+        commencer(CONSULTATION);
+        ecrireEntier(consultation.getId());
+        ecrireDate(consultation.getDateHeure());
+        ecrireTexte(consultation.getStatus());
+        ecrireEntier(consultation.getIdPatient());
+        ecrireEntier(consultation.getIdMedecin());
+        return terminer();
+    }
+
+    ByteBuffer disponibilite(Disponibilite disponibilite) {
+        commencer(DISPONIBILITE);
+        ecrireEntier(disponibilite.getId());
+        ecrireEntier(disponibilite.getIdMedecin());
+        ecrireDate(disponibilite.getDateHeure());
+        ecrireEntier(disponibilite.getDuree());
+        return terminer();
+    }
+
+    ByteBuffer diagnostic(Diagnostic diagnostic) {
+        commencer(DIAGNOSTIC);
+        ecrireEntier(diagnostic.getId());
+        ecrireTexte(diagnostic.getDescription());
+        ecrireTexte(diagnostic.getRecommandations());
+        ecrireEntier(diagnostic.getIdConsultation());
+        return terminer();
+    }
+
+    /**
+     * Décode l'enregistrement situé à la position courante de la source et
+     * avance après lui. Retourne false, sans avancer, s'il est incomplet ou corrompu.
+     */
+    boolean lire(ByteBuffer source, JournalReceptionniste.Lecteur lecteur) {
+        int position = source.position();
+        if (source.remaining() < ENTETE) {
+            return false;
+        }
+        int longueur = source.getInt(position);
+        int crcAttendu = source.getInt(position + 4);
+        if (longueur <= 0 || longueur > TAILLE_MAX_ENREGISTREMENT || longueur > source.remaining() - ENTETE) {
+            return false;
+        }
+        ByteBuffer donnees = source.slice(position + ENTETE, longueur);
+        crc.reset();
+        crc.update(donnees.duplicate());
+        if ((int) crc.getValue() != crcAttendu) {
+            return false;
+        }
+        decoder(donnees, lecteur);
+        source.position(position + ENTETE + longueur);
+        return true;
+    }
+
+    private void commencer(byte type) {
+        tampon.clear();
+        tampon.position(ENTETE);
+        tampon.put(type);
+    }
+
+    private ByteBuffer terminer() {
+        int longueur = tampon.position() - ENTETE;
+        crc.reset();
+        crc.update(tampon.slice(ENTETE, longueur));
+        tampon.putInt(0, longueur);
+        tampon.putInt(4, (int) crc.getValue());
+        tampon.flip();
+        return tampon;
+    }
+
+    private void ecrireEntier(int valeur) {
+        reserver(4);
+        tampon.putInt(valeur);
+    }
+
+    private void ecrireDate(Date date) {
+        reserver(8);
+        tampon.putLong(date != null ? date.getTime() : DATE_ABSENTE);
+    }
+
+    private void ecrireTexte(String texte) {
+        if (texte == null) {
+            ecrireEntier(-1);
+            return;
+        }
+        byte[] octets = texte.getBytes(StandardCharsets.UTF_8);
+        reserver(4 + octets.length);
+        tampon.putInt(octets.length);
+        tampon.put(octets);
+    }
+
+    private void reserver(int octets) {
+        if (tampon.remaining() < octets) {
+            tampon = agrandir(tampon, octets);
+        }
+    }
+
+    /**
+     * Copie un tampon en écriture dans un tampon assez grand pour recevoir besoin octets de plus
+     */
+    static ByteBuffer agrandir(ByteBuffer tampon, int besoin) {
+        int capacite = tampon.capacity();
+        while (capacite - tampon.position() < besoin) {
+            capacite <<= 1;
+        }
+        ByteBuffer nouveau = ByteBuffer.allocate(capacite);
+        tampon.flip();
+        nouveau.put(tampon);
+        return nouveau;
+    }
+
+    // Décodage
+
+    private static void decoder(ByteBuffer donnees, JournalReceptionniste.Lecteur lecteur) {
+        byte type = donnees.get();
+        switch (type) {
+            case PATIENT:
+                lecteur.patient(new Patient(donnees.getInt(), lireTexte(donnees), lireTexte(donnees), lireTexte(donnees)));
+                break;
+            case CONSULTATION:
+                lecteur.consultation(new Consultation(donnees.getInt(), lireDate(donnees), lireTexte(donnees),
+                        donnees.getInt(), donnees.getInt()));
+                break;
+            case DISPONIBILITE:
+                lecteur.disponibilite(new Disponibilite(donnees.getInt(), donnees.getInt(), lireDate(donnees),
+                        donnees.getInt()));
+                break;
+            case DIAGNOSTIC:
+                lecteur.diagnostic(new Diagnostic(donnees.getInt(), lireTexte(donnees), lireTexte(donnees),
+                        donnees.getInt()));
+                break;
+            default:
+                logger.warn("Type d'enregistrement inconnu: {}", type);
+        }
+    }
+
+    private static String lireTexte(ByteBuffer donnees) {
+        int longueur = donnees.getInt();
+        if (longueur < 0) {
+            return null;
+        }
+        byte[] octets = new byte[longueur];
+        donnees.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    private static Date lireDate(ByteBuffer donnees) {
+        long temps = donnees.getLong();
+        return temps != DATE_ABSENTE ? new Date(temps) : null;
+    }
+}
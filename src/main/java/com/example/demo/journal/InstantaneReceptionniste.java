@@ -0,0 +1,122 @@
+package com.example.demo.journal;
+
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.ontology.concepts.Diagnostic;
+import com.example.demo.ontology.concepts.Disponibilite;
+import com.example.demo.ontology.concepts.Patient;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Instantané de l'état d'un réceptionniste.
+ *
+ * Le fichier contient un en-tête [magique][version][génération][nombre]
+ * suivi des enregistrements au format du journal : patients, disponibilités,
+ * consultations puis diagnostics. La génération est celle du premier segment
+ * du journal qui n'est pas couvert par l'instantané. L'écriture passe par un
+ * fichier temporaire synchronisé puis renommé, un instantané lisible est donc
+ * toujours complet. Le chargement lit le fichier projeté en mémoire.
+ */
+public class InstantaneReceptionniste {
+
+    private static final int MAGIQUE = 0x534e4150;
+    private static final int VERSION = 1;
+    private static final int ENTETE = 4 + 4 + 8 + 8;
+
+    private final Path fichier;
+
+    public InstantaneReceptionniste(Path fichier) {
+        this.fichier = fichier;
+    }
+
+    /**
+     * Écrit un instantané couvrant le journal jusqu'à la génération exclue
+     */
+    public void ecrire(long generation, Collection<Patient> patients, Collection<Disponibilite> disponibilites,
+                       Collection<Consultation> consultations, Collection<Diagnostic> diagnostics) throws IOException {
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        FormatEnregistrement format = new FormatEnregistrement();
+        ByteBuffer tampon = ByteBuffer.allocate(256 * 1024);
+
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            tampon.putInt(MAGIQUE).putInt(VERSION).putLong(generation)
+                    .putLong((long) patients.size() + disponibilites.size() + consultations.size() + diagnostics.size());
+
+            for (Patient patient : patients) {
+                tampon = ajouter(canal, tampon, format.patient(patient));
+            }
+            for (Disponibilite disponibilite : disponibilites) {
+                tampon = ajouter(canal, tampon, format.disponibilite(disponibilite));
+            }
+            for (Consultation consultation : consultations) {
+                tampon = ajouter(canal, tampon, format.consultation(consultation));
+            }
+            for (Diagnostic diagnostic : diagnostics) {
+                tampon = ajouter(canal, tampon, format.diagnostic(diagnostic));
+            }
+            vider(canal, tampon);
+            canal.force(true);
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Le renommage doit être durable avant que les segments couverts ne soient supprimés
+        try (FileChannel repertoire = FileChannel.open(fichier.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            repertoire.force(true);
+        } catch (IOException e) {
+            // Synchronisation d'un répertoire non supportée par ce système de fichiers
+        }
+    }
+
+    /**
+     * Relit l'instantané s'il existe et retourne la génération du journal à
+     * rejouer ensuite (0 sans instantané).
+     */
+    public long charger(JournalReceptionniste.Lecteur lecteur) throws IOException {
+        if (!Files.exists(fichier)) {
+            return 0;
+        }
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            MappedByteBuffer contenu = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (contenu.remaining() < ENTETE || contenu.getInt() != MAGIQUE || contenu.getInt() != VERSION) {
+                throw new IOException("Instantané " + fichier + " illisible");
+            }
+            long generation = contenu.getLong();
+            long nombre = contenu.getLong();
+
+            FormatEnregistrement format = new FormatEnregistrement();
+            for (long i = 0; i < nombre; i++) {
+                if (!format.lire(contenu, lecteur)) {
+                    throw new IOException("Instantané " + fichier + " corrompu à l'enregistrement " + i);
+                }
+            }
+            return generation;
+        }
+    }
+
+    private static ByteBuffer ajouter(FileChannel canal, ByteBuffer tampon, ByteBuffer enregistrement) throws IOException {
+        if (tampon.remaining() < enregistrement.remaining()) {
+            vider(canal, tampon);
+            if (tampon.remaining() < enregistrement.remaining()) {
+                tampon = FormatEnregistrement.agrandir(tampon, enregistrement.remaining());
+            }
+        }
+        return tampon.put(enregistrement);
+    }
+
+    private static void vider(FileChannel canal, ByteBuffer tampon) throws IOException {
+        tampon.flip();
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+        tampon.clear();
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.demo.journal;
+
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.ontology.concepts.Diagnostic;
+import com.example.demo.ontology.concepts.Disponibilite;
+import com.example.demo.ontology.concepts.Patient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Journal d'écriture anticipée de l'état d'un réceptionniste.
+ *
+ * Chaque changement d'état (patient, consultation, disponibilité, diagnostic)
+ * est ajouté en fin de segment sous la forme [longueur][crc32][type][données].
+ * Le thread de l'agent encode l'enregistrement dans un tampon mémoire ; un
+ * thread d'écriture échange ce tampon, l'écrit par le FileChannel puis fait un
+ * seul fsync pour tout le lot (group commit).
+ *
+ * Le journal est découpé en segments numérotés (nom.generation.journal).
+ * basculer() ferme le segment courant : un instantané pris juste après
+ * contient tout ce qui précède, et compacter() supprime alors les anciens
+ * segments. La bascule n'attend pas le disque : les enregistrements déjà
+ * ajoutés sont confiés au thread d'écriture, qui les écrit à la fin de
+ * l'ancien segment avant de passer au nouveau, et le futur retourné est
+ * complété une fois l'ancien segment synchronisé et fermé. Au redémarrage, rejouer() relit les segments restants et tronque
+ * une éventuelle fin d'enregistrement incomplète.
+ *
+ * Un lot dont l'écriture ou le fsync échoue est retenté après avoir
+ * tronqué ce qui en a été écrit. Après TENTATIVES_ECRITURE échecs, le journal
+ * est défaillant : le thread d'écriture s'arrête, l'écouteur de défaillance
+ * est prévenu et tout nouvel ajout lève IllegalStateException, pour que
+ * l'agent n'acquitte plus d'état qu'il ne peut pas conserver.
+ *
+ * Les méthodes d'ajout et basculer() sont appelées par le seul thread de l'agent.
+ */
+public class JournalReceptionniste implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalReceptionniste.class);
+
+    private static final int TENTATIVES_ECRITURE = 3;
+    private static final long PAUSE_ECRITURE_MS = 100;
+
+    /**
+     * Reçoit les enregistrements relus, dans leur ordre d'écriture
+     */
+    public interface Lecteur {
+        void patient(Patient patient);
+
+        void consultation(Consultation consultation);
+
+        void disponibilite(Disponibilite disponibilite);
+
+        void diagnostic(Diagnostic diagnostic);
+    }
+
+    private final Path repertoire;
+    private final String nom;
+    private final Pattern segment;
+    private final long intervalleFsyncMs;
+    private final int lotFsync;
+
+    // Encodage, propre au thread de l'agent
+    private final FormatEnregistrement format = new FormatEnregistrement();
+    private long enregistrementsDepuisBascule;
+
+    // Double tampon partagé avec le thread d'écriture, protégé par verrou
+    private final Object verrou = new Object();
+    private ByteBuffer enCours = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer aEcrire = ByteBuffer.allocate(64 * 1024);
+    private int enAttente;
+    private boolean actif;
+    private Bascule bascule;
+
+    // Segment courant, utilisé par le seul thread d'écriture une fois ouvert
+    private FileChannel canal;
+    private long generation;
+    private Thread ecrivain;
+
+    // Échec définitif d'écriture, et qui le signaler
+    private volatile IOException defaillance;
+    private Consumer<IOException> ecouteurDefaillance = cause -> { };
+
+    // Bascule demandée : nouveau segment, et enregistrements ajoutés avant elle, destinés à l'ancien
+    private static final class Bascule {
+        final FileChannel segment;
+        final ByteBuffer lot;
+        final long generation;
+        final CompletableFuture<Long> termine = new CompletableFuture<>();
+
+        Bascule(FileChannel segment, ByteBuffer lot, long generation) {
+            this.segment = segment;
+            this.lot = lot;
+            this.generation = generation;
+        }
+    }
+
+    public JournalReceptionniste(Path repertoire, String nom, long intervalleFsyncMs, int lotFsync) {
+        this.repertoire = repertoire;
+        this.nom = nom;
+        this.segment = Pattern.compile(Pattern.quote(nom) + "\\.(\\d+)\\.journal");
+        this.intervalleFsyncMs = Math.max(1, intervalleFsyncMs);
+        this.lotFsync = Math.max(1, lotFsync);
+    }
+
+    /**
+     * Relit, dans l'ordre, les segments de génération supérieure ou égale à
+     * depuisGeneration et tronque la fin d'un segment incomplet ou corrompu.
+     * Retourne le nombre d'enregistrements relus.
+     */
+    public long rejouer(long depuisGeneration, Lecteur lecteur) throws IOException {
+        generation = depuisGeneration;
+        long relus = 0;
+        FormatEnregistrement lecture = new FormatEnregistrement();
+
+        for (long g : generations()) {
+            if (g < depuisGeneration) {
+                continue;
+            }
+            generation = g;
+            Path fichier = fichier(g);
+            try (FileChannel canalLecture = FileChannel.open(fichier, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long taille = canalLecture.size();
+                MappedByteBuffer contenu = canalLecture.map(FileChannel.MapMode.READ_ONLY, 0, taille);
+                while (lecture.lire(contenu, lecteur)) {
+                    relus++;
+                }
+                if (contenu.position() < taille) {
+                    logger.warn("Journal {}: fin incomplète ignorée ({} octets tronqués)", fichier, taille - contenu.position());
+                    canalLecture.truncate(contenu.position());
+                }
+            }
+        }
+        return relus;
+    }
+
+    /**
+     * Écouteur appelé depuis le thread d'écriture quand le journal devient défaillant
+     */
+    public void surDefaillance(Consumer<IOException> ecouteur) {
+        this.ecouteurDefaillance = ecouteur;
+    }
+
+    public boolean estDefaillant() {
+        return defaillance != null;
+    }
+
+    /**
+     * Ouvre en ajout le dernier segment et démarre le thread d'écriture
+     */
+    public void ouvrir() throws IOException {
+        Files.createDirectories(repertoire);
+        canal = ouvrirSegment(generation);
+        actif = true;
+        ecrivain = new Thread(this::ecrire, "journal-" + nom);
+        ecrivain.setDaemon(true);
+        ecrivain.start();
+    }
+
+    public void patient(Patient patient) {
+        ajouter(format.patient(patient));
+    }
+
+    public void consultation(Consultation consultation) {
+        ajouter(format.consultation(consultation));
+    }
+
+    public void disponibilite(Disponibilite disponibilite) {
+        ajouter(format.disponibilite(disponibilite));
+    }
+
+    public void diagnostic(Diagnostic diagnostic) {
+        ajouter(format.diagnostic(diagnostic));
+    }
+
+    /**
+     * Poursuit le journal dans un nouveau segment, sans attendre l'écriture :
+     * tout ce qui a été ajouté avant l'appel ira dans les générations inférieures.
+     * Le futur reçoit la génération du nouveau segment une fois les précédentes
+     * écrites, synchronisées et fermées, ou l'échec d'écriture.
+     */
+    public CompletableFuture<Long> basculer() throws IOException {
+        if (ecrivain == null) {
+            throw new IllegalStateException("Journal " + nom + " non ouvert");
+        }
+        FileChannel nouveau = ouvrirSegment(generation + 1);
+        Bascule demande;
+        synchronized (verrou) {
+            if (defaillance != null || bascule != null) {
+                nouveau.close();
+                if (defaillance != null) {
+                    throw new IOException("Journal " + nom + " défaillant", defaillance);
+                }
+                throw new IllegalStateException("Journal " + nom + ": bascule déjà en cours");
+            }
+            demande = new Bascule(nouveau, enCours, generation + 1);
+            enCours = ByteBuffer.allocate(enCours.capacity());
+            enAttente = 0;
+            bascule = demande;
+            verrou.notifyAll();
+        }
+        generation = demande.generation;
+        enregistrementsDepuisBascule = 0;
+        return demande.termine;
+    }
+
+    /**
+     * Supprime les segments entièrement couverts par un instantané de la génération donnée
+     */
+    public void compacter(long jusquaGeneration) throws IOException {
+        for (long g : generations()) {
+            if (g < jusquaGeneration) {
+                Files.deleteIfExists(fichier(g));
+            }
+        }
+    }
+
+    public long getEnregistrementsDepuisBascule() {
+        return enregistrementsDepuisBascule;
+    }
+
+    /**
+     * Écrit les enregistrements en attente, fait le dernier fsync et ferme le segment
+     */
+    @Override
+    public void close() {
+        if (ecrivain == null) {
+            return;
+        }
+        synchronized (verrou) {
+            actif = false;
+            verrou.notifyAll();
+        }
+        try {
+            ecrivain.join();
+            canal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Journal {}: fermeture impossible", nom, e);
+        }
+        ecrivain = null;
+    }
+
+    private void ajouter(ByteBuffer enregistrement) {
+        if (defaillance != null) {
+            throw new IllegalStateException("Journal " + nom + " défaillant, enregistrement refusé", defaillance);
+        }
+        synchronized (verrou) {
+            if (enCours.remaining() < enregistrement.remaining()) {
+                enCours = FormatEnregistrement.agrandir(enCours, enregistrement.remaining());
+            }
+            enCours.put(enregistrement);
+            if (++enAttente >= lotFsync) {
+                verrou.notifyAll();
+            }
+        }
+        enregistrementsDepuisBascule++;
+    }
+
+    // Boucle du thread d'écriture : fin de l'ancien segment et changement de segment si une bascule est
+    // demandée, puis un write et un fsync par lot
+    private void ecrire() {
+        while (true) {
+            ByteBuffer lot = null;
+            Bascule demande;
+            synchronized (verrou) {
+                if (actif && enAttente < lotFsync && bascule == null) {
+                    try {
+                        verrou.wait(intervalleFsyncMs);
+                    } catch (InterruptedException e) {
+                        actif = false;
+                    }
+                }
+                demande = bascule;
+                bascule = null;
+                if (enAttente == 0 && demande == null) {
+                    if (!actif) {
+                        return;
+                    }
+                    continue;
+                }
+                if (enAttente > 0) {
+                    lot = enCours;
+                    enCours = aEcrire;
+                    aEcrire = lot;
+                    enAttente = 0;
+                }
+            }
+
+            try {
+                if (demande != null) {
+                    changerSegment(demande);
+                }
+                if (lot != null) {
+                    lot.flip();
+                    ecrireLot(lot);
+                    lot.clear();
+                }
+            } catch (IOException e) {
+                logger.error("Journal {}: écriture du lot impossible après {} tentatives, journal défaillant",
+                        nom, TENTATIVES_ECRITURE, e);
+                Bascule suivante;
+                synchronized (verrou) {
+                    defaillance = e;
+                    suivante = bascule;
+                    bascule = null;
+                }
+                abandonner(demande, e);
+                abandonner(suivante, e);
+                ecouteurDefaillance.accept(e);
+                return;
+            }
+        }
+    }
+
+    private void abandonner(Bascule demande, IOException cause) {
+        if (demande == null || demande.termine.isDone()) {
+            return;
+        }
+        demande.termine.completeExceptionally(cause);
+        try {
+            demande.segment.close();
+        } catch (IOException e) {
+            logger.warn("Journal {}: fermeture du segment {} impossible", nom, demande.generation, e);
+        }
+    }
+
+    // Enregistrements antérieurs à la bascule en fin d'ancien segment, fsync, puis écriture dans le nouveau
+    private void changerSegment(Bascule demande) throws IOException {
+        demande.lot.flip();
+        ecrireLot(demande.lot);
+        try {
+            canal.close();
+        } catch (IOException e) {
+            logger.error("Journal {}: fermeture du segment impossible", nom, e);
+        }
+        canal = demande.segment;
+        demande.termine.complete(demande.generation);
+    }
+
+    // Écriture et fsync d'un lot ; après un échec, ce qui a été écrit du lot est tronqué avant de recommencer
+    private void ecrireLot(ByteBuffer lot) throws IOException {
+        long taille = canal.size();
+        for (int tentative = 1; ; tentative++) {
+            try {
+                while (lot.hasRemaining()) {
+                    canal.write(lot);
+                }
+                canal.force(false);
+                return;
+            } catch (IOException e) {
+                if (tentative >= TENTATIVES_ECRITURE) {
+                    throw e;
+                }
+                logger.warn("Journal {}: écriture du lot impossible, tentative {}/{}", nom, tentative,
+                        TENTATIVES_ECRITURE, e);
+                canal.truncate(taille);
+                lot.rewind();
+                try {
+                    Thread.sleep(PAUSE_ECRITURE_MS);
+                } catch (InterruptedException interruption) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    FileChannel ouvrirSegment(long g) throws IOException {
+        return FileChannel.open(fichier(g), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path fichier(long g) {
+        return repertoire.resolve(nom + "." + g + ".journal");
+    }
+
+    // Générations des segments présents, dans l'ordre croissant
+    private List<Long> generations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        if (!Files.isDirectory(repertoire)) {
+            return generations;
+        }
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(repertoire, nom + ".*.journal")) {
+            for (Path fichier : fichiers) {
+                Matcher m = segment.matcher(fichier.getFileName().toString());
+                if (m.matches()) {
+                    generations.add(Long.parseLong(m.group(1)));
+                }
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+}
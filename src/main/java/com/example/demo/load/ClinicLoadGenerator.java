@@ -0,0 +1,298 @@
+package com.example.demo.load;
+
+import com.example.demo.agent.Medecin;
+import com.example.demo.agent.PasserellePatients;
+import com.example.demo.agent.Patient;
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.services.AgentService;
+import com.example.demo.services.AgentService.BilanDemarrage;
+import com.example.demo.services.AgentService.DemandeDemarrage;
+import jade.wrapper.AgentController;
+import jade.wrapper.StaleProxyException;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Générateur de charge synthétique : démarre M médecins et N patients répartis
+ * sur les conteneurs configurés, puis déclenche des demandes de consultation
+ * selon un profil de Poisson ou par rafales, et mesure la latence
+ * demande -> confirmation au patient. Les patients s'adressent aux partitions
+ * du réceptionniste démarrées par AgentInitializer (reception.shards).
+ * Avec clinic.load.routing=specialite, les demandes ne nomment aucun médecin
+ * et le réceptionniste choisit parmi les médecins de la spécialité.
+ * Avec clinic.load.patient-mode=passerelle, les N patients sont des patients
+ * logiques d'un seul agent PasserellePatients au lieu d'un agent chacun.
+ *
+ * Activé par clinic.load.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "clinic.load.enabled", havingValue = "true")
+public class ClinicLoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClinicLoadGenerator.class);
+
+    // Base des dates demandées : chaque demande reçoit une minute distincte, qui sert de clé de corrélation
+    private static final long BASE_DATES = 1_893_456_000_000L;
+    private static final long MILLIS_PAR_MINUTE = 60_000L;
+    private static final String SPECIALITE = "Généraliste";
+    private static final String NOM_PASSERELLE = PasserellePatients.NOM + "-charge";
+    private static final int LOT_INSCRIPTIONS = 4096;
+
+    private final AgentService agentService;
+
+    @Value("${clinic.load.patients:1000}")
+    private int nbPatients;
+
+    @Value("${clinic.load.medecins:20}")
+    private int nbMedecins;
+
+    @Value("${clinic.load.rate:200}")
+    private double demandesParSeconde;
+
+    @Value("${clinic.load.profile:poisson}")
+    private String profil;
+
+    @Value("${clinic.load.burst-size:100}")
+    private int tailleRafale;
+
+    @Value("${clinic.load.routing:medecin}")
+    private String routage;
+
+    @Value("${clinic.load.patient-mode:agents}")
+    private String modePatients;
+
+    @Value("${clinic.load.warmup-seconds:5}")
+    private int dureeChauffe;
+
+    @Value("${clinic.load.duration-seconds:60}")
+    private int dureeMesure;
+
+    @Value("${jade.startup.ready-timeout-ms:30000}")
+    private long delaiPretMs;
+
+    private final Map<Long, Long> demandesEnCours = new ConcurrentHashMap<>();
+    private final Recorder latences = new Recorder(3);
+    private final AtomicLong prochaineMinute = new AtomicLong();
+    private final AtomicLong envoyees = new AtomicLong();
+    private final AtomicLong confirmees = new AtomicLong();
+
+    public ClinicLoadGenerator(AgentService agentService) {
+        this.agentService = agentService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        AgentController[] patients = demarrerAgents();
+        if (patients == null) {
+            return;
+        }
+        Thread generateur = new Thread(() -> generer(patients), "clinic-load");
+        generateur.setDaemon(true);
+        generateur.start();
+    }
+
+    private boolean passerelle() {
+        return "passerelle".equalsIgnoreCase(modePatients);
+    }
+
+    // Démarrage groupé en parallèle ; au retour, chaque patient (ou la passerelle) a ouvert sa file O2A
+    private AgentController[] demarrerAgents() {
+        List<String> conteneurs = agentService.getContainerNames();
+        Consumer<Consultation> ecouteur = this::confirmer;
+        if (passerelle()) {
+            return demarrerPasserelle(conteneurs, ecouteur);
+        }
+
+        List<DemandeDemarrage> demandes = new ArrayList<>(nbMedecins + nbPatients);
+        for (int i = 1; i <= nbMedecins; i++) {
+            demandes.add(new DemandeDemarrage(conteneurs.get(i % conteneurs.size()), "medecin" + i,
+                    Medecin.class.getName(), new Object[]{"Charge" + i, SPECIALITE}));
+        }
+        for (int i = 1; i <= nbPatients; i++) {
+            demandes.add(new DemandeDemarrage(conteneurs.get(i % conteneurs.size()), "patient" + i,
+                    Patient.class.getName(), new Object[]{"Charge", String.valueOf(i), "", i, ecouteur}));
+        }
+        BilanDemarrage bilan = agentService.startAgents(demandes, delaiPretMs);
+        if (bilan.echecs() > 0) {
+            logger.error("Erreur lors du démarrage des agents de charge: {} agents non démarrés", bilan.echecs());
+            return null;
+        }
+
+        AgentController[] patients = new AgentController[nbPatients];
+        for (int i = 1; i <= nbPatients; i++) {
+            patients[i - 1] = agentService.getAgent("patient" + i);
+        }
+
+        logger.info("Charge: {} patients et {} médecins démarrés sur {} conteneurs en {} ms, prêts en {} ms",
+                nbPatients, nbMedecins, conteneurs.size(), bilan.dureeDemarrageMs(), bilan.dureePretMs());
+        return patients;
+    }
+
+    // Mode passerelle : les médecins, puis un agent unique pour tous les patients, inscrits par sa file O2A
+    private AgentController[] demarrerPasserelle(List<String> conteneurs, Consumer<Consultation> ecouteur) {
+        List<DemandeDemarrage> demandes = new ArrayList<>(nbMedecins + 1);
+        for (int i = 1; i <= nbMedecins; i++) {
+            demandes.add(new DemandeDemarrage(conteneurs.get(i % conteneurs.size()), "medecin" + i,
+                    Medecin.class.getName(), new Object[]{"Charge" + i, SPECIALITE}));
+        }
+        demandes.add(new DemandeDemarrage(conteneurs.get(0), NOM_PASSERELLE,
+                PasserellePatients.class.getName(), new Object[]{ecouteur, nbPatients}));
+        BilanDemarrage bilan = agentService.startAgents(demandes, delaiPretMs);
+        if (bilan.echecs() > 0) {
+            logger.error("Erreur lors du démarrage des agents de charge: {} agents non démarrés", bilan.echecs());
+            return null;
+        }
+
+        AgentController passerelle = agentService.getAgent(NOM_PASSERELLE);
+        long debut = System.nanoTime();
+        try {
+            for (int premier = 1; premier <= nbPatients; premier += LOT_INSCRIPTIONS) {
+                int dernier = Math.min(nbPatients, premier + LOT_INSCRIPTIONS - 1);
+                List<PasserellePatients.Inscription> lot = new ArrayList<>(dernier - premier + 1);
+                for (int i = premier; i <= dernier; i++) {
+                    lot.add(new PasserellePatients.Inscription(i, "Charge", String.valueOf(i)));
+                }
+                passerelle.putO2AObject(new PasserellePatients.Inscriptions(lot), AgentController.ASYNC);
+            }
+        } catch (StaleProxyException e) {
+            logger.error("Passerelle de charge arrêtée pendant l'inscription des patients", e);
+            return null;
+        }
+
+        logger.info("Charge: {} médecins et une passerelle démarrés en {} ms, {} patients inscrits en {} ms",
+                nbMedecins, bilan.dureeDemarrageMs(), nbPatients, (System.nanoTime() - debut) / 1_000_000);
+        return new AgentController[]{passerelle};
+    }
+
+    private void generer(AgentController[] patients) {
+        // Chauffe sous le même profil de charge (compilation du chemin des messages), mesures écartées
+        charger(patients, TimeUnit.SECONDS.toNanos(dureeChauffe));
+        LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(2));
+        demandesEnCours.clear();
+        latences.reset();
+        envoyees.set(0);
+        confirmees.set(0);
+
+        long duree = charger(patients, TimeUnit.SECONDS.toNanos(dureeMesure));
+
+        // Laisser les dernières confirmations arriver
+        LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(5));
+        rapporter(duree);
+        arreterAgents();
+    }
+
+    // Demandes selon le profil (Poisson ou rafales) au taux demandesParSeconde pendant dureeNanos
+    private long charger(AgentController[] patients, long dureeNanos) {
+        long debut = System.nanoTime();
+        long fin = debut + dureeNanos;
+        boolean rafales = "burst".equalsIgnoreCase(profil);
+        long intervalleRafale = (long) (tailleRafale * 1e9 / demandesParSeconde);
+        long prochaineEcheance = debut;
+
+        while (System.nanoTime() < fin) {
+            if (rafales) {
+                for (int i = 0; i < tailleRafale; i++) {
+                    envoyer(patients);
+                }
+                prochaineEcheance += intervalleRafale;
+            } else {
+                envoyer(patients);
+                // Inter-arrivées exponentielles : processus de Poisson de taux demandesParSeconde
+                double u = ThreadLocalRandom.current().nextDouble();
+                prochaineEcheance += (long) (-Math.log(1.0 - u) * 1e9 / demandesParSeconde);
+            }
+            long attente = prochaineEcheance - System.nanoTime();
+            if (attente > 0) {
+                LockSupport.parkNanos(attente);
+            }
+        }
+        return System.nanoTime() - debut;
+    }
+
+    // Arrêt groupé des agents de charge une fois les mesures rapportées
+    private void arreterAgents() {
+        List<String> noms = new ArrayList<>(nbMedecins + nbPatients);
+        if (passerelle()) {
+            noms.add(NOM_PASSERELLE);
+        } else {
+            for (int i = 1; i <= nbPatients; i++) {
+                noms.add("patient" + i);
+            }
+        }
+        for (int i = 1; i <= nbMedecins; i++) {
+            noms.add("medecin" + i);
+        }
+        AgentService.BilanOperation bilan = agentService.stopAgents(noms);
+        logger.info("Charge: {} agents arrêtés en {} ms ({} en échec)", bilan.traites(), bilan.dureeMs(), bilan.echecs());
+    }
+
+    private void envoyer(AgentController[] patients) {
+        int index = ThreadLocalRandom.current().nextInt(patients.length);
+        long dateHeure = BASE_DATES + prochaineMinute.incrementAndGet() * MILLIS_PAR_MINUTE;
+        boolean parSpecialite = "specialite".equalsIgnoreCase(routage);
+        int idMedecin = 1 + ThreadLocalRandom.current().nextInt(nbMedecins);
+        Object demande;
+        if (passerelle()) {
+            int idPatient = 1 + ThreadLocalRandom.current().nextInt(nbPatients);
+            demande = parSpecialite
+                    ? new PasserellePatients.Demande(idPatient, SPECIALITE, new Date(dateHeure))
+                    : new PasserellePatients.Demande(idPatient, idMedecin, new Date(dateHeure));
+        } else {
+            demande = parSpecialite
+                    ? new Patient.DemandeO2A(SPECIALITE, new Date(dateHeure))
+                    : new Patient.DemandeO2A(idMedecin, new Date(dateHeure));
+        }
+
+        demandesEnCours.put(dateHeure, System.nanoTime());
+        try {
+            patients[index].putO2AObject(demande, AgentController.ASYNC);
+            envoyees.incrementAndGet();
+        } catch (StaleProxyException e) {
+            demandesEnCours.remove(dateHeure);
+        }
+    }
+
+    // Appelé depuis le thread de l'agent patient à la réception de la confirmation
+    private void confirmer(Consultation consultation) {
+        Long envoi = demandesEnCours.remove(consultation.getDateHeure().getTime());
+        if (envoi != null) {
+            latences.recordValue(System.nanoTime() - envoi);
+            confirmees.incrementAndGet();
+        }
+    }
+
+    private void rapporter(long dureeNanos) {
+        Histogram histogramme = latences.getIntervalHistogram();
+        double secondes = dureeNanos / 1e9;
+        logger.info("Charge ({}, routage {}): {} demandes envoyées, {} confirmées, {} sans réponse en {} s",
+                profil, routage, envoyees.get(), confirmees.get(), demandesEnCours.size(), String.format("%.1f", secondes));
+        logger.info("Débit: {} confirmations/s", String.format("%.1f", confirmees.get() / secondes));
+        logger.info("Latence demande -> confirmation: p50={} ms, p99={} ms, p999={} ms, max={} ms",
+                millis(histogramme.getValueAtPercentile(50)),
+                millis(histogramme.getValueAtPercentile(99)),
+                millis(histogramme.getValueAtPercentile(99.9)),
+                millis(histogramme.getMaxValue()));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.demo.load;
+
+import com.example.demo.agent.Medecin;
+import com.example.demo.services.AgentService;
+import com.example.demo.services.AgentService.BilanDemarrage;
+import com.example.demo.services.AgentService.DemandeDemarrage;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Générateur de charge HTTP : démarre M médecins, puis envoie des demandes de
+ * consultation à POST /api/consultations selon un processus de Poisson, et
+ * mesure la latence requête HTTP -> réponse avec la consultation planifiée.
+ * Les patients ne sont pas des agents : la passerelle porte toutes les demandes.
+ *
+ * Activé par clinic.http-load.enabled=true (sans clinic.load.enabled, qui démarre ses propres médecins).
+ */
+@Component
+@ConditionalOnProperty(name = "clinic.http-load.enabled", havingValue = "true")
+public class HttpLoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpLoadGenerator.class);
+
+    // Base des dates demandées : une minute distincte par demande
+    private static final long BASE_DATES = 1_893_456_000_000L;
+    private static final long MILLIS_PAR_MINUTE = 60_000L;
+    private static final String SPECIALITE = "Généraliste";
+
+    private final AgentService agentService;
+    private final WebServerApplicationContext contexte;
+
+    @Value("${clinic.http-load.patients:1000}")
+    private int nbPatients;
+
+    @Value("${clinic.http-load.medecins:20}")
+    private int nbMedecins;
+
+    @Value("${clinic.http-load.rate:200}")
+    private double demandesParSeconde;
+
+    @Value("${clinic.http-load.routing:specialite}")
+    private String routage;
+
+    @Value("${clinic.http-load.warmup-seconds:20}")
+    private int dureeChauffe;
+
+    @Value("${clinic.http-load.duration-seconds:60}")
+    private int dureeMesure;
+
+    @Value("${jade.startup.ready-timeout-ms:30000}")
+    private long delaiPretMs;
+
+    // HTTP/1.1 explicite : sans tentative de passage en h2c à chaque nouvelle connexion
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final Recorder latences = new Recorder(3);
+    private final AtomicLong prochaineMinute = new AtomicLong();
+    private final AtomicLong envoyees = new AtomicLong();
+    private final AtomicLong confirmees = new AtomicLong();
+    private final AtomicLong autres = new AtomicLong();
+    private final AtomicLong echecs = new AtomicLong();
+
+    public HttpLoadGenerator(AgentService agentService, WebServerApplicationContext contexte) {
+        this.agentService = agentService;
+        this.contexte = contexte;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        List<String> conteneurs = agentService.getContainerNames();
+        List<DemandeDemarrage> medecins = new ArrayList<>(nbMedecins);
+        for (int i = 1; i <= nbMedecins; i++) {
+            medecins.add(new DemandeDemarrage(conteneurs.get(i % conteneurs.size()), "medecin" + i,
+                    Medecin.class.getName(), new Object[]{"Charge" + i, SPECIALITE}));
+        }
+        BilanDemarrage bilan = agentService.startAgents(medecins, delaiPretMs);
+        if (bilan.echecs() > 0) {
+            logger.error("Erreur lors du démarrage des médecins: {} médecins non démarrés", bilan.echecs());
+            return;
+        }
+        logger.info("Charge HTTP: {} médecins démarrés en {} ms", nbMedecins, bilan.dureePretMs());
+        URI uri = URI.create("http://localhost:" + contexte.getWebServer().getPort() + "/api/consultations");
+        Thread generateur = new Thread(() -> generer(uri), "clinic-http-load");
+        generateur.setDaemon(true);
+        generateur.start();
+    }
+
+    private void generer(URI uri) {
+        // Chauffe sous la même charge (compilation du chemin HTTP) : ses réponses ne sont pas comptées,
+        // même arrivées pendant la mesure ; la pause laisse la plupart se terminer avant
+        charger(uri, TimeUnit.SECONDS.toNanos(dureeChauffe), false);
+        LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(2));
+
+        long duree = charger(uri, TimeUnit.SECONDS.toNanos(dureeMesure), true);
+
+        // Laisser les dernières réponses arriver
+        LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(5));
+        rapporter(duree);
+    }
+
+    // Demandes selon un processus de Poisson de taux demandesParSeconde pendant dureeNanos
+    private long charger(URI uri, long dureeNanos, boolean mesuree) {
+        long debut = System.nanoTime();
+        long fin = debut + dureeNanos;
+        long prochaineEcheance = debut;
+
+        while (System.nanoTime() < fin) {
+            envoyer(uri, mesuree);
+            double u = ThreadLocalRandom.current().nextDouble();
+            prochaineEcheance += (long) (-Math.log(1.0 - u) * 1e9 / demandesParSeconde);
+            long attente = prochaineEcheance - System.nanoTime();
+            if (attente > 0) {
+                LockSupport.parkNanos(attente);
+            }
+        }
+        return System.nanoTime() - debut;
+    }
+
+    private void envoyer(URI uri, boolean mesuree) {
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        int idPatient = 1 + aleatoire.nextInt(nbPatients);
+        long dateHeure = BASE_DATES + prochaineMinute.incrementAndGet() * MILLIS_PAR_MINUTE;
+        String corps = "specialite".equalsIgnoreCase(routage)
+                ? String.format("{\"idPatient\":%d,\"specialite\":\"%s\",\"dateHeure\":%d}", idPatient, SPECIALITE, dateHeure)
+                : String.format("{\"idPatient\":%d,\"idMedecin\":%d,\"dateHeure\":%d}", idPatient,
+                        1 + aleatoire.nextInt(nbMedecins), dateHeure);
+
+        HttpRequest requete = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corps))
+                .build();
+        long envoi = System.nanoTime();
+        if (mesuree) {
+            envoyees.incrementAndGet();
+        }
+        client.sendAsync(requete, HttpResponse.BodyHandlers.ofString()).whenComplete((reponse, erreur) -> {
+            if (!mesuree) {
+                return;
+            }
+            if (erreur != null || reponse.statusCode() != 200) {
+                echecs.incrementAndGet();
+            } else if (reponse.body().contains("\"status\":\"planifiée\"")) {
+                latences.recordValue(System.nanoTime() - envoi);
+                confirmees.incrementAndGet();
+            } else {
+                autres.incrementAndGet();
+            }
+        });
+    }
+
+    private void rapporter(long dureeNanos) {
+        Histogram histogramme = latences.getIntervalHistogram();
+        double secondes = dureeNanos / 1e9;
+        logger.info("Charge HTTP (routage {}): {} requêtes, {} planifiées, {} refusées ou annulées, {} en échec en {} s",
+                routage, envoyees.get(), confirmees.get(), autres.get(), echecs.get(), String.format("%.1f", secondes));
+        logger.info("Débit: {} confirmations/s", String.format("%.1f", confirmees.get() / secondes));
+        logger.info("Latence HTTP -> consultation planifiée: p50={} ms, p99={} ms, p999={} ms, max={} ms",
+                millis(histogramme.getValueAtPercentile(50)),
+                millis(histogramme.getValueAtPercentile(99)),
+                millis(histogramme.getValueAtPercentile(99.9)),
+                millis(histogramme.getMaxValue()));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jade.core.Agent;
+import jade.lang.acl.ACLMessage;
+
+/**
+ * Métriques d'un agent, publiées dans le registre global de Micrometer.
+ *
+ * Les agents JADE ne sont pas des beans Spring : Spring Boot rattache son
+ * registre (Prometheus) au registre global, qui est donc exposé par
+ * l'endpoint Actuator /actuator/prometheus. Les séries sont étiquetées par
+ * type d'agent et non par nom, afin de rester bornées avec des milliers de patients.
+ */
+public class AgentMetrics {
+
+    public static final String SANS_ACTION = "aucune";
+
+    private final MeterRegistry registry = Metrics.globalRegistry;
+    private final String type;
+    private Gauge boiteAuxLettres;
+    private DistributionSummary lots;
+
+    public AgentMetrics(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Jauge de la taille de la file de messages de l'agent, étiquetée par son nom
+     */
+    public void surveillerBoiteAuxLettres(Agent agent) {
+        boiteAuxLettres = Gauge.builder("agent.mailbox.size", agent, Agent::getCurQueueSize)
+                .description("Messages en attente dans la file de l'agent")
+                .tags("type", type, "agent", agent.getLocalName())
+                .register(registry);
+    }
+
+    public void arreter() {
+        if (boiteAuxLettres != null) {
+            registry.remove(boiteAuxLettres);
+        }
+    }
+
+    public Timer.Sample debut() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Compte un message et enregistre la durée de son traitement par performatif et action
+     */
+    public void messageTraite(Timer.Sample sample, ACLMessage message, Object action) {
+        String performatif = ACLMessage.getPerformative(message.getPerformative());
+        String nomAction = action != null ? action.getClass().getSimpleName() : SANS_ACTION;
+
+        Counter.builder("agent.messages")
+                .description("Messages reçus par performatif et action")
+                .tags("type", type, "performative", performatif, "action", nomAction)
+                .register(registry)
+                .increment();
+
+        sample.stop(Timer.builder("agent.handler")
+                .description("Durée de traitement d'un message")
+                .tags("type", type, "performative", performatif, "action", nomAction)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    /**
+     * Compteur de messages d'une route de dispatch, créé une fois à l'enregistrement de la route
+     */
+    public Counter compteurMessages(String performatif, String action) {
+        return Counter.builder("agent.messages")
+                .description("Messages reçus par performatif et action")
+                .tags("type", type, "performative", performatif, "action", action)
+                .register(registry);
+    }
+
+    /**
+     * Durée de traitement d'une route de dispatch
+     */
+    public Timer dureeTraitement(String performatif, String action) {
+        return Timer.builder("agent.handler")
+                .description("Durée de traitement d'un message")
+                .tags("type", type, "performative", performatif, "action", action)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Échecs de traitement d'une route de dispatch
+     */
+    public Counter compteurEchecs(String performatif, String action) {
+        return Counter.builder("agent.handler.errors")
+                .description("Messages dont le traitement a échoué")
+                .tags("type", type, "performative", performatif, "action", action)
+                .register(registry);
+    }
+
+    /**
+     * Nombre de messages traités en une activation du comportement de réception
+     */
+    public void lotTraite(int taille) {
+        if (lots == null) {
+            lots = DistributionSummary.builder("agent.batch.size")
+                    .description("Messages traités par activation")
+                    .tags("type", type)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        lots.record(taille);
+    }
+
+    /**
+     * Transition d'état d'une consultation
+     */
+    public void transition(String statutPrecedent, String nouveauStatut) {
+        Counter.builder("consultation.transitions")
+                .description("Changements de statut des consultations")
+                .tags("from", statutPrecedent != null ? statutPrecedent : "aucun", "to", nouveauStatut)
+                .register(registry)
+                .increment();
+    }
+}
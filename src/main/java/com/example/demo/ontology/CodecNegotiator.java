@@ -0,0 +1,118 @@
+package com.example.demo.ontology;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jade.content.ContentElement;
+import jade.content.ContentManager;
+import jade.content.lang.Codec;
+import jade.content.lang.leap.LEAPCodec;
+import jade.content.lang.sl.SLCodec;
+import jade.content.onto.Ontology;
+import jade.content.onto.OntologyException;
+import jade.core.AID;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Langages de contenu d'un agent : SL (texte) et LEAP (binaire compact).
+ *
+ * Les deux codecs sont enregistrés dans le ContentManager, le décodage suit
+ * donc toujours le langage du message reçu. Pour les nouveaux messages, le
+ * langage est celui dernièrement utilisé par le destinataire, à défaut le
+ * langage préféré (propriété système "medical.codec", SL par défaut), afin
+ * que les agents ne comprenant que SL continuent de fonctionner.
+ * Les durées d'encodage et de décodage sont publiées par langage (codec.encode,
+ * codec.decode). Elle partage le ContentManager de l'agent, qui n'est pas
+ * synchronisé : encodage et décodage restent sur le thread de l'agent.
+ */
+public class CodecNegotiator {
+
+    public static final String CODEC_PROPERTY = "medical.codec";
+
+    private final Codec slCodec = new SLCodec();
+    private final Codec leapCodec = new LEAPCodec();
+    private final Codec codecPrefere;
+    private final Ontology ontology;
+    private final ContentManager contentManager;
+
+    // Dernier langage reçu de chaque interlocuteur
+    private final Map<AID, String> languesPairs = new HashMap<>();
+
+    public CodecNegotiator(ContentManager contentManager, Ontology ontology) {
+        this.ontology = ontology;
+        this.contentManager = contentManager;
+        this.codecPrefere = LEAPCodec.NAME.equalsIgnoreCase(System.getProperty(CODEC_PROPERTY))
+                ? leapCodec
+                : slCodec;
+
+        contentManager.registerLanguage(slCodec);
+        contentManager.registerLanguage(leapCodec);
+        contentManager.registerOntology(ontology);
+    }
+
+    /**
+     * Modèle acceptant les messages de l'ontologie dans l'un des langages supportés
+     */
+    public MessageTemplate template() {
+        return MessageTemplate.and(
+                MessageTemplate.or(
+                        MessageTemplate.MatchLanguage(slCodec.getName()),
+                        MessageTemplate.MatchLanguage(leapCodec.getName())),
+                MessageTemplate.MatchOntology(ontology.getName())
+        );
+    }
+
+    /**
+     * Mémorise le langage utilisé par l'émetteur d'un message reçu
+     */
+    public void observer(ACLMessage message) {
+        if (message.getSender() != null && message.getLanguage() != null) {
+            languesPairs.put(message.getSender(), message.getLanguage());
+        }
+    }
+
+    /**
+     * Positionne langage et ontologie d'un nouveau message selon son premier destinataire
+     */
+    public void preparer(ACLMessage message) {
+        String langue = null;
+        Iterator<?> destinataires = message.getAllReceiver();
+        if (destinataires.hasNext()) {
+            langue = languesPairs.get((AID) destinataires.next());
+        }
+        message.setLanguage(langue != null ? langue : codecPrefere.getName());
+        message.setOntology(ontology.getName());
+    }
+
+    /**
+     * Encode le contenu dans le langage déjà positionné sur le message
+     */
+    public void remplir(ACLMessage message, ContentElement contenu) throws Codec.CodecException, OntologyException {
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        try {
+            contentManager.fillContent(message, contenu);
+        } finally {
+            sample.stop(Metrics.timer("codec.encode", "language", message.getLanguage()));
+        }
+    }
+
+    /**
+     * Décode le contenu d'un message reçu selon son langage
+     */
+    public ContentElement extraire(ACLMessage message) throws Codec.CodecException, OntologyException {
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        try {
+            return contentManager.extractContent(message);
+        } finally {
+            sample.stop(Metrics.timer("codec.decode", "language", message.getLanguage()));
+        }
+    }
+
+    public Codec getCodecPrefere() {
+        return codecPrefere;
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.demo.ontology;
 
 
+import com.example.demo.ontology.ations.AnnulerConsultation;
 import com.example.demo.ontology.ations.DemanderConsultation;
 import com.example.demo.ontology.ations.EnregistrerPatient;
 import com.example.demo.ontology.ations.OrganiserConsultation;
+import com.example.demo.ontology.ations.PublierDisponibilites;
 import com.example.demo.ontology.ations.RedigerDiagnostic;
 import com.example.demo.ontology.concepts.Consultation;
 import com.example.demo.ontology.concepts.Diagnostic;
@@ -14,9 +16,13 @@ import jade.content.onto.Ontology;
 import jade.content.onto.OntologyException;
 import jade.content.schema.*;
 import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 public class MedicalOntology extends Ontology {
+    private static final Logger logger = LoggerFactory.getLogger(MedicalOntology.class);
+
     // Le nom de l'ontologie
     public static final String ONTOLOGY_NAME = "Medical-Ontology";
 
@@ -63,9 +69,14 @@ public class MedicalOntology extends Ontology {
 
     // Noms des actions
     public static final String DEMANDER_CONSULTATION = "DemanderConsultation";
+    public static final String DEMANDER_CONSULTATION_SPECIALITE = "specialite";
     public static final String ENREGISTRER_PATIENT = "EnregistrerPatient";
     public static final String ORGANISER_CONSULTATION = "OrganiserConsultation";
     public static final String REDIGER_DIAGNOSTIC = "RedigerDiagnostic";
+    public static final String PUBLIER_DISPONIBILITES = "PublierDisponibilites";
+    public static final String ANNULER_CONSULTATION = "AnnulerConsultation";
+
+    public static final String PUBLIER_DISPONIBILITES_LISTE = "disponibilites";
 
     // Constructeur privé pour le singleton
     private MedicalOntology() {
@@ -82,6 +93,8 @@ public class MedicalOntology extends Ontology {
             add(new AgentActionSchema(ENREGISTRER_PATIENT), EnregistrerPatient.class);
             add(new AgentActionSchema(ORGANISER_CONSULTATION), OrganiserConsultation.class);
             add(new AgentActionSchema(REDIGER_DIAGNOSTIC), RedigerDiagnostic.class);
+            add(new AgentActionSchema(PUBLIER_DISPONIBILITES), PublierDisponibilites.class);
+            add(new AgentActionSchema(ANNULER_CONSULTATION), AnnulerConsultation.class);
 
             // Structure des concepts
             ConceptSchema cs = (ConceptSchema) getSchema(PATIENT);
@@ -112,6 +125,7 @@ public class MedicalOntology extends Ontology {
             // Structure des actions
             AgentActionSchema as = (AgentActionSchema) getSchema(DEMANDER_CONSULTATION);
             as.add(CONSULTATION, (ConceptSchema) getSchema(CONSULTATION));
+            as.add(DEMANDER_CONSULTATION_SPECIALITE, (PrimitiveSchema) getSchema(BasicOntology.STRING), ObjectSchema.OPTIONAL);
 
             as = (AgentActionSchema) getSchema(ENREGISTRER_PATIENT);
             as.add(PATIENT, (ConceptSchema) getSchema(PATIENT));
@@ -124,8 +138,14 @@ public class MedicalOntology extends Ontology {
             as.add(DIAGNOSTIC, (ConceptSchema) getSchema(DIAGNOSTIC));
             as.add(CONSULTATION.toLowerCase(), (ConceptSchema) getSchema(CONSULTATION));
 
+            as = (AgentActionSchema) getSchema(PUBLIER_DISPONIBILITES);
+            as.add(PUBLIER_DISPONIBILITES_LISTE, (ConceptSchema) getSchema(DISPONIBILITE), 1, ObjectSchema.UNLIMITED);
+
+            as = (AgentActionSchema) getSchema(ANNULER_CONSULTATION);
+            as.add(CONSULTATION, (ConceptSchema) getSchema(CONSULTATION));
+
         } catch (OntologyException oe) {
-            oe.printStackTrace();
+            logger.error("Construction de l'ontologie {} impossible", ONTOLOGY_NAME, oe);
         }
     }
 
@@ -0,0 +1,29 @@
+package com.example.demo.ontology.ations;
+
+
+import com.example.demo.ontology.concepts.Consultation;
+import jade.content.AgentAction;
+
+
+/**
+ * Notification au médecin qu'une consultation ne lui est plus confiée (autre médecin,
+ * annulation ou consultation terminée) : il libère le créneau qu'il lui avait réservé
+ */
+public class AnnulerConsultation implements AgentAction {
+    private Consultation consultation;
+
+    public AnnulerConsultation() {
+    }
+
+    public AnnulerConsultation(Consultation consultation) {
+        this.consultation = consultation;
+    }
+
+    public Consultation getConsultation() {
+        return consultation;
+    }
+
+    public void setConsultation(Consultation consultation) {
+        this.consultation = consultation;
+    }
+}
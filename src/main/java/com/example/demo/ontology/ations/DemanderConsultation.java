@@ -7,6 +7,8 @@ import jade.content.AgentAction;
 
 public class DemanderConsultation implements AgentAction {
     private Consultation consultation;
+    // Spécialité demandée quand la consultation ne nomme aucun médecin (idMedecin = 0)
+    private String specialite;
 
     public DemanderConsultation() {
     }
@@ -15,6 +17,11 @@ public class DemanderConsultation implements AgentAction {
         this.consultation = consultation;
     }
 
+    public DemanderConsultation(Consultation consultation, String specialite) {
+        this.consultation = consultation;
+        this.specialite = specialite;
+    }
+
     public Consultation getConsultation() {
         return consultation;
     }
@@ -22,4 +29,12 @@ public class DemanderConsultation implements AgentAction {
     public void setConsultation(Consultation consultation) {
         this.consultation = consultation;
     }
+
+    public String getSpecialite() {
+        return specialite;
+    }
+
+    public void setSpecialite(String specialite) {
+        this.specialite = specialite;
+    }
 }
@@ -0,0 +1,43 @@
+package com.example.demo.ontology.ations;
+
+
+import com.example.demo.ontology.concepts.Disponibilite;
+import jade.content.AgentAction;
+import jade.util.leap.ArrayList;
+import jade.util.leap.List;
+
+import java.util.Collection;
+
+/**
+ * Publication groupée des disponibilités d'un médecin auprès de son réceptionniste.
+ * L'introspecteur de JADE n'accepte que les listes jade.util.leap pour les agrégats.
+ */
+public class PublierDisponibilites implements AgentAction {
+    private List disponibilites = new ArrayList();
+
+    public PublierDisponibilites() {
+    }
+
+    public PublierDisponibilites(Collection<Disponibilite> disponibilites) {
+        this.disponibilites = new ArrayList(disponibilites.size());
+        for (Disponibilite disponibilite : disponibilites) {
+            this.disponibilites.add(disponibilite);
+        }
+    }
+
+    public List getDisponibilites() {
+        return disponibilites;
+    }
+
+    public void setDisponibilites(List disponibilites) {
+        this.disponibilites = disponibilites;
+    }
+
+    public java.util.List<Disponibilite> lister() {
+        java.util.List<Disponibilite> liste = new java.util.ArrayList<>(disponibilites.size());
+        for (int i = 0; i < disponibilites.size(); i++) {
+            liste.add((Disponibilite) disponibilites.get(i));
+        }
+        return liste;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.demo.patients;
+
+/**
+ * État des patients représentés par une passerelle, indexé par idPatient.
+ *
+ * Table à adressage ouvert (sondage linéaire) en tableaux parallèles de
+ * primitives : ni boîte Integer, ni objet, ni nœud par patient. Une case
+ * occupe 19 octets et la table reste chargée à moins de 75 % : un million
+ * de patients tiennent en 40 Mo, plus les identités connues (une chaîne
+ * nom + '\0' + prénom par patient).
+ * L'identifiant 0 est réservé (case libre) : c'est aussi « pas d'identifiant »
+ * dans l'ontologie.
+ */
+public class TablePatients {
+
+    // Statuts de la dernière consultation, codés sur un octet ; 0 : aucune
+    private static final String[] STATUTS = {null, "demandée", "planifiée", "refusée", "annulée", "terminée"};
+    private static final byte STATUT_PLANIFIEE = 2;
+    private static final byte STATUT_AUTRE = -1;
+
+    private static final float CHARGE_MAX = 0.75f;
+
+    private int[] ids;
+    private String[] identites;
+    private int[] dernieresConsultations;
+    private byte[] derniersStatuts;
+    private short[] enCours;
+    private int[] planifiees;
+    private int masque;
+    private int taille;
+
+    public TablePatients(int capaciteInitiale) {
+        int cases = Integer.highestOneBit(Math.max(16, (int) (capaciteInitiale / CHARGE_MAX)) - 1) << 1;
+        allouer(cases);
+    }
+
+    public int size() {
+        return taille;
+    }
+
+    public boolean contient(int idPatient) {
+        return idPatient != 0 && chercher(idPatient) >= 0;
+    }
+
+    /**
+     * Inscrit le patient, ou met à jour son identité ; true s'il était inconnu
+     */
+    public boolean inscrire(int idPatient, String nom, String prenom) {
+        int avant = taille;
+        int i = caseDe(idPatient);
+        if (nom != null || prenom != null) {
+            identites[i] = (nom == null ? "" : nom) + '\0' + (prenom == null ? "" : prenom);
+        }
+        return taille > avant;
+    }
+
+    public String nom(int idPatient) {
+        String identite = identite(idPatient);
+        return identite == null ? null : identite.substring(0, identite.indexOf('\0'));
+    }
+
+    public String prenom(int idPatient) {
+        String identite = identite(idPatient);
+        return identite == null ? null : identite.substring(identite.indexOf('\0') + 1);
+    }
+
+    /**
+     * Demande envoyée pour ce patient, inscrit au passage s'il était inconnu
+     */
+    public void demandeEnvoyee(int idPatient) {
+        int i = caseDe(idPatient);
+        if (enCours[i] < Short.MAX_VALUE) {
+            enCours[i]++;
+        }
+    }
+
+    /**
+     * Fin d'attente d'une demande : réponse finale reçue ou échéance dépassée
+     */
+    public void demandeTerminee(int idPatient) {
+        int i = idPatient == 0 ? -1 : chercher(idPatient);
+        if (i >= 0 && enCours[i] > 0) {
+            enCours[i]--;
+        }
+    }
+
+    /**
+     * Dernier état connu d'une consultation du patient (notification du réceptionniste)
+     */
+    public void consultation(int idPatient, int idConsultation, String statut) {
+        int i = caseDe(idPatient);
+        byte code = coder(statut);
+        if (code == STATUT_PLANIFIEE && !(dernieresConsultations[i] == idConsultation && derniersStatuts[i] == code)) {
+            planifiees[i]++;
+        }
+        dernieresConsultations[i] = idConsultation;
+        derniersStatuts[i] = code;
+    }
+
+    public int enCours(int idPatient) {
+        int i = idPatient == 0 ? -1 : chercher(idPatient);
+        return i < 0 ? 0 : enCours[i];
+    }
+
+    public int derniereConsultation(int idPatient) {
+        int i = idPatient == 0 ? -1 : chercher(idPatient);
+        return i < 0 ? 0 : dernieresConsultations[i];
+    }
+
+    public String dernierStatut(int idPatient) {
+        int i = idPatient == 0 ? -1 : chercher(idPatient);
+        if (i < 0 || derniersStatuts[i] == 0) {
+            return null;
+        }
+        return derniersStatuts[i] == STATUT_AUTRE ? "autre" : STATUTS[derniersStatuts[i]];
+    }
+
+    public int consultationsPlanifiees(int idPatient) {
+        int i = idPatient == 0 ? -1 : chercher(idPatient);
+        return i < 0 ? 0 : planifiees[i];
+    }
+
+    private String identite(int idPatient) {
+        int i = idPatient == 0 ? -1 : chercher(idPatient);
+        return i < 0 ? null : identites[i];
+    }
+
+    private static byte coder(String statut) {
+        for (byte code = 1; code < STATUTS.length; code++) {
+            if (STATUTS[code].equals(statut)) {
+                return code;
+            }
+        }
+        return STATUT_AUTRE;
+    }
+
+    // Case du patient, créée s'il est inconnu
+    private int caseDe(int idPatient) {
+        if (idPatient == 0) {
+            throw new IllegalArgumentException("idPatient 0 réservé");
+        }
+        int i = hacher(idPatient) & masque;
+        while (ids[i] != 0) {
+            if (ids[i] == idPatient) {
+                return i;
+            }
+            i = (i + 1) & masque;
+        }
+        if (taille + 1 > (masque + 1) * CHARGE_MAX) {
+            agrandir();
+            return caseDe(idPatient);
+        }
+        ids[i] = idPatient;
+        taille++;
+        return i;
+    }
+
+    private int chercher(int idPatient) {
+        int i = hacher(idPatient) & masque;
+        while (ids[i] != 0) {
+            if (ids[i] == idPatient) {
+                return i;
+            }
+            i = (i + 1) & masque;
+        }
+        return -1;
+    }
+
+    // Identifiants souvent consécutifs : mélange des bits pour étaler les grappes du sondage linéaire
+    private static int hacher(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void allouer(int cases) {
+        ids = new int[cases];
+        identites = new String[cases];
+        dernieresConsultations = new int[cases];
+        derniersStatuts = new byte[cases];
+        enCours = new short[cases];
+        planifiees = new int[cases];
+        masque = cases - 1;
+    }
+
+    private void agrandir() {
+        int[] anciensIds = ids;
+        String[] anciennesIdentites = identites;
+        int[] anciennesConsultations = dernieresConsultations;
+        byte[] anciensStatuts = derniersStatuts;
+        short[] anciensEnCours = enCours;
+        int[] anciennesPlanifiees = planifiees;
+
+        allouer(anciensIds.length << 1);
+        for (int j = 0; j < anciensIds.length; j++) {
+            if (anciensIds[j] == 0) {
+                continue;
+            }
+            int i = hacher(anciensIds[j]) & masque;
+            while (ids[i] != 0) {
+                i = (i + 1) & masque;
+            }
+            ids[i] = anciensIds[j];
+            identites[i] = anciennesIdentites[j];
+            dernieresConsultations[i] = anciennesConsultations[j];
+            derniersStatuts[i] = anciensStatuts[j];
+            enCours[i] = anciensEnCours[j];
+            planifiees[i] = anciennesPlanifiees[j];
+        }
+    }
+}
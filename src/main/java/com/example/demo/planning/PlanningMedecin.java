@@ -0,0 +1,238 @@
+package com.example.demo.planning;
+
+import com.example.demo.ontology.concepts.Disponibilite;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Index d'intervalles des disponibilités et des réservations d'un médecin.
+ *
+ * Les bornes sont exprimées en minutes depuis l'epoch. Les disponibilités
+ * qui se chevauchent sont fusionnées dans un index de couverture, les
+ * réservations ne se chevauchent jamais et celles qui se touchent sont
+ * fusionnées en un bloc : "[t, t+d) est-il libre ?" se résout donc par deux
+ * recherches floor/lower en O(log n).
+ */
+public class PlanningMedecin {
+
+    // Durée d'une consultation, le concept Consultation ne portant pas de durée
+    public static final int DUREE_CONSULTATION = 15;
+
+    private static final long MILLIS_PAR_MINUTE = 60_000L;
+
+    // Disponibilités telles que publiées, par minute de début
+    private final NavigableMap<Long, Disponibilite> disponibilites = new TreeMap<>();
+    // Couverture fusionnée : début -> fin (exclue)
+    private final NavigableMap<Long, Long> couverture = new TreeMap<>();
+    // Réservations fusionnées : début -> fin (exclue), deux blocs ne se touchent jamais
+    private final NavigableMap<Long, Long> reservations = new TreeMap<>();
+
+    /**
+     * Ajoute une disponibilité, ou remplace celle qui commence à la même date
+     */
+    public void ajouterDisponibilite(Disponibilite disponibilite) {
+        long debut = minutes(disponibilite.getDateHeure());
+        long fin = debut + Math.max(disponibilite.getDuree(), 0);
+
+        Disponibilite ancienne = disponibilites.put(debut, disponibilite);
+        if (ancienne != null) {
+            // La durée a pu diminuer : on reconstruit la couverture autour de l'ancienne plage
+            Map.Entry<Long, Long> plage = couverture.floorEntry(debut);
+            if (plage != null && plage.getValue() > debut) {
+                couverture.remove(plage.getKey());
+                for (Disponibilite d : disponibilites.subMap(plage.getKey(), true, plage.getValue(), false).values()) {
+                    couvrir(minutes(d.getDateHeure()), minutes(d.getDateHeure()) + Math.max(d.getDuree(), 0));
+                }
+                return;
+            }
+        }
+        couvrir(debut, fin);
+    }
+
+    /**
+     * Ajoute un lot de disponibilités en une passe : triées par date, les plages
+     * contiguës sont fusionnées avant d'être reportées dans l'index de couverture.
+     * Une disponibilité qui en remplace une autre suit le chemin unitaire.
+     */
+    public void ajouterDisponibilites(Collection<Disponibilite> lot) {
+        List<Disponibilite> triees = new ArrayList<>(lot);
+        triees.sort(Comparator.comparing(Disponibilite::getDateHeure));
+
+        long debutPlage = 0;
+        long finPlage = 0;
+        boolean plageOuverte = false;
+        for (Disponibilite disponibilite : triees) {
+            long debut = minutes(disponibilite.getDateHeure());
+            long fin = debut + Math.max(disponibilite.getDuree(), 0);
+
+            if (disponibilites.containsKey(debut)) {
+                if (plageOuverte) {
+                    couvrir(debutPlage, finPlage);
+                    plageOuverte = false;
+                }
+                ajouterDisponibilite(disponibilite);
+                continue;
+            }
+            disponibilites.put(debut, disponibilite);
+
+            if (plageOuverte && debut <= finPlage) {
+                finPlage = Math.max(finPlage, fin);
+            } else {
+                if (plageOuverte) {
+                    couvrir(debutPlage, finPlage);
+                }
+                debutPlage = debut;
+                finPlage = fin;
+                plageOuverte = true;
+            }
+        }
+        if (plageOuverte) {
+            couvrir(debutPlage, finPlage);
+        }
+    }
+
+    /**
+     * Indique si l'intervalle [dateHeure, dateHeure + duree) est couvert par une
+     * disponibilité et ne chevauche aucune réservation
+     */
+    public boolean estLibre(Date dateHeure, int duree) {
+        long debut = minutes(dateHeure);
+        long fin = debut + duree;
+        return estCouvert(debut, fin) && !chevaucheReservation(debut, fin);
+    }
+
+    /**
+     * Premier début de créneau libre de durée duree à partir de apres, ou null.
+     * Les réservations consécutives formant un seul bloc, chaque saut coûte
+     * O(log n) ; seuls les intervalles libres plus courts que duree entre deux
+     * blocs sont parcourus un à un.
+     */
+    public Date prochainCreneauLibre(Date apres, int duree) {
+        long candidat = minutes(apres);
+
+        Map.Entry<Long, Long> plage = couverture.floorEntry(candidat);
+        if (plage == null || plage.getValue() <= candidat) {
+            plage = couverture.higherEntry(candidat);
+        }
+
+        while (plage != null) {
+            candidat = Math.max(candidat, plage.getKey());
+            Map.Entry<Long, Long> conflit;
+            while ((conflit = reservations.lowerEntry(candidat + duree)) != null && conflit.getValue() > candidat) {
+                candidat = conflit.getValue();
+            }
+            if (candidat + duree <= plage.getValue()) {
+                return new Date(candidat * MILLIS_PAR_MINUTE);
+            }
+            plage = couverture.higherEntry(plage.getKey());
+        }
+        return null;
+    }
+
+    /**
+     * Réserve l'intervalle [dateHeure, dateHeure + duree) s'il ne chevauche aucune réservation
+     */
+    public boolean reserver(Date dateHeure, int duree) {
+        long debut = minutes(dateHeure);
+        long fin = debut + duree;
+        if (chevaucheReservation(debut, fin)) {
+            return false;
+        }
+        // Fusion avec les blocs qui se terminent au début ou commencent à la fin de l'intervalle
+        Map.Entry<Long, Long> precedente = reservations.lowerEntry(debut);
+        if (precedente != null && precedente.getValue() == debut) {
+            debut = precedente.getKey();
+        }
+        Long finSuivante = reservations.remove(fin);
+        if (finSuivante != null) {
+            fin = finSuivante;
+        }
+        reservations.put(debut, fin);
+        return true;
+    }
+
+    /**
+     * Libère l'intervalle [dateHeure, dateHeure + duree), qui doit être entièrement réservé ;
+     * le bloc qui le contient est scindé autour de lui
+     */
+    public boolean liberer(Date dateHeure, int duree) {
+        long debut = minutes(dateHeure);
+        long fin = debut + duree;
+        Map.Entry<Long, Long> bloc = reservations.floorEntry(debut);
+        if (bloc == null || bloc.getValue() < fin) {
+            return false;
+        }
+        reservations.remove(bloc.getKey());
+        if (bloc.getKey() < debut) {
+            reservations.put(bloc.getKey(), debut);
+        }
+        if (fin < bloc.getValue()) {
+            reservations.put(fin, bloc.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * Disponibilité publiée qui contient la date donnée, ou null
+     */
+    public Disponibilite disponibiliteContenant(Date dateHeure) {
+        long minute = minutes(dateHeure);
+        // Les disponibilités peuvent se chevaucher : on remonte depuis la plus proche
+        for (Disponibilite d : disponibilites.headMap(minute, true).descendingMap().values()) {
+            if (minutes(d.getDateHeure()) + d.getDuree() > minute) {
+                return d;
+            }
+            if (!estCouvert(minutes(d.getDateHeure()), minute + 1)) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    public List<Disponibilite> getDisponibilites() {
+        return new ArrayList<>(disponibilites.values());
+    }
+
+    public boolean isEmpty() {
+        return disponibilites.isEmpty();
+    }
+
+    private boolean estCouvert(long debut, long fin) {
+        Map.Entry<Long, Long> plage = couverture.floorEntry(debut);
+        return plage != null && plage.getValue() >= fin;
+    }
+
+    private boolean chevaucheReservation(long debut, long fin) {
+        Map.Entry<Long, Long> precedente = reservations.lowerEntry(fin);
+        return precedente != null && precedente.getValue() > debut;
+    }
+
+    // Fusionne [debut, fin) avec les plages de couverture adjacentes ou chevauchantes
+    private void couvrir(long debut, long fin) {
+        if (fin <= debut) {
+            return;
+        }
+        Map.Entry<Long, Long> precedente = couverture.floorEntry(debut);
+        if (precedente != null && precedente.getValue() >= debut) {
+            debut = precedente.getKey();
+            fin = Math.max(fin, precedente.getValue());
+        }
+        Map.Entry<Long, Long> suivante;
+        while ((suivante = couverture.ceilingEntry(debut)) != null && suivante.getKey() <= fin) {
+            fin = Math.max(fin, suivante.getValue());
+            couverture.remove(suivante.getKey());
+        }
+        couverture.put(debut, fin);
+    }
+
+    private static long minutes(Date date) {
+        return Math.floorDiv(date.getTime(), MILLIS_PAR_MINUTE);
+    }
+}
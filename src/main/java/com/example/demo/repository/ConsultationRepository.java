@@ -0,0 +1,95 @@
+package com.example.demo.repository;
+
+import com.example.demo.ontology.concepts.Consultation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stockage indexé des consultations du réceptionniste.
+ *
+ * Index primaire sur l'id (O(1)), index secondaire sur idPatient. Les conflits
+ * de créneaux d'un médecin sont détectés par son PlanningMedecin, pas ici.
+ * Les autres threads lisent les consultations dans la VueReceptionniste
+ * publiée par l'agent, jamais dans ce dépôt.
+ */
+public class ConsultationRepository {
+
+    private final Map<Integer, Entree> parId = new LinkedHashMap<>();
+    private final Map<Integer, List<Consultation>> parPatient = new HashMap<>();
+
+    // Clés sous lesquelles la consultation a été indexée (les champs du concept sont mutables)
+    private static class Entree {
+        private final Consultation consultation;
+        private final int idPatient;
+
+        private Entree(Consultation consultation) {
+            this.consultation = consultation;
+            this.idPatient = consultation.getIdPatient();
+        }
+    }
+
+    /**
+     * Enregistre ou ré-indexe une consultation
+     */
+    public void save(Consultation consultation) {
+        Entree ancienne = parId.remove(consultation.getId());
+        if (ancienne != null) {
+            desindexer(ancienne);
+        }
+
+        Entree entree = new Entree(consultation);
+        parId.put(consultation.getId(), entree);
+
+        parPatient.computeIfAbsent(entree.idPatient, k -> new ArrayList<>())
+                .add(consultation);
+    }
+
+    /**
+     * Supprime une consultation de tous les index
+     */
+    public Consultation remove(int id) {
+        Entree entree = parId.remove(id);
+        if (entree == null) {
+            return null;
+        }
+        desindexer(entree);
+        return entree.consultation;
+    }
+
+    public Consultation findById(int id) {
+        Entree entree = parId.get(id);
+        return entree != null ? entree.consultation : null;
+    }
+
+    public List<Consultation> findByPatient(int idPatient) {
+        List<Consultation> resultat = parPatient.get(idPatient);
+        return resultat != null ? Collections.unmodifiableList(resultat) : Collections.emptyList();
+    }
+
+    public List<Consultation> findAll() {
+        List<Consultation> resultat = new ArrayList<>(parId.size());
+        for (Entree entree : parId.values()) {
+            resultat.add(entree.consultation);
+        }
+        return resultat;
+    }
+
+    public int size() {
+        return parId.size();
+    }
+
+    private void desindexer(Entree entree) {
+        List<Consultation> liste = parPatient.get(entree.idPatient);
+        if (liste != null) {
+            liste.remove(entree.consultation);
+            if (liste.isEmpty()) {
+                parPatient.remove(entree.idPatient);
+            }
+        }
+    }
+}
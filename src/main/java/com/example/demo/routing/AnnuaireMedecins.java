@@ -0,0 +1,188 @@
+package com.example.demo.routing;
+
+import jade.core.AID;
+import jade.core.Agent;
+import jade.domain.DFService;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.Property;
+import jade.domain.FIPAAgentManagement.SearchConstraints;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAException;
+import jade.lang.acl.ACLMessage;
+import jade.proto.SubscriptionInitiator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Annuaire des médecins enregistrés dans le DF, indexé par identifiant et par spécialité.
+ *
+ * L'annuaire est tenu à jour par abonnement au DF : la première notification
+ * contient les médecins déjà enregistrés, les suivantes leurs arrivées et
+ * départs, dès qu'ils ont lieu. Aucune recherche synchrone n'est faite pour
+ * adresser un médecin. L'identifiant d'un médecin est le suffixe numérique
+ * de son nom local ("medecin12"), comme pour ses disponibilités.
+ * Les notifications sont reçues par un comportement de l'agent : l'annuaire
+ * n'est modifié que sur son thread.
+ */
+public class AnnuaireMedecins {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnuaireMedecins.class);
+
+    public static final String TYPE_SERVICE = "medecin";
+    public static final String PROPRIETE_SPECIALITE = "specialite";
+
+    private static final String PREFIXE_NOM = "medecin";
+
+    private static final class Inscription {
+        final AID aid;
+        final String specialite;
+
+        Inscription(AID aid, String specialite) {
+            this.aid = aid;
+            this.specialite = specialite;
+        }
+    }
+
+    private final Agent agent;
+    private final Map<Integer, Inscription> parId = new HashMap<>();
+    private final Map<String, TreeSet<Integer>> parSpecialite = new HashMap<>();
+
+    public AnnuaireMedecins(Agent agent) {
+        this.agent = agent;
+    }
+
+    /**
+     * Abonnement au DF, sans limite sur le nombre de médecins de la première notification
+     */
+    public void demarrer() {
+        DFAgentDescription modele = new DFAgentDescription();
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType(TYPE_SERVICE);
+        modele.addServices(sd);
+        SearchConstraints contraintes = new SearchConstraints();
+        contraintes.setMaxResults(-1L);
+
+        ACLMessage abonnement = DFService.createSubscriptionMessage(agent, agent.getDefaultDF(), modele, contraintes);
+        agent.addBehaviour(new SubscriptionInitiator(agent, abonnement) {
+            @Override
+            protected void handleInform(ACLMessage inform) {
+                try {
+                    appliquer(DFService.decodeNotification(inform.getContent()));
+                } catch (FIPAException e) {
+                    logger.warn("Agent {}: notification du DF illisible", agent.getLocalName(), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Applique une notification du DF : enregistrements et désenregistrements (description sans service)
+     */
+    void appliquer(DFAgentDescription[] descriptions) {
+        for (DFAgentDescription dfd : descriptions) {
+            Integer id = identifiant(dfd.getName());
+            if (id == null) {
+                continue;
+            }
+            Iterator<?> services = dfd.getAllServices();
+            if (!services.hasNext()) {
+                retirer(id);
+                continue;
+            }
+            String specialite = null;
+            while (services.hasNext() && specialite == null) {
+                Iterator<?> proprietes = ((ServiceDescription) services.next()).getAllProperties();
+                while (proprietes.hasNext()) {
+                    Property propriete = (Property) proprietes.next();
+                    if (PROPRIETE_SPECIALITE.equals(propriete.getName())) {
+                        specialite = String.valueOf(propriete.getValue());
+                    }
+                }
+            }
+            inscrire(id, dfd.getName(), specialite);
+        }
+    }
+
+    /**
+     * Adresse du médecin ; à défaut d'inscription connue, son nom local conventionnel
+     */
+    public AID medecin(int idMedecin) {
+        Inscription inscription = parId.get(idMedecin);
+        return inscription != null ? inscription.aid : new AID(PREFIXE_NOM + idMedecin, AID.ISLOCALNAME);
+    }
+
+    public boolean connait(int idMedecin) {
+        return parId.containsKey(idMedecin);
+    }
+
+    /**
+     * Spécialité d'un médecin, ou null s'il est inconnu ou n'en a pas déclaré
+     */
+    public String specialite(int idMedecin) {
+        Inscription inscription = parId.get(idMedecin);
+        return inscription != null ? inscription.specialite : null;
+    }
+
+    /**
+     * Identifiants des médecins d'une spécialité, par ordre croissant
+     */
+    public NavigableSet<Integer> medecinsDe(String specialite) {
+        TreeSet<Integer> medecins = parSpecialite.get(specialite);
+        return medecins != null ? Collections.unmodifiableNavigableSet(medecins) : Collections.emptyNavigableSet();
+    }
+
+    /**
+     * Médecin suivant de la même spécialité (ordre circulaire des identifiants), ou le même à défaut
+     */
+    public int suivant(int idMedecin) {
+        TreeSet<Integer> candidats = parSpecialite.get(specialite(idMedecin));
+        if (candidats == null || candidats.size() < 2) {
+            return idMedecin;
+        }
+        Integer suivant = candidats.higher(idMedecin);
+        return suivant != null ? suivant : candidats.first();
+    }
+
+    public int size() {
+        return parId.size();
+    }
+
+    private void inscrire(int id, AID aid, String specialite) {
+        retirer(id);
+        parId.put(id, new Inscription(aid, specialite));
+        if (specialite != null) {
+            parSpecialite.computeIfAbsent(specialite, k -> new TreeSet<>()).add(id);
+        }
+        logger.debug("Agent {}: médecin #{} ({}) inscrit dans l'annuaire", agent.getLocalName(), id, specialite);
+    }
+
+    private void retirer(int id) {
+        Inscription ancienne = parId.remove(id);
+        if (ancienne != null && ancienne.specialite != null) {
+            TreeSet<Integer> medecins = parSpecialite.get(ancienne.specialite);
+            medecins.remove(id);
+            if (medecins.isEmpty()) {
+                parSpecialite.remove(ancienne.specialite);
+            }
+        }
+    }
+
+    private static Integer identifiant(AID aid) {
+        String nom = aid != null ? aid.getLocalName() : null;
+        if (nom == null || !nom.startsWith(PREFIXE_NOM) || nom.length() == PREFIXE_NOM.length()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(nom.substring(PREFIXE_NOM.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.routing;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Anneau de hachage cohérent avec noeuds virtuels.
+ *
+ * L'ajout ou le retrait d'un noeud ne déplace que les clés situées sur ses
+ * segments de l'anneau, soit environ 1/K des clés pour K noeuds.
+ */
+public class ConsistentHashRing<T> {
+
+    public static final int NOEUDS_VIRTUELS = 128;
+
+    private final NavigableMap<Integer, T> anneau = new TreeMap<>();
+    private final Map<String, T> noeuds = new HashMap<>();
+    private final int noeudsVirtuels;
+
+    public ConsistentHashRing() {
+        this(NOEUDS_VIRTUELS);
+    }
+
+    public ConsistentHashRing(int noeudsVirtuels) {
+        this.noeudsVirtuels = noeudsVirtuels;
+    }
+
+    /**
+     * Ajoute (ou remplace) un noeud identifié par une clé stable
+     */
+    public void ajouter(String cle, T noeud) {
+        retirer(cle);
+        noeuds.put(cle, noeud);
+        for (int i = 0; i < noeudsVirtuels; i++) {
+            anneau.put(positionVirtuelle(cle, i), noeud);
+        }
+    }
+
+    public void retirer(String cle) {
+        T noeud = noeuds.remove(cle);
+        if (noeud == null) {
+            return;
+        }
+        for (int i = 0; i < noeudsVirtuels; i++) {
+            anneau.remove(positionVirtuelle(cle, i), noeud);
+        }
+    }
+
+    /**
+     * Noeud propriétaire d'un identifiant, ou null si l'anneau est vide
+     */
+    public T noeudPour(int id) {
+        if (anneau.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Integer, T> entree = anneau.ceilingEntry(melanger(id));
+        return entree != null ? entree.getValue() : anneau.firstEntry().getValue();
+    }
+
+    public int size() {
+        return noeuds.size();
+    }
+
+    public boolean contient(String cle) {
+        return noeuds.containsKey(cle);
+    }
+
+    /**
+     * Noeuds de l'anneau, chacun une fois (vue non modifiable)
+     */
+    public Collection<T> noeuds() {
+        return Collections.unmodifiableCollection(noeuds.values());
+    }
+
+    private static int positionVirtuelle(String cle, int replique) {
+        return melanger((cle + "#" + replique).hashCode());
+    }
+
+    // Finaliseur de MurmurHash3 : répartit uniformément des identifiants séquentiels
+    private static int melanger(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
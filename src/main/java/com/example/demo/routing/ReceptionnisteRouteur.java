@@ -0,0 +1,169 @@
+package com.example.demo.routing;
+
+import jade.core.AID;
+import jade.core.Agent;
+import jade.domain.DFService;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAException;
+import jade.lang.acl.ACLMessage;
+import jade.proto.SubscriptionInitiator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Choix du réceptionniste responsable d'un patient ou d'un médecin.
+ *
+ * Les réceptionnistes enregistrés dans le DF avec le type "receptionniste"
+ * sont placés sur un anneau de hachage cohérent, tenu à jour par abonnement
+ * au DF : l'ajout ou le retrait d'un réceptionniste ne réattribue qu'une
+ * fraction des identifiants. Tant qu'aucun réceptionniste n'est connu (avant
+ * la première réponse du DF, ou pendant un redémarrage), les messages sont
+ * mis en attente puis envoyés dès que l'anneau compte un réceptionniste.
+ *
+ * Un message propre à un identifiant (demande, diagnostic) va au seul
+ * réceptionniste responsable ; un message diffusé (disponibilités d'un
+ * médecin) va à tous, et un écouteur est prévenu de chaque arrivée pour
+ * rattraper ce qu'un nouveau réceptionniste n'a pas reçu.
+ */
+public class ReceptionnisteRouteur {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceptionnisteRouteur.class);
+
+    public static final String TYPE_SERVICE = "receptionniste";
+    // Messages retenus au plus tant qu'aucun réceptionniste n'est connu ; au-delà, ils sont abandonnés
+    static final int ATTENTE_MAX = 10_000;
+
+    private final Agent agent;
+    private final ConsistentHashRing<AID> anneau = new ConsistentHashRing<>();
+    private final ArrayDeque<EnAttente> enAttente = new ArrayDeque<>();
+    private Consumer<AID> ecouteurArrivee;
+
+    // id ignoré pour un message diffusé
+    private record EnAttente(ACLMessage message, int id, boolean diffusion) {
+    }
+
+    public ReceptionnisteRouteur(Agent agent) {
+        this.agent = agent;
+    }
+
+    /**
+     * Écouteur appelé, depuis le thread de l'agent, pour chaque réceptionniste qui rejoint l'anneau
+     * (y compris ceux de la première notification du DF)
+     */
+    public ReceptionnisteRouteur surArrivee(Consumer<AID> ecouteur) {
+        this.ecouteurArrivee = ecouteur;
+        return this;
+    }
+
+    /**
+     * Abonnement au DF ; la première notification contient les réceptionnistes déjà enregistrés
+     */
+    public void demarrer() {
+        DFAgentDescription modele = new DFAgentDescription();
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType(TYPE_SERVICE);
+        modele.addServices(sd);
+
+        ACLMessage abonnement = DFService.createSubscriptionMessage(agent, agent.getDefaultDF(), modele, null);
+        agent.addBehaviour(new SubscriptionInitiator(agent, abonnement) {
+            @Override
+            protected void handleInform(ACLMessage inform) {
+                List<AID> arrivees = new ArrayList<>();
+                try {
+                    for (DFAgentDescription dfd : DFService.decodeNotification(inform.getContent())) {
+                        if (dfd.getAllServices().hasNext()) {
+                            if (!anneau.contient(dfd.getName().getName())) {
+                                arrivees.add(dfd.getName());
+                            }
+                            anneau.ajouter(dfd.getName().getName(), dfd.getName());
+                        } else {
+                            // Description sans service : désenregistrement
+                            anneau.retirer(dfd.getName().getName());
+                        }
+                    }
+                } catch (FIPAException e) {
+                    logger.warn("Agent {}: notification du DF illisible", agent.getLocalName(), e);
+                }
+                vider();
+                if (ecouteurArrivee != null) {
+                    arrivees.forEach(ecouteurArrivee);
+                }
+            }
+        });
+    }
+
+    /**
+     * Réceptionniste responsable d'un identifiant de patient ou de médecin, ou null si aucun n'est connu
+     */
+    public AID receptionnistePour(int id) {
+        return anneau.noeudPour(id);
+    }
+
+    /**
+     * Envoi d'un message au réceptionniste responsable de id ; retenu jusqu'à ce qu'un réceptionniste soit connu.
+     * À appeler depuis le thread de l'agent
+     */
+    public void envoyer(ACLMessage message, int id) {
+        AID receptionniste = anneau.noeudPour(id);
+        if (receptionniste != null) {
+            message.addReceiver(receptionniste);
+            agent.send(message);
+        } else {
+            retenir(new EnAttente(message, id, false));
+        }
+    }
+
+    /**
+     * Envoi d'un message à tous les réceptionnistes connus ; retenu jusqu'à ce qu'un réceptionniste soit connu.
+     * À appeler depuis le thread de l'agent
+     */
+    public void diffuser(ACLMessage message) {
+        if (anneau.size() == 0) {
+            retenir(new EnAttente(message, 0, true));
+            return;
+        }
+        for (AID receptionniste : anneau.noeuds()) {
+            message.addReceiver(receptionniste);
+        }
+        agent.send(message);
+    }
+
+    public boolean receptionnisteConnu() {
+        return anneau.size() > 0;
+    }
+
+    public int enAttente() {
+        return enAttente.size();
+    }
+
+    private void retenir(EnAttente message) {
+        if (enAttente.size() < ATTENTE_MAX) {
+            enAttente.add(message);
+        } else {
+            logger.warn("Agent {}: aucun réceptionniste connu, message {} abandonné ({} en attente)", agent.getLocalName(),
+                    ACLMessage.getPerformative(message.message().getPerformative()), enAttente.size());
+        }
+    }
+
+    // Envoi des messages retenus dès qu'un réceptionniste est connu
+    private void vider() {
+        if (enAttente.isEmpty() || anneau.size() == 0) {
+            return;
+        }
+        logger.debug("Agent {}: {} messages en attente envoyés aux réceptionnistes", agent.getLocalName(), enAttente.size());
+        EnAttente retenu;
+        while ((retenu = enAttente.poll()) != null) {
+            if (retenu.diffusion()) {
+                diffuser(retenu.message());
+            } else {
+                envoyer(retenu.message(), retenu.id());
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.routing;
+
+import com.example.demo.planning.PlanningMedecin;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+
+/**
+ * Choix d'un médecin parmi ceux d'une spécialité, pour une demande qui n'en nomme aucun.
+ *
+ * Le médecin retenu est celui dont le premier créneau libre à partir de la date
+ * demandée est le plus proche ; à créneau égal (ou sans disponibilités connues),
+ * celui qui a le moins de demandes en attente de réponse. Les égalités restantes
+ * sont départagées en tournant à partir du dernier médecin choisi, pour ne pas
+ * charger toujours le plus petit identifiant. Le créneau retenu est rendu avec
+ * le médecin : c'est lui que la consultation demande, la date souhaitée pouvant
+ * être déjà prise.
+ */
+public class SelectionMedecin {
+
+    private final Map<Integer, Integer> demandesEnCours = new HashMap<>();
+    private int dernierChoisi;
+
+    /**
+     * Médecin choisi et son premier créneau libre à partir de la date demandée
+     * (null si ses disponibilités ne sont pas connues)
+     */
+    public record Choix(int idMedecin, Date creneau) {
+    }
+
+    /**
+     * Médecin choisi parmi les candidats, ou null s'il n'y en a aucun
+     */
+    public Choix choisir(NavigableSet<Integer> candidats, Date dateHeure, Map<Integer, PlanningMedecin> plannings) {
+        int choisi = 0;
+        long meilleurCreneau = Long.MAX_VALUE;
+        int meilleureCharge = Integer.MAX_VALUE;
+
+        // Parcours circulaire à partir du successeur du dernier médecin choisi
+        for (NavigableSet<Integer> tranche : List.of(candidats.tailSet(dernierChoisi, false),
+                candidats.headSet(dernierChoisi, true))) {
+            for (int idMedecin : tranche) {
+                long creneau = prochainCreneau(plannings.get(idMedecin), dateHeure);
+                int charge = enCours(idMedecin);
+                if (creneau < meilleurCreneau || (creneau == meilleurCreneau && charge < meilleureCharge)) {
+                    choisi = idMedecin;
+                    meilleurCreneau = creneau;
+                    meilleureCharge = charge;
+                }
+            }
+        }
+        if (choisi == 0) {
+            return null;
+        }
+        dernierChoisi = choisi;
+        return new Choix(choisi, meilleurCreneau != Long.MAX_VALUE ? new Date(meilleurCreneau) : null);
+    }
+
+    /**
+     * Une demande vient d'être transmise au médecin
+     */
+    public void affecter(int idMedecin) {
+        demandesEnCours.merge(idMedecin, 1, Integer::sum);
+    }
+
+    /**
+     * Le médecin a répondu, ou sa demande a expiré
+     */
+    public void liberer(int idMedecin) {
+        demandesEnCours.computeIfPresent(idMedecin, (id, charge) -> charge > 1 ? charge - 1 : null);
+    }
+
+    public int enCours(int idMedecin) {
+        return demandesEnCours.getOrDefault(idMedecin, 0);
+    }
+
+    private static long prochainCreneau(PlanningMedecin planning, Date dateHeure) {
+        if (planning == null || dateHeure == null) {
+            return Long.MAX_VALUE;
+        }
+        Date creneau = planning.prochainCreneauLibre(dateHeure, PlanningMedecin.DUREE_CONSULTATION);
+        return creneau != null ? creneau.getTime() : Long.MAX_VALUE;
+    }
+}
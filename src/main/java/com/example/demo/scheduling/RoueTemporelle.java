@@ -0,0 +1,145 @@
+package com.example.demo.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Roue temporelle hachée : ordonnanceur d'échéances pour un grand nombre de délais.
+ *
+ * Le temps est découpé en ticks de dureeTickMs ; une échéance est chaînée dans
+ * l'emplacement (tick mod nombre d'emplacements) de son tick d'expiration.
+ * Planifier et annuler sont en O(1) ; avancer() ne parcourt que les
+ * emplacements des ticks écoulés. Les échéances plus lointaines qu'un tour de
+ * roue restent dans leur emplacement jusqu'au tour concerné.
+ * La précision est d'un tick : une échéance n'expire jamais avant son délai.
+ */
+public class RoueTemporelle<T> {
+
+    /**
+     * Échéance planifiée, à conserver pour l'annuler
+     */
+    public static final class Echeance<T> {
+        private final T element;
+        private final long tick;
+        private Echeance<T> precedente;
+        private Echeance<T> suivante;
+        private boolean active = true;
+
+        private Echeance(T element, long tick) {
+            this.element = element;
+            this.tick = tick;
+        }
+
+        public T getElement() {
+            return element;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+    }
+
+    private final Echeance<T>[] emplacements;
+    private final int masque;
+    private final long dureeTickMs;
+    private final long origineMs;
+    private long tickCourant;
+    private int taille;
+
+    /**
+     * @param nombreEmplacements arrondi à la puissance de deux supérieure
+     */
+    @SuppressWarnings("unchecked")
+    public RoueTemporelle(int nombreEmplacements, long dureeTickMs, long maintenant) {
+        int n = Integer.highestOneBit(Math.max(1, nombreEmplacements - 1)) << 1;
+        this.emplacements = (Echeance<T>[]) new Echeance[n];
+        this.masque = n - 1;
+        this.dureeTickMs = dureeTickMs;
+        this.origineMs = maintenant;
+    }
+
+    /**
+     * Planifie un élément pour expirer dans delaiMs (au moins un tick)
+     */
+    public Echeance<T> planifier(T element, long delaiMs) {
+        long ticks = Math.max(1, (delaiMs + dureeTickMs - 1) / dureeTickMs);
+        Echeance<T> echeance = new Echeance<>(element, tickCourant + ticks);
+        int index = (int) (echeance.tick & masque);
+
+        echeance.suivante = emplacements[index];
+        if (echeance.suivante != null) {
+            echeance.suivante.precedente = echeance;
+        }
+        emplacements[index] = echeance;
+        taille++;
+        return echeance;
+    }
+
+    /**
+     * Annule une échéance ; retourne false si elle a déjà expiré ou été annulée
+     */
+    public boolean annuler(Echeance<T> echeance) {
+        if (echeance == null || !echeance.active) {
+            return false;
+        }
+        retirer(echeance);
+        return true;
+    }
+
+    /**
+     * Fait avancer la roue jusqu'à maintenant et transmet les éléments échus,
+     * dans l'ordre de leurs ticks. Retourne le nombre d'éléments échus.
+     */
+    public int avancer(long maintenant, Consumer<T> surEcheance) {
+        long tickCible = (maintenant - origineMs) / dureeTickMs;
+        List<T> echus = new ArrayList<>();
+
+        while (tickCourant < tickCible) {
+            if (taille == 0) {
+                tickCourant = tickCible;
+                break;
+            }
+            tickCourant++;
+            Echeance<T> echeance = emplacements[(int) (tickCourant & masque)];
+            while (echeance != null) {
+                Echeance<T> suivante = echeance.suivante;
+                if (echeance.tick <= tickCourant) {
+                    retirer(echeance);
+                    echus.add(echeance.element);
+                }
+                echeance = suivante;
+            }
+        }
+
+        // Les rappels peuvent planifier de nouvelles échéances : ils sont appelés hors du parcours
+        for (T element : echus) {
+            surEcheance.accept(element);
+        }
+        return echus.size();
+    }
+
+    public int size() {
+        return taille;
+    }
+
+    public long getDureeTickMs() {
+        return dureeTickMs;
+    }
+
+    private void retirer(Echeance<T> echeance) {
+        int index = (int) (echeance.tick & masque);
+        if (echeance.precedente != null) {
+            echeance.precedente.suivante = echeance.suivante;
+        } else {
+            emplacements[index] = echeance.suivante;
+        }
+        if (echeance.suivante != null) {
+            echeance.suivante.precedente = echeance.precedente;
+        }
+        echeance.precedente = null;
+        echeance.suivante = null;
+        echeance.active = false;
+        taille--;
+    }
+}
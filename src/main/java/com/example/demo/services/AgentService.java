@@ -1,6 +1,11 @@
 package com.example.demo.services;
 
 
+import com.example.demo.agent.base.AbstractAgent;
+import com.example.demo.services.RegistreAgents.EtatAgent;
+import com.example.demo.services.RegistreAgents.PageAgents;
+import io.micrometer.core.instrument.MeterRegistry;
+import jade.core.Agent;
 import jade.core.Profile;
 import jade.core.ProfileImpl;
 import jade.wrapper.AgentContainer;
@@ -8,16 +13,32 @@ import jade.wrapper.AgentController;
 import jade.wrapper.ControllerException;
 import jade.wrapper.StaleProxyException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class AgentService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AgentService.class);
+
    /* @Autowired
     @Qualifier("mainContainer")
     private AgentContainer mainContainer;*/
@@ -25,11 +46,55 @@ public class AgentService {
 
     private Map<String, AgentContainer> agentContainers;
 
-    private final Map<String, AgentController> runningAgents = new HashMap<>();
+    // Agents démarrés, écrit depuis plusieurs threads (opérations groupées, API, générateurs de charge)
+    private final RegistreAgents registre;
+
+    // Opérations groupées : au plus jade.startup.threads en parallèle, threads rendus après 30 s d'inactivité
+    private final ThreadPoolExecutor operations;
 
+    /**
+     * Agent à démarrer par startAgents
+     */
+    public record DemandeDemarrage(String containerName, String agentName, String agentClass, Object[] args) {
+    }
 
-    public AgentService(Map<String, AgentContainer> agentContainers) {
+    /**
+     * Bilan d'un démarrage groupé : agents démarrés, en échec, prêts (setup() terminé) et durées
+     */
+    public record BilanDemarrage(int demandes, int demarres, int echecs, int prets, long dureeDemarrageMs,
+                                 long dureePretMs) {
+    }
+
+    /**
+     * Bilan d'une opération groupée : agents traités, ignorés (inconnus ou déjà dans l'état visé) et en échec
+     */
+    public record BilanOperation(int demandes, int traites, int ignores, int echecs, long dureeMs) {
+    }
+
+    @FunctionalInterface
+    private interface OperationAgent {
+        boolean appliquer(String agentName) throws StaleProxyException;
+    }
+
+
+    public AgentService(Map<String, AgentContainer> agentContainers,
+                        @Value("${jade.startup.threads:8}") int parallelisme, MeterRegistry meterRegistry) {
         this.agentContainers = agentContainers;
+        this.registre = new RegistreAgents(meterRegistry);
+        AtomicInteger numero = new AtomicInteger();
+        int threads = Math.max(1, parallelisme);
+        this.operations = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "operations-agents-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.operations.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        operations.shutdownNow();
+        registre.fermer();
     }
 
 
@@ -47,51 +112,237 @@ public class AgentService {
      */
     public void startAgentInContainer(String containerName, String agentName, String agentClass, Object[] args)
             throws StaleProxyException {
+        demarrer(containerName, agentName, agentClass, args);
+    }
+
+    /**
+     * Démarre un lot d'agents en parallèle, puis attend que chacun ait terminé
+     * son setup() (au plus delaiPretMs) : au retour, les agents prêts reçoivent
+     * messages et objets O2A sans risque de perte.
+     * Un agent en échec est journalisé et compté, sans interrompre les autres.
+     */
+    public BilanDemarrage startAgents(List<DemandeDemarrage> demandes, long delaiPretMs) {
+        long debut = System.nanoTime();
+
+        // Première barrière : tous les agents créés et lancés
+        List<Future<Agent>> lancements = new ArrayList<>(demandes.size());
+        List<CompletableFuture<Void>> prets = new ArrayList<>(demandes.size());
+        int echecs = 0;
+        try {
+            for (DemandeDemarrage demande : demandes) {
+                lancements.add(operations.submit(() -> demarrer(demande.containerName(), demande.agentName(),
+                        demande.agentClass(), demande.args())));
+            }
+            for (int i = 0; i < lancements.size(); i++) {
+                try {
+                    Agent agent = lancements.get(i).get();
+                    if (agent instanceof AbstractAgent) {
+                        prets.add(((AbstractAgent) agent).pret());
+                    }
+                } catch (ExecutionException e) {
+                    echecs++;
+                    logger.error("Démarrage de l'agent {} impossible", demandes.get(i).agentName(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lancements.forEach(lancement -> lancement.cancel(true));
+            throw new IllegalStateException("Démarrage des agents interrompu", e);
+        }
+        long demarres = System.nanoTime();
+
+        // Seconde barrière : setup() terminé
+        try {
+            CompletableFuture.allOf(prets.toArray(new CompletableFuture[0])).get(delaiPretMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            logger.warn("Agents non prêts après {} ms", delaiPretMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int nombrePrets = 0;
+        for (CompletableFuture<Void> pret : prets) {
+            if (pret.isDone() && !pret.isCompletedExceptionally()) {
+                nombrePrets++;
+            }
+        }
+
+        return new BilanDemarrage(demandes.size(), demandes.size() - echecs, echecs, nombrePrets,
+                TimeUnit.NANOSECONDS.toMillis(demarres - debut), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut));
+    }
+
+    // Création à partir d'une instance : l'agent reste accessible pour attendre la fin de son setup()
+    private Agent demarrer(String containerName, String agentName, String agentClass, Object[] args)
+            throws StaleProxyException {
         AgentContainer container = agentContainers.get(containerName);
         if (container == null) {
             throw new IllegalArgumentException("Container not found: " + containerName);
         }
 
-        AgentController controller = container.createNewAgent(agentName, agentClass, args);
-        controller.start();
-        runningAgents.put(agentName, controller);
+        Agent agent;
+        try {
+            agent = (Agent) Class.forName(agentClass).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new StaleProxyException(e);
+        }
+        agent.setArguments(args);
+        // Un agent qui s'arrête de lui-même quitte le registre
+        if (agent instanceof AbstractAgent) {
+            ((AbstractAgent) agent).surFin(this::surFinAgent);
+        }
+
+        // Enregistré avant le démarrage : un agent qui se termine dès son setup() en est retiré
+        AgentController controller = container.acceptNewAgent(agentName, agent);
+        registre.ajouter(agentName, containerName, agentClass, controller, agent);
+        try {
+            controller.start();
+        } catch (StaleProxyException e) {
+            registre.retirerTermine(agent);
+            throw e;
+        }
+        return agent;
+    }
+
+    private void surFinAgent(AbstractAgent agent) {
+        if (registre.retirerTermine(agent)) {
+            logger.debug("Agent {} terminé, retiré du registre", agent.getLocalName());
+        }
     }
 
     /**
      * Arrête un agent
      */
     public void stopAgent(String agentName) throws StaleProxyException {
-        AgentController controller = runningAgents.get(agentName);
-        if (controller != null) {
-            controller.kill();
-            runningAgents.remove(agentName);
-        }
+        arreterAgent(agentName);
     }
 
     /**
      * Suspendre un agent
      */
     public void suspendAgent(String agentName) throws StaleProxyException {
-        AgentController controller = runningAgents.get(agentName);
-        if (controller != null) {
-            controller.suspend();
-        }
+        suspendreAgent(agentName);
     }
 
     /**
      * Réactiver un agent suspendu
      */
     public void resumeAgent(String agentName) throws StaleProxyException {
-        AgentController controller = runningAgents.get(agentName);
-        if (controller != null) {
-            controller.activate();
+        reactiverAgent(agentName);
+    }
+
+    /**
+     * Arrête des agents en parallèle
+     */
+    public BilanOperation stopAgents(Collection<String> agentNames) {
+        return appliquer(agentNames, this::arreterAgent, "arrêt");
+    }
+
+    /**
+     * Suspend des agents en parallèle
+     */
+    public BilanOperation suspendAgents(Collection<String> agentNames) {
+        return appliquer(agentNames, this::suspendreAgent, "suspension");
+    }
+
+    /**
+     * Réactive des agents suspendus en parallèle
+     */
+    public BilanOperation resumeAgents(Collection<String> agentNames) {
+        return appliquer(agentNames, this::reactiverAgent, "réactivation");
+    }
+
+    // Retiré du registre avant l'arrêt : un proxy périmé désigne un agent déjà terminé
+    private boolean arreterAgent(String agentName) throws StaleProxyException {
+        RegistreAgents.Entree entree = registre.retirer(agentName);
+        if (entree == null) {
+            return false;
+        }
+        entree.controller.kill();
+        return true;
+    }
+
+    private boolean suspendreAgent(String agentName) throws StaleProxyException {
+        return transition(agentName, EtatAgent.ACTIF, EtatAgent.SUSPENDU);
+    }
+
+    private boolean reactiverAgent(String agentName) throws StaleProxyException {
+        return transition(agentName, EtatAgent.SUSPENDU, EtatAgent.ACTIF);
+    }
+
+    // État changé dans le registre avant l'appel à JADE, rétabli si l'appel échoue
+    private boolean transition(String agentName, EtatAgent de, EtatAgent vers) throws StaleProxyException {
+        RegistreAgents.Entree entree = registre.entree(agentName);
+        if (entree == null || !registre.changerEtat(entree, de, vers)) {
+            return false;
+        }
+        try {
+            if (vers == EtatAgent.SUSPENDU) {
+                entree.controller.suspend();
+            } else {
+                entree.controller.activate();
+            }
+        } catch (StaleProxyException e) {
+            registre.changerEtat(entree, vers, de);
+            throw e;
+        }
+        return true;
+    }
+
+    private BilanOperation appliquer(Collection<String> agentNames, OperationAgent operation, String libelle) {
+        long debut = System.nanoTime();
+        List<Future<Boolean>> resultats = new ArrayList<>(agentNames.size());
+        for (String agentName : agentNames) {
+            resultats.add(operations.submit(() -> operation.appliquer(agentName)));
+        }
+
+        int traites = 0;
+        int ignores = 0;
+        int echecs = 0;
+        for (Future<Boolean> resultat : resultats) {
+            try {
+                if (resultat.get()) {
+                    traites++;
+                } else {
+                    ignores++;
+                }
+            } catch (ExecutionException e) {
+                echecs++;
+                logger.warn("Échec de l'opération ({}) sur un agent: {}", libelle, e.getCause().toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                resultats.forEach(r -> r.cancel(true));
+                throw new IllegalStateException("Opération groupée interrompue (" + libelle + ")", e);
+            }
         }
+        return new BilanOperation(agentNames.size(), traites, ignores, echecs,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut));
+    }
+
+    /**
+     * Obtenir le contrôleur d'un agent démarré par ce service
+     */
+    public AgentController getAgent(String agentName) {
+        RegistreAgents.Entree entree = registre.entree(agentName);
+        return entree != null ? entree.controller : null;
+    }
+
+    /**
+     * Obtenir la liste des noms de conteneurs configurés
+     */
+    public List<String> getContainerNames() {
+        return new ArrayList<>(agentContainers.keySet());
+    }
+
+    /**
+     * Page des agents démarrés, triés par nom, à partir du curseur apres (null : première page)
+     */
+    public PageAgents listAgents(String apres, int taille) {
+        return registre.page(apres, taille);
     }
 
     /**
-     * Obtenir la liste des noms d'agents en cours d'exécution
+     * Nombre d'agents démarrés dans l'état donné
      */
-    public String[] getRunningAgents() {
-        return runningAgents.keySet().toArray(new String[0]);
+    public long countAgents(EtatAgent etat) {
+        return registre.nombre(etat);
     }
 }
@@ -0,0 +1,96 @@
+package com.example.demo.services;
+
+import com.example.demo.agent.PasserelleWeb;
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.ontology.concepts.Disponibilite;
+import com.example.demo.ontology.concepts.Patient;
+import com.example.demo.vues.VueReceptionniste;
+import com.example.demo.vues.VuesReceptionnistes;
+import jade.wrapper.AgentController;
+import jade.wrapper.StaleProxyException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Accès aux agents du cabinet pour l'API REST, sans bloquer le thread appelant.
+ *
+ * Les demandes passent par l'agent passerelle : l'objet est déposé dans sa
+ * file O2A et le résultat arrive par un CompletableFuture. Les lectures se
+ * font directement sur la dernière vue publiée par chaque partition du
+ * réceptionniste, sans message ni verrou.
+ */
+@Service
+public class CabinetService {
+
+    private final AgentService agentService;
+    private final VuesReceptionnistes vues;
+
+    public CabinetService(AgentService agentService, VuesReceptionnistes vues) {
+        this.agentService = agentService;
+        this.vues = vues;
+    }
+
+    /**
+     * Demande de consultation ; le futur reçoit la consultation dans son état final
+     * (planifiée, refusée ou annulée)
+     */
+    public CompletableFuture<Consultation> demanderConsultation(int idPatient, int idMedecin, String specialite,
+                                                                Date dateHeure) {
+        PasserelleWeb.DemandeConsultation demande =
+                new PasserelleWeb.DemandeConsultation(idPatient, idMedecin, specialite, dateHeure);
+        return deposer(PasserelleWeb.NOM, demande, demande.getResultat());
+    }
+
+    public CompletableFuture<Patient> enregistrerPatient(Patient patient) {
+        PasserelleWeb.EnregistrementPatient enregistrement = new PasserelleWeb.EnregistrementPatient(patient);
+        return deposer(PasserelleWeb.NOM, enregistrement, enregistrement.getResultat());
+    }
+
+    public List<Consultation> consultationsPatient(int idPatient) {
+        return lireToutesPartitions(vue -> vue.consultationsPatient(idPatient));
+    }
+
+    /**
+     * Disponibilités du médecin, triées par début. Elles sont diffusées à chaque partition : l'union
+     * des partitions, dédoublonnée par début comme dans leurs plannings, couvre aussi une partition
+     * qui n'a pas encore tout reçu.
+     */
+    public List<Disponibilite> disponibilitesMedecin(int idMedecin) {
+        Map<Date, Disponibilite> parDebut = new TreeMap<>();
+        for (VueReceptionniste vue : vues.toutes()) {
+            for (Disponibilite disponibilite : vue.disponibilitesMedecin(idMedecin)) {
+                parDebut.putIfAbsent(disponibilite.getDateHeure(), disponibilite);
+            }
+        }
+        return new ArrayList<>(parDebut.values());
+    }
+
+    // Lecture sur chaque partition (l'état d'un patient n'est que dans l'une d'elles), puis fusion
+    private <T> List<T> lireToutesPartitions(Function<VueReceptionniste, List<T>> lecture) {
+        List<T> fusion = new ArrayList<>();
+        for (VueReceptionniste vue : vues.toutes()) {
+            fusion.addAll(lecture.apply(vue));
+        }
+        return fusion;
+    }
+
+    private <T> CompletableFuture<T> deposer(String nomAgent, Object objet, CompletableFuture<T> resultat) {
+        AgentController agent = agentService.getAgent(nomAgent);
+        if (agent == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Agent non démarré: " + nomAgent));
+        }
+        try {
+            agent.putO2AObject(objet, AgentController.ASYNC);
+        } catch (StaleProxyException e) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Agent arrêté: " + nomAgent, e));
+        }
+        return resultat;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demo.services;
+
+import com.example.demo.agent.Patient;
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.services.AgentService.BilanDemarrage;
+import com.example.demo.services.AgentService.DemandeDemarrage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jade.wrapper.AgentController;
+import jade.wrapper.StaleProxyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Pool d'agents Patient démarrés à l'avance, loués pour un patient puis rendus.
+ *
+ * La location prend un agent libre et lui dépose sa nouvelle identité
+ * (Patient.Identite) dans sa file O2A, devant les demandes qui suivront :
+ * ni création d'agent, ni enregistrement auprès de l'AMS, ni abonnement au
+ * DF. Un agent n'est créé que si le pool est vide, dans la limite de
+ * patient.pool.max agents ; au-delà, la location échoue. Un agent libre
+ * terminé entre-temps est écarté à la location suivante.
+ */
+@Service
+public class PoolPatients {
+
+    private static final Logger logger = LoggerFactory.getLogger(PoolPatients.class);
+
+    private static final String PREFIXE = "patient-pool-";
+
+    private final AgentService agentService;
+    private final String conteneur;
+    private final int tailleInitiale;
+    private final int tailleMax;
+    private final long delaiPretMs;
+
+    private final ArrayBlockingQueue<Emplacement> libres;
+    // Agents créés ou en cours de création, pour borner le pool
+    private final AtomicInteger crees = new AtomicInteger();
+    private final AtomicInteger numero = new AtomicInteger();
+    private final Counter creations;
+
+    private record Emplacement(String nom, AgentController controller) {
+    }
+
+    /**
+     * Agent loué : les demandes partent sous l'identité du patient jusqu'à ce qu'il soit rendu
+     */
+    public final class PatientLoue implements AutoCloseable {
+        private final Emplacement emplacement;
+        private final int idPatient;
+        private final AtomicBoolean rendu = new AtomicBoolean();
+
+        private PatientLoue(Emplacement emplacement, int idPatient) {
+            this.emplacement = emplacement;
+            this.idPatient = idPatient;
+        }
+
+        public String nomAgent() {
+            return emplacement.nom();
+        }
+
+        public int idPatient() {
+            return idPatient;
+        }
+
+        public void demanderConsultation(int idMedecin, Date dateHeure) throws StaleProxyException {
+            deposer(new Patient.DemandeO2A(idMedecin, dateHeure));
+        }
+
+        public void demanderConsultation(String specialite, Date dateHeure) throws StaleProxyException {
+            deposer(new Patient.DemandeO2A(specialite, dateHeure));
+        }
+
+        private void deposer(Patient.DemandeO2A demande) throws StaleProxyException {
+            if (rendu.get()) {
+                throw new IllegalStateException("Agent déjà rendu au pool: " + emplacement.nom());
+            }
+            emplacement.controller().putO2AObject(demande, AgentController.ASYNC);
+        }
+
+        /**
+         * Rend l'agent au pool ; les notifications encore attendues pour ce patient seront ignorées
+         * dès qu'il sera loué à un autre
+         */
+        public void rendre() {
+            if (rendu.compareAndSet(false, true)) {
+                libres.offer(emplacement);
+            }
+        }
+
+        @Override
+        public void close() {
+            rendre();
+        }
+    }
+
+    public PoolPatients(AgentService agentService,
+                        @Value("${patient.pool.container:Container-Patient}") String conteneur,
+                        @Value("${patient.pool.size:0}") int tailleInitiale,
+                        @Value("${patient.pool.max:1000}") int tailleMax,
+                        @Value("${jade.startup.ready-timeout-ms:30000}") long delaiPretMs) {
+        this.agentService = agentService;
+        this.conteneur = conteneur;
+        this.tailleMax = Math.max(1, tailleMax);
+        this.tailleInitiale = Math.min(tailleInitiale, this.tailleMax);
+        this.delaiPretMs = delaiPretMs;
+        this.libres = new ArrayBlockingQueue<>(this.tailleMax);
+        Gauge.builder("patient.pool.available", libres, ArrayBlockingQueue::size)
+                .description("Agents patients libres dans le pool")
+                .register(Metrics.globalRegistry);
+        this.creations = Counter.builder("patient.pool.creations")
+                .description("Agents patients créés par le pool")
+                .register(Metrics.globalRegistry);
+    }
+
+    // Démarrage groupé des agents du pool ; ils s'abonnent au DF et trouvent les réceptionnistes dès qu'ils sont là
+    @EventListener(ApplicationReadyEvent.class)
+    public void prechauffer() {
+        if (tailleInitiale <= 0) {
+            return;
+        }
+        crees.addAndGet(tailleInitiale);
+        List<DemandeDemarrage> demandes = new ArrayList<>(tailleInitiale);
+        for (int i = 0; i < tailleInitiale; i++) {
+            demandes.add(demande());
+        }
+        BilanDemarrage bilan = agentService.startAgents(demandes, delaiPretMs);
+        ajouterDemarres(demandes);
+        crees.addAndGet(-bilan.echecs());
+        creations.increment(bilan.demarres());
+        logger.info("Pool de patients: {}/{} agents démarrés en {} ms, prêts en {} ms", bilan.demarres(),
+                bilan.demandes(), bilan.dureeDemarrageMs(), bilan.dureePretMs());
+    }
+
+    /**
+     * Loue un agent et le lie au patient ; ecouteurConfirmation (facultatif) est appelé
+     * depuis le thread de l'agent à chaque consultation confirmée
+     */
+    public PatientLoue louer(String nom, String prenom, int idPatient, Consumer<Consultation> ecouteurConfirmation)
+            throws StaleProxyException {
+        Emplacement emplacement;
+        while ((emplacement = libres.poll()) != null && !enVie(emplacement)) {
+            // Agent terminé hors du pool (arrêt, doDelete, exception) : sa place est libérée
+            crees.decrementAndGet();
+            logger.warn("Pool de patients: agent {} terminé, écarté", emplacement.nom());
+        }
+        if (emplacement == null) {
+            emplacement = creer();
+        }
+        try {
+            emplacement.controller().putO2AObject(
+                    new Patient.Identite(nom, prenom, idPatient, ecouteurConfirmation), AgentController.ASYNC);
+        } catch (StaleProxyException e) {
+            // Agent arrêté hors du pool : il n'y revient pas
+            crees.decrementAndGet();
+            throw e;
+        }
+        return new PatientLoue(emplacement, idPatient);
+    }
+
+    public int disponibles() {
+        return libres.size();
+    }
+
+    public int taille() {
+        return crees.get();
+    }
+
+    // Un agent terminé quitte le registre de l'AgentService ; un homonyme redémarré n'est plus le même controller
+    private boolean enVie(Emplacement emplacement) {
+        return agentService.getAgent(emplacement.nom()) == emplacement.controller();
+    }
+
+    // Pool vide : création d'un agent, seul cas où la location coûte un démarrage
+    private Emplacement creer() throws StaleProxyException {
+        int total;
+        do {
+            total = crees.get();
+            if (total >= tailleMax) {
+                throw new IllegalStateException("Pool de patients épuisé: " + tailleMax + " agents loués");
+            }
+        } while (!crees.compareAndSet(total, total + 1));
+
+        DemandeDemarrage demande = demande();
+        BilanDemarrage bilan = agentService.startAgents(List.of(demande), delaiPretMs);
+        if (bilan.prets() == 0) {
+            crees.decrementAndGet();
+            throw new StaleProxyException("Agent du pool non démarré: " + demande.agentName());
+        }
+        creations.increment();
+        return new Emplacement(demande.agentName(), agentService.getAgent(demande.agentName()));
+    }
+
+    private DemandeDemarrage demande() {
+        return new DemandeDemarrage(conteneur, PREFIXE + numero.incrementAndGet(), Patient.class.getName(),
+                new Object[]{"Pool"});
+    }
+
+    private void ajouterDemarres(List<DemandeDemarrage> demandes) {
+        for (DemandeDemarrage demande : demandes) {
+            AgentController controller = agentService.getAgent(demande.agentName());
+            if (controller != null) {
+                libres.offer(new Emplacement(demande.agentName(), controller));
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jade.core.Agent;
+import jade.wrapper.AgentController;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Registre concurrent des agents démarrés par AgentService : conteneur,
+ * classe, état et date de démarrage de chacun.
+ *
+ * Les entrées sont triées par nom : la liste se parcourt par pages à partir
+ * d'un curseur, en O(log n) plus la taille de la page, sans copier les
+ * autres. Chaque transition d'état est un compareAndSet sur l'entrée ; seul
+ * le thread qui la remporte met à jour les compteurs par état, publiés
+ * comme jauges (agent.registry.size), qui restent donc exacts même quand
+ * arrêts et suspensions d'un même agent se croisent. Un agent qui se termine
+ * de lui-même (doDelete, exception) est retiré à sa fin, s'il est toujours
+ * l'agent enregistré sous ce nom.
+ */
+public class RegistreAgents {
+
+    public enum EtatAgent {
+        ACTIF, SUSPENDU
+    }
+
+    /**
+     * État d'un agent à la lecture
+     */
+    public record FicheAgent(String nom, String conteneur, String classe, EtatAgent etat, Instant demarrage) {
+    }
+
+    /**
+     * Page de fiches triées par nom ; suivant est le curseur de la page suivante, null en fin de liste
+     */
+    public record PageAgents(List<FicheAgent> agents, String suivant) {
+    }
+
+    static final class Entree {
+        final String nom;
+        final String conteneur;
+        final String classe;
+        final AgentController controller;
+        // Instance démarrée : distingue l'agent terminé d'un agent redémarré sous le même nom
+        final Agent agent;
+        final Instant demarrage;
+        // null une fois retirée du registre
+        final AtomicReference<EtatAgent> etat = new AtomicReference<>(EtatAgent.ACTIF);
+
+        Entree(String nom, String conteneur, String classe, AgentController controller, Agent agent) {
+            this.nom = nom;
+            this.conteneur = conteneur;
+            this.classe = classe;
+            this.controller = controller;
+            this.agent = agent;
+            this.demarrage = Instant.now();
+        }
+    }
+
+    private final ConcurrentSkipListMap<String, Entree> agents = new ConcurrentSkipListMap<>();
+    private final Map<EtatAgent, AtomicLong> parEtat = new EnumMap<>(EtatAgent.class);
+    private final MeterRegistry registry;
+    private final List<Gauge> jauges = new ArrayList<>();
+
+    public RegistreAgents(MeterRegistry registry) {
+        this.registry = registry;
+        for (EtatAgent etat : EtatAgent.values()) {
+            AtomicLong compteur = new AtomicLong();
+            parEtat.put(etat, compteur);
+            jauges.add(Gauge.builder("agent.registry.size", compteur, AtomicLong::get)
+                    .description("Agents enregistrés par état")
+                    .tags("state", etat.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Retire les jauges du registre de métriques : un registre suivant peut publier les siennes
+     */
+    public void fermer() {
+        jauges.forEach(registry::remove);
+    }
+
+    void ajouter(String nom, String conteneur, String classe, AgentController controller, Agent agent) {
+        parEtat.get(EtatAgent.ACTIF).incrementAndGet();
+        Entree ancienne = agents.put(nom, new Entree(nom, conteneur, classe, controller, agent));
+        if (ancienne != null) {
+            sortir(ancienne);
+        }
+    }
+
+    Entree entree(String nom) {
+        return agents.get(nom);
+    }
+
+    /**
+     * Retire l'agent ; null s'il n'était pas enregistré
+     */
+    Entree retirer(String nom) {
+        Entree entree = agents.remove(nom);
+        if (entree != null) {
+            sortir(entree);
+        }
+        return entree;
+    }
+
+    /**
+     * Retire l'agent terminé s'il est encore enregistré sous son nom ; false s'il a déjà été retiré ou remplacé
+     */
+    boolean retirerTermine(Agent agent) {
+        Entree entree = agents.get(agent.getLocalName());
+        if (entree == null || entree.agent != agent || !agents.remove(entree.nom, entree)) {
+            return false;
+        }
+        sortir(entree);
+        return true;
+    }
+
+    /**
+     * Transition de à vers ; false si l'agent n'est pas dans l'état de, ou plus enregistré
+     */
+    boolean changerEtat(Entree entree, EtatAgent de, EtatAgent vers) {
+        if (!entree.etat.compareAndSet(de, vers)) {
+            return false;
+        }
+        parEtat.get(de).decrementAndGet();
+        parEtat.get(vers).incrementAndGet();
+        return true;
+    }
+
+    private void sortir(Entree entree) {
+        EtatAgent etat = entree.etat.getAndSet(null);
+        if (etat != null) {
+            parEtat.get(etat).decrementAndGet();
+        }
+    }
+
+    public int size() {
+        return agents.size();
+    }
+
+    public long nombre(EtatAgent etat) {
+        return parEtat.get(etat).get();
+    }
+
+    /**
+     * Au plus taille fiches dont le nom suit apres (null : depuis le début)
+     */
+    public PageAgents page(String apres, int taille) {
+        if (taille <= 0) {
+            throw new IllegalArgumentException("Taille de page invalide: " + taille);
+        }
+        Iterator<Entree> entrees = (apres == null ? agents : agents.tailMap(apres, false)).values().iterator();
+        List<FicheAgent> fiches = new ArrayList<>(Math.min(taille, 1024));
+        String dernier = apres;
+        while (fiches.size() < taille && entrees.hasNext()) {
+            Entree entree = entrees.next();
+            dernier = entree.nom;
+            EtatAgent etat = entree.etat.get();
+            if (etat != null) {
+                fiches.add(new FicheAgent(entree.nom, entree.conteneur, entree.classe, etat, entree.demarrage));
+            }
+        }
+        return new PageAgents(fiches, entrees.hasNext() ? dernier : null);
+    }
+}
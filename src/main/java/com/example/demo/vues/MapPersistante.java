@@ -0,0 +1,282 @@
+package com.example.demo.vues;
+
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Table associative immuable à partage de structure (trie de hachage à 32 branches).
+ *
+ * avec() ne modifie pas la table : elle retourne une nouvelle version qui ne
+ * recopie que le chemin de la racine à la clé modifiée, soit O(log32 n)
+ * nœuds, et partage tout le reste avec l'ancienne. Chaque version peut donc
+ * être publiée telle quelle à d'autres threads et lue sans verrou pendant
+ * que le propriétaire en produit les suivantes.
+ */
+public final class MapPersistante<K, V> {
+
+    private static final MapPersistante<?, ?> VIDE = new MapPersistante<>(null, 0);
+    private static final int BITS = 5;
+    private static final int MASQUE = (1 << BITS) - 1;
+
+    // Feuille : une association
+    private static final class Entree {
+        final int hash;
+        final Object cle;
+        final Object valeur;
+
+        Entree(int hash, Object cle, Object valeur) {
+            this.hash = hash;
+            this.cle = cle;
+            this.valeur = valeur;
+        }
+    }
+
+    // Nœud interne : une branche par bit présent, Entree ou sous-nœud, rangées par rang du bit
+    private static final class Noeud {
+        final int bitmap;
+        final Object[] branches;
+
+        Noeud(int bitmap, Object[] branches) {
+            this.bitmap = bitmap;
+            this.branches = branches;
+        }
+    }
+
+    // Clés distinctes de même hachage
+    private static final class Collisions {
+        final int hash;
+        final Entree[] entrees;
+
+        Collisions(int hash, Entree[] entrees) {
+            this.hash = hash;
+            this.entrees = entrees;
+        }
+    }
+
+    private final Object racine;
+    private final int taille;
+
+    private MapPersistante(Object racine, int taille) {
+        this.racine = racine;
+        this.taille = taille;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> MapPersistante<K, V> vide() {
+        return (MapPersistante<K, V>) VIDE;
+    }
+
+    public int size() {
+        return taille;
+    }
+
+    public boolean isEmpty() {
+        return taille == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K cle) {
+        int hash = hacher(cle);
+        Object noeud = racine;
+        for (int decalage = 0; noeud != null; decalage += BITS) {
+            if (noeud instanceof Entree) {
+                Entree entree = (Entree) noeud;
+                return entree.hash == hash && entree.cle.equals(cle) ? (V) entree.valeur : null;
+            }
+            if (noeud instanceof Collisions) {
+                for (Entree entree : ((Collisions) noeud).entrees) {
+                    if (entree.cle.equals(cle)) {
+                        return (V) entree.valeur;
+                    }
+                }
+                return null;
+            }
+            Noeud interne = (Noeud) noeud;
+            int bit = 1 << ((hash >>> decalage) & MASQUE);
+            if ((interne.bitmap & bit) == 0) {
+                return null;
+            }
+            noeud = interne.branches[Integer.bitCount(interne.bitmap & (bit - 1))];
+        }
+        return null;
+    }
+
+    public V getOrDefault(K cle, V defaut) {
+        V valeur = get(cle);
+        return valeur != null ? valeur : defaut;
+    }
+
+    /**
+     * Nouvelle version associant valeur à cle ; this est inchangée
+     */
+    public MapPersistante<K, V> avec(K cle, V valeur) {
+        Objects.requireNonNull(cle);
+        Objects.requireNonNull(valeur);
+        Entree nouvelle = new Entree(hacher(cle), cle, valeur);
+        boolean[] ajout = new boolean[1];
+        Object nouvelleRacine = racine == null ? nouvelle : inserer(racine, 0, nouvelle, ajout);
+        if (nouvelleRacine == racine) {
+            return this;
+        }
+        return new MapPersistante<>(nouvelleRacine, racine == null || ajout[0] ? taille + 1 : taille);
+    }
+
+    /**
+     * Vue des valeurs de cette version, sans copie ; l'ordre de parcours n'est pas spécifié
+     */
+    public Collection<V> valeurs() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new Parcours<>(racine);
+            }
+
+            @Override
+            public int size() {
+                return taille;
+            }
+        };
+    }
+
+    private static Object inserer(Object noeud, int decalage, Entree nouvelle, boolean[] ajout) {
+        if (noeud instanceof Entree) {
+            Entree entree = (Entree) noeud;
+            if (entree.hash == nouvelle.hash && entree.cle.equals(nouvelle.cle)) {
+                return entree.valeur == nouvelle.valeur ? entree : nouvelle;
+            }
+            ajout[0] = true;
+            return fusionner(entree, nouvelle, decalage);
+        }
+
+        if (noeud instanceof Collisions) {
+            Collisions collisions = (Collisions) noeud;
+            if (collisions.hash != nouvelle.hash) {
+                // Hachage différent : les deux sont séparés sous un nœud interne
+                ajout[0] = true;
+                return separer(collisions, collisions.hash, nouvelle, nouvelle.hash, decalage);
+            }
+            Entree[] entrees = collisions.entrees;
+            for (int i = 0; i < entrees.length; i++) {
+                if (entrees[i].cle.equals(nouvelle.cle)) {
+                    if (entrees[i].valeur == nouvelle.valeur) {
+                        return collisions;
+                    }
+                    Entree[] copie = entrees.clone();
+                    copie[i] = nouvelle;
+                    return new Collisions(collisions.hash, copie);
+                }
+            }
+            ajout[0] = true;
+            Entree[] copie = Arrays.copyOf(entrees, entrees.length + 1);
+            copie[entrees.length] = nouvelle;
+            return new Collisions(collisions.hash, copie);
+        }
+
+        Noeud interne = (Noeud) noeud;
+        int bit = 1 << ((nouvelle.hash >>> decalage) & MASQUE);
+        int rang = Integer.bitCount(interne.bitmap & (bit - 1));
+        if ((interne.bitmap & bit) == 0) {
+            ajout[0] = true;
+            Object[] branches = new Object[interne.branches.length + 1];
+            System.arraycopy(interne.branches, 0, branches, 0, rang);
+            branches[rang] = nouvelle;
+            System.arraycopy(interne.branches, rang, branches, rang + 1, interne.branches.length - rang);
+            return new Noeud(interne.bitmap | bit, branches);
+        }
+        Object branche = interne.branches[rang];
+        Object nouvelleBranche = inserer(branche, decalage + BITS, nouvelle, ajout);
+        if (nouvelleBranche == branche) {
+            return interne;
+        }
+        Object[] branches = interne.branches.clone();
+        branches[rang] = nouvelleBranche;
+        return new Noeud(interne.bitmap, branches);
+    }
+
+    // Deux entrées de clés différentes
+    private static Object fusionner(Entree a, Entree b, int decalage) {
+        if (a.hash == b.hash) {
+            return new Collisions(a.hash, new Entree[]{a, b});
+        }
+        return separer(a, a.hash, b, b.hash, decalage);
+    }
+
+    // Deux branches de hachages différents, placées sous le premier niveau où ils divergent
+    private static Object separer(Object a, int hashA, Object b, int hashB, int decalage) {
+        int indexA = (hashA >>> decalage) & MASQUE;
+        int indexB = (hashB >>> decalage) & MASQUE;
+        if (indexA == indexB) {
+            return new Noeud(1 << indexA, new Object[]{separer(a, hashA, b, hashB, decalage + BITS)});
+        }
+        return new Noeud((1 << indexA) | (1 << indexB), indexA < indexB ? new Object[]{a, b} : new Object[]{b, a});
+    }
+
+    // Hachage dispersé : les identifiants entiers consécutifs ne partagent pas tous le même premier niveau
+    private static int hacher(Object cle) {
+        int h = cle.hashCode();
+        return h ^ (h >>> 16) ^ (h * 0x9E3779B9 >>> 7);
+    }
+
+    // Parcours en profondeur des feuilles
+    private static final class Parcours<V> implements Iterator<V> {
+        private final Deque<Object> aVisiter = new ArrayDeque<>();
+        private Entree[] collisions;
+        private int indexCollision;
+        private Entree suivante;
+
+        Parcours(Object racine) {
+            if (racine != null) {
+                aVisiter.push(racine);
+            }
+            avancer();
+        }
+
+        private void avancer() {
+            suivante = null;
+            while (suivante == null) {
+                if (collisions != null && indexCollision < collisions.length) {
+                    suivante = collisions[indexCollision++];
+                    return;
+                }
+                collisions = null;
+                Object noeud = aVisiter.poll();
+                if (noeud == null) {
+                    return;
+                }
+                if (noeud instanceof Entree) {
+                    suivante = (Entree) noeud;
+                } else if (noeud instanceof Collisions) {
+                    collisions = ((Collisions) noeud).entrees;
+                    indexCollision = 0;
+                } else {
+                    Object[] branches = ((Noeud) noeud).branches;
+                    for (int i = branches.length - 1; i >= 0; i--) {
+                        aVisiter.push(branches[i]);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return suivante != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (suivante == null) {
+                throw new NoSuchElementException();
+            }
+            V valeur = (V) suivante.valeur;
+            avancer();
+            return valeur;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.vues;
+
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.ontology.concepts.Diagnostic;
+import com.example.demo.ontology.concepts.Disponibilite;
+import com.example.demo.ontology.concepts.Patient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * État publié d'un réceptionniste, immuable.
+ *
+ * Le thread de l'agent produit une nouvelle vue à chaque modification
+ * (O(log n) par la table persistante) et la publie par une référence
+ * volatile ; les autres threads lisent la dernière vue publiée sans verrou
+ * ni copie, et toutes leurs lectures sur une même vue sont cohérentes entre
+ * elles. Les consultations y sont des copies, l'agent continuant de modifier
+ * les siennes ; les objets retournés ne doivent pas être modifiés.
+ */
+public final class VueReceptionniste {
+
+    public static final VueReceptionniste VIDE = new VueReceptionniste(MapPersistante.vide(), MapPersistante.vide(),
+            MapPersistante.vide(), MapPersistante.vide(), MapPersistante.vide(), MapPersistante.vide());
+
+    private final MapPersistante<Integer, Patient> patients;
+    // Nom et prénom -> patient, pour la détection des doublons à l'enregistrement
+    private final MapPersistante<String, Patient> patientsParNom;
+    private final MapPersistante<Integer, Consultation> consultations;
+    private final MapPersistante<Integer, List<Integer>> consultationsParPatient;
+    private final MapPersistante<Integer, List<Disponibilite>> disponibilitesParMedecin;
+    private final MapPersistante<Integer, List<Diagnostic>> diagnosticsParPatient;
+
+    private VueReceptionniste(MapPersistante<Integer, Patient> patients,
+                              MapPersistante<String, Patient> patientsParNom,
+                              MapPersistante<Integer, Consultation> consultations,
+                              MapPersistante<Integer, List<Integer>> consultationsParPatient,
+                              MapPersistante<Integer, List<Disponibilite>> disponibilitesParMedecin,
+                              MapPersistante<Integer, List<Diagnostic>> diagnosticsParPatient) {
+        this.patients = patients;
+        this.patientsParNom = patientsParNom;
+        this.consultations = consultations;
+        this.consultationsParPatient = consultationsParPatient;
+        this.disponibilitesParMedecin = disponibilitesParMedecin;
+        this.diagnosticsParPatient = diagnosticsParPatient;
+    }
+
+    // Écritures : chacune retourne une nouvelle vue, celle-ci reste inchangée
+
+    public VueReceptionniste avecPatient(Patient patient) {
+        return new VueReceptionniste(patients.avec(patient.getId(), patient),
+                patientsParNom.avec(cleNom(patient.getNom(), patient.getPrenom()), patient),
+                consultations, consultationsParPatient, disponibilitesParMedecin, diagnosticsParPatient);
+    }
+
+    /**
+     * Ajoute ou remplace une consultation ; l'appelant passe une copie qu'il ne modifiera plus
+     */
+    public VueReceptionniste avecConsultation(Consultation copie) {
+        Consultation ancienne = consultations.get(copie.getId());
+        MapPersistante<Integer, List<Integer>> parPatient = consultationsParPatient;
+        if (ancienne == null || ancienne.getIdPatient() != copie.getIdPatient()) {
+            parPatient = parPatient.avec(copie.getIdPatient(),
+                    ajouter(parPatient.get(copie.getIdPatient()), copie.getId()));
+        }
+        return new VueReceptionniste(patients, patientsParNom, consultations.avec(copie.getId(), copie),
+                parPatient, disponibilitesParMedecin, diagnosticsParPatient);
+    }
+
+    /**
+     * Remplace les disponibilités publiées d'un médecin ; l'appelant passe une liste qu'il ne modifiera plus
+     */
+    public VueReceptionniste avecDisponibilites(int idMedecin, List<Disponibilite> disponibilites) {
+        return new VueReceptionniste(patients, patientsParNom, consultations, consultationsParPatient,
+                disponibilitesParMedecin.avec(idMedecin, Collections.unmodifiableList(disponibilites)),
+                diagnosticsParPatient);
+    }
+
+    public VueReceptionniste avecDiagnostic(int idPatient, Diagnostic diagnostic) {
+        return new VueReceptionniste(patients, patientsParNom, consultations, consultationsParPatient,
+                disponibilitesParMedecin,
+                diagnosticsParPatient.avec(idPatient, ajouter(diagnosticsParPatient.get(idPatient), diagnostic)));
+    }
+
+    // Lectures
+
+    public Collection<Patient> patients() {
+        return patients.valeurs();
+    }
+
+    public Patient patient(int idPatient) {
+        return patients.get(idPatient);
+    }
+
+    public Patient patientNomme(String nom, String prenom) {
+        return patientsParNom.get(cleNom(nom, prenom));
+    }
+
+    public Collection<Consultation> consultations() {
+        return consultations.valeurs();
+    }
+
+    public Consultation consultation(int idConsultation) {
+        return consultations.get(idConsultation);
+    }
+
+    public List<Consultation> consultationsPatient(int idPatient) {
+        List<Integer> ids = consultationsParPatient.get(idPatient);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        List<Consultation> resultat = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            // Une consultation réattribuée à un autre patient reste listée sous l'ancien, et y est ignorée
+            Consultation consultation = consultations.get(id);
+            if (consultation.getIdPatient() == idPatient) {
+                resultat.add(consultation);
+            }
+        }
+        return resultat;
+    }
+
+    public List<Disponibilite> disponibilitesMedecin(int idMedecin) {
+        return disponibilitesParMedecin.getOrDefault(idMedecin, Collections.emptyList());
+    }
+
+    public List<Diagnostic> diagnosticsPatient(int idPatient) {
+        return diagnosticsParPatient.getOrDefault(idPatient, Collections.emptyList());
+    }
+
+    public Collection<List<Disponibilite>> disponibilitesParMedecin() {
+        return disponibilitesParMedecin.valeurs();
+    }
+
+    public Collection<List<Diagnostic>> diagnosticsParPatient() {
+        return diagnosticsParPatient.valeurs();
+    }
+
+    private static String cleNom(String nom, String prenom) {
+        return nom + '\u0000' + prenom;
+    }
+
+    // Copie à l'écriture d'une liste courte (consultations ou diagnostics d'un patient)
+    private static <T> List<T> ajouter(List<T> liste, T element) {
+        List<T> copie = new ArrayList<>(liste != null ? liste.size() + 1 : 1);
+        if (liste != null) {
+            copie.addAll(liste);
+        }
+        copie.add(element);
+        return Collections.unmodifiableList(copie);
+    }
+}
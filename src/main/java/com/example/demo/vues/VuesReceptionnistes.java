@@ -0,0 +1,46 @@
+package com.example.demo.vues;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registre des vues publiées par les partitions du réceptionniste.
+ *
+ * Chaque partition s'y inscrit au démarrage avec l'accès à sa dernière vue ;
+ * les composants Spring lisent ainsi l'état des agents depuis leurs propres
+ * threads, sans passer par la file de messages ni par la file O2A.
+ */
+@Component
+public class VuesReceptionnistes {
+
+    private final Map<String, Supplier<VueReceptionniste>> partitions = new ConcurrentHashMap<>();
+
+    public void enregistrer(String nomPartition, Supplier<VueReceptionniste> vue) {
+        partitions.put(nomPartition, vue);
+    }
+
+    public void retirer(String nomPartition) {
+        partitions.remove(nomPartition);
+    }
+
+    public VueReceptionniste vue(String nomPartition) {
+        Supplier<VueReceptionniste> vue = partitions.get(nomPartition);
+        return vue != null ? vue.get() : VueReceptionniste.VIDE;
+    }
+
+    /**
+     * Dernière vue de chaque partition inscrite
+     */
+    public List<VueReceptionniste> toutes() {
+        List<VueReceptionniste> vues = new ArrayList<>(partitions.size());
+        for (Supplier<VueReceptionniste> vue : partitions.values()) {
+            vues.add(vue.get());
+        }
+        return vues;
+    }
+}
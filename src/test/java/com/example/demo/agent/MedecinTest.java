@@ -0,0 +1,126 @@
+package com.example.demo.agent;
+
+import com.example.demo.ontology.CodecNegotiator;
+import com.example.demo.ontology.MedicalOntology;
+import com.example.demo.ontology.ations.AnnulerConsultation;
+import com.example.demo.ontology.ations.DemanderConsultation;
+import com.example.demo.ontology.concepts.Consultation;
+import jade.content.AgentAction;
+import jade.content.ContentManager;
+import jade.content.onto.basic.Action;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.lang.acl.ACLMessage;
+import jade.wrapper.AgentContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MedecinTest {
+
+	private static final int ID_MEDECIN = 4;
+	private static final long CRENEAU = 1_900_000_000_000L / 3_600_000 * 3_600_000;
+
+	private final BlockingQueue<ACLMessage> reponses = new LinkedBlockingQueue<>();
+	private final ContentManager contenus = new ContentManager();
+	private final CodecNegotiator codecs = new CodecNegotiator(contenus, MedicalOntology.getInstance());
+	private AgentContainer container;
+	private Correspondant correspondant;
+
+	// Médecin disponible pour une seule consultation
+	public static class MedecinUnCreneau extends Medecin {
+		@Override
+		protected void setup() {
+			super.setup();
+			ajouterDisponibilite(new Date(CRENEAU), 15);
+		}
+	}
+
+	// Réceptionniste de test : envoie les messages déposés dans sa file O2A, range les réponses reçues
+	public static class Correspondant extends Agent {
+		private final BlockingQueue<ACLMessage> reponses;
+
+		public Correspondant(BlockingQueue<ACLMessage> reponses) {
+			this.reponses = reponses;
+			setEnabledO2ACommunication(true, 0);
+		}
+
+		@Override
+		protected void setup() {
+			addBehaviour(new CyclicBehaviour(this) {
+				@Override
+				public void action() {
+					Object message = getO2AObject();
+					if (message != null) {
+						send((ACLMessage) message);
+						return;
+					}
+					ACLMessage reponse = receive();
+					if (reponse != null) {
+						reponses.add(reponse);
+					} else {
+						block();
+					}
+				}
+			});
+		}
+	}
+
+	@BeforeEach
+	void demarrerPlateforme() throws Exception {
+		container = PlateformeJade.demarrer(1799);
+		Medecin medecin = new MedecinUnCreneau();
+		medecin.setArguments(new Object[]{"Test", "Généraliste"});
+		container.acceptNewAgent("medecin" + ID_MEDECIN, medecin).start();
+		medecin.pret().get(10, TimeUnit.SECONDS);
+
+		correspondant = new Correspondant(reponses);
+		container.acceptNewAgent("receptionnist", correspondant).start();
+	}
+
+	@AfterEach
+	void arreterPlateforme() throws Exception {
+		container.kill();
+	}
+
+	@Test
+	void repeatedRequestKeepsItsSlotUntilReleased() throws Exception {
+		assertThat(demander(1)).isEqualTo(ACLMessage.AGREE);
+		// Relance après échéance : même consultation, même accord
+		assertThat(demander(1)).isEqualTo(ACLMessage.AGREE);
+		assertThat(demander(2)).isEqualTo(ACLMessage.REFUSE);
+
+		// Consultation confiée à un autre médecin : le créneau revient à la suivante
+		envoyer(ACLMessage.INFORM, new AnnulerConsultation(consultation(1)));
+		assertThat(demander(2)).isEqualTo(ACLMessage.AGREE);
+		assertThat(demander(1)).isEqualTo(ACLMessage.REFUSE);
+	}
+
+	private int demander(int idConsultation) throws Exception {
+		envoyer(ACLMessage.REQUEST, new DemanderConsultation(consultation(idConsultation)));
+		ACLMessage reponse = reponses.poll(10, TimeUnit.SECONDS);
+		assertThat(reponse).isNotNull();
+		return reponse.getPerformative();
+	}
+
+	private void envoyer(int performatif, AgentAction action) throws Exception {
+		AID medecin = new AID("medecin" + ID_MEDECIN, AID.ISLOCALNAME);
+		ACLMessage message = new ACLMessage(performatif);
+		message.addReceiver(medecin);
+		codecs.preparer(message);
+		codecs.remplir(message, new Action(correspondant.getAID(), action));
+		correspondant.putO2AObject(message, false);
+	}
+
+	private static Consultation consultation(int id) {
+		return new Consultation(id, new Date(CRENEAU), "demandée", 9, ID_MEDECIN);
+	}
+}
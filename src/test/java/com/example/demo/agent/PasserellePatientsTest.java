@@ -0,0 +1,115 @@
+package com.example.demo.agent;
+
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.vues.VuesReceptionnistes;
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.lang.acl.ACLMessage;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.AgentController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasserellePatientsTest {
+
+	private static final int ID_PATIENT = 21;
+	private static final int ID_MEDECIN = 6;
+	private static final long DEBUT_DISPONIBILITE = 1_900_000_000_000L / 3_600_000 * 3_600_000;
+
+	private final BlockingQueue<Consultation> planifiees = new LinkedBlockingQueue<>();
+	private final BlockingQueue<ACLMessage> recusParHomonyme = new LinkedBlockingQueue<>();
+	private final VuesReceptionnistes vues = new VuesReceptionnistes();
+	private AgentContainer container;
+
+	public static class MedecinDisponible extends Medecin {
+		@Override
+		protected void setup() {
+			super.setup();
+			ajouterDisponibilite(new Date(DEBUT_DISPONIBILITE), 60);
+		}
+	}
+
+	// Agent portant le nom conventionnel "patient<id>" : il ne doit rien recevoir pour un patient de la passerelle
+	public static class Homonyme extends Agent {
+		private final BlockingQueue<ACLMessage> recus;
+
+		public Homonyme(BlockingQueue<ACLMessage> recus) {
+			this.recus = recus;
+		}
+
+		@Override
+		protected void setup() {
+			addBehaviour(new CyclicBehaviour(this) {
+				@Override
+				public void action() {
+					ACLMessage message = receive();
+					if (message != null) {
+						recus.add(message);
+					} else {
+						block();
+					}
+				}
+			});
+		}
+	}
+
+	@BeforeEach
+	void demarrerPlateforme() throws Exception {
+		container = PlateformeJade.demarrer(1899);
+	}
+
+	@AfterEach
+	void arreterPlateforme() throws Exception {
+		container.kill();
+	}
+
+	@Test
+	void everyNotificationForAGatewayPatientReachesTheGateway() throws Exception {
+		Receptionnist receptionniste = new Receptionnist();
+		receptionniste.setArguments(new Object[]{"Receptionnist", 0, 1, null, 64, vues});
+		container.acceptNewAgent(Receptionnist.nomPartition(0, 1), receptionniste).start();
+
+		Medecin medecin = new MedecinDisponible();
+		medecin.setArguments(new Object[]{"Test", "Généraliste"});
+		container.acceptNewAgent("medecin" + ID_MEDECIN, medecin).start();
+		container.acceptNewAgent("patient" + ID_PATIENT, new Homonyme(recusParHomonyme)).start();
+
+		PasserellePatients passerelle = new PasserellePatients();
+		passerelle.setArguments(new Object[]{(Consumer<Consultation>) planifiees::add, 16});
+		AgentController controleur = container.acceptNewAgent(PasserellePatients.NOM, passerelle);
+		controleur.start();
+		PlateformeJade.attendre(() -> !vues.toutes().isEmpty()
+				&& !vues.toutes().get(0).disponibilitesMedecin(ID_MEDECIN).isEmpty());
+
+		// Demande et réponse : corrélées par inReplyTo
+		controleur.putO2AObject(new PasserellePatients.Inscription(ID_PATIENT, "Durand", "Alice"), AgentController.ASYNC);
+		controleur.putO2AObject(new PasserellePatients.Demande(ID_PATIENT, ID_MEDECIN, new Date(DEBUT_DISPONIBILITE)),
+				AgentController.ASYNC);
+		Consultation planifiee = planifiees.poll(10, TimeUnit.SECONDS);
+		assertThat(planifiee).isNotNull();
+		assertThat(planifiee.getIdPatient()).isEqualTo(ID_PATIENT);
+
+		// Consultation réorganisée par le réceptionniste : notification hors de toute demande
+		receptionniste.organiserConsultation(new Consultation(planifiee.getId(), planifiee.getDateHeure(), "planifiée",
+				ID_PATIENT, ID_MEDECIN), ID_MEDECIN);
+		Consultation reorganisee = planifiees.poll(10, TimeUnit.SECONDS);
+		assertThat(reorganisee).isNotNull();
+		assertThat(reorganisee.getId()).isEqualTo(planifiee.getId());
+		assertThat(reorganisee.getDateHeure()).isAfter(planifiee.getDateHeure());
+
+		// Diagnostic : la consultation terminée est notifiée à la passerelle, qui la consomme
+		medecin.redigerDiagnostic(planifiee.getId(), "RAS", "Repos");
+		PlateformeJade.attendre(() -> "terminée".equals(vues.toutes().get(0).consultation(planifiee.getId()).getStatus()));
+		PlateformeJade.attendre(() -> passerelle.getCurQueueSize() == 0);
+		assertThat(recusParHomonyme.poll(200, TimeUnit.MILLISECONDS)).isNull();
+	}
+}
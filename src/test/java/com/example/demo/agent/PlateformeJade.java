@@ -0,0 +1,47 @@
+package com.example.demo.agent;
+
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.Runtime;
+import jade.wrapper.AgentContainer;
+
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plate-forme JADE embarquée pour les tests d'agents : un conteneur principal
+ * sans MTP par test, sur son propre port. JADE retient le nom de la dernière
+ * plate-forme de la JVM : toutes portent donc le même.
+ */
+public final class PlateformeJade {
+
+	public static final String NOM = "Tests";
+
+	private PlateformeJade() {
+	}
+
+	public static AgentContainer demarrer(int port) {
+		Runtime runtime = Runtime.instance();
+		runtime.setCloseVM(false);
+		ProfileImpl profile = new ProfileImpl();
+		profile.setParameter(Profile.MAIN_HOST, "localhost");
+		profile.setParameter(Profile.MAIN_PORT, String.valueOf(port));
+		profile.setParameter(Profile.PLATFORM_ID, NOM);
+		profile.setParameter(Profile.NO_MTP, "true");
+		// APDescription.txt écrit sous target/, pas à la racine du projet
+		profile.setParameter(Profile.FILE_DIR, "target/");
+		return runtime.createMainContainer(profile);
+	}
+
+	/**
+	 * Attend que la condition soit vraie, au plus 10 s
+	 */
+	public static void attendre(BooleanSupplier condition) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 10_000;
+		while (!condition.getAsBoolean()) {
+			assertThat(System.currentTimeMillis()).as("délai d'attente dépassé").isLessThan(limite);
+			Thread.sleep(20);
+		}
+	}
+}
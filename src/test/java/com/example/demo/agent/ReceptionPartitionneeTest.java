@@ -0,0 +1,100 @@
+package com.example.demo.agent;
+
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.routing.ConsistentHashRing;
+import com.example.demo.vues.VuesReceptionnistes;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.AgentController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReceptionPartitionneeTest {
+
+	private static final int PARTITIONS = 2;
+	private static final int ID_MEDECIN = 7;
+	private static final String SPECIALITE = "Cardiologie";
+	private static final long DEBUT_DISPONIBILITE = 1_900_000_000_000L / 3_600_000 * 3_600_000;
+
+	private final VuesReceptionnistes vues = new VuesReceptionnistes();
+	private AgentContainer container;
+
+	// Médecin dont le planning est rempli avant toute publication
+	public static class MedecinDisponible extends Medecin {
+		@Override
+		protected void setup() {
+			super.setup();
+			ajouterDisponibilite(new Date(DEBUT_DISPONIBILITE), 120);
+		}
+	}
+
+	@BeforeEach
+	void demarrerPlateforme() throws Exception {
+		container = PlateformeJade.demarrer(1399);
+
+		for (int i = 0; i < PARTITIONS; i++) {
+			container.createNewAgent(Receptionnist.nomPartition(i, PARTITIONS), Receptionnist.class.getName(),
+					new Object[]{"Receptionnist", i, PARTITIONS, null, 64, vues}).start();
+		}
+	}
+
+	@AfterEach
+	void arreterPlateforme() throws Exception {
+		container.kill();
+	}
+
+	@Test
+	void everyShardSchedulesForADoctorOwnedByAnotherShard() throws Exception {
+		// Patient dont la partition n'est pas celle qui possède le médecin sur l'anneau
+		ConsistentHashRing<String> anneau = new ConsistentHashRing<>();
+		for (int i = 0; i < PARTITIONS; i++) {
+			String nom = Receptionnist.nomPartition(i, PARTITIONS) + "@" + container.getPlatformName();
+			anneau.ajouter(nom, nom);
+		}
+		int idPatient = 1;
+		while (anneau.noeudPour(idPatient).equals(anneau.noeudPour(ID_MEDECIN))) {
+			idPatient++;
+		}
+		String partitionPatient = anneau.noeudPour(idPatient).split("@")[0];
+
+		Medecin medecin = new MedecinDisponible();
+		medecin.setArguments(new Object[]{"Test", SPECIALITE});
+		container.acceptNewAgent("medecin" + ID_MEDECIN, medecin).start();
+
+		CompletableFuture<Consultation> confirmation = new CompletableFuture<>();
+		Patient patient = new Patient();
+		patient.setArguments(new Object[]{"Durand", "Alice", "", idPatient, (Consumer<Consultation>) confirmation::complete});
+		AgentController controleur = container.acceptNewAgent("patient" + idPatient, patient);
+		controleur.start();
+		patient.pret().get(10, TimeUnit.SECONDS);
+
+		// Les disponibilités du médecin sont connues de chaque partition
+		PlateformeJade.attendre(() -> vues.toutes().size() == PARTITIONS
+				&& vues.toutes().stream().noneMatch(vue -> vue.disponibilitesMedecin(ID_MEDECIN).isEmpty()));
+
+		// Nouvelle demande tant que la partition du patient ne connaît pas encore le médecin (refus immédiat)
+		Consultation planifiee = null;
+		for (int tentative = 0; tentative < 20 && planifiee == null; tentative++) {
+			controleur.putO2AObject(new Patient.DemandeO2A(SPECIALITE, new Date(DEBUT_DISPONIBILITE + tentative * 15 * 60_000L)),
+					AgentController.ASYNC);
+			try {
+				planifiee = confirmation.get(500, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// Demande refusée : l'annuaire de la partition n'a pas encore reçu le médecin
+			}
+		}
+
+		assertThat(planifiee).isNotNull();
+		assertThat(planifiee.getIdMedecin()).isEqualTo(ID_MEDECIN);
+		assertThat(planifiee.getStatus()).isEqualTo("planifiée");
+		assertThat(vues.vue(partitionPatient).consultation(planifiee.getId())).isNotNull();
+	}
+}
@@ -0,0 +1,71 @@
+package com.example.demo.agent;
+
+import com.example.demo.journal.ConfigurationJournal;
+import com.example.demo.journal.JournalReceptionniste;
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.vues.VuesReceptionnistes;
+import jade.wrapper.AgentContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RestaurationReceptionnisteTest {
+
+	private static final int ID_PATIENT = 5;
+	private static final int ID_MEDECIN = 3;
+
+	@TempDir
+	Path repertoire;
+
+	private AgentContainer container;
+
+	@BeforeEach
+	void demarrerPlateforme() throws Exception {
+		container = PlateformeJade.demarrer(1499);
+	}
+
+	@AfterEach
+	void arreterPlateforme() throws Exception {
+		container.kill();
+	}
+
+	@Test
+	void pendingRequestRestoredFromJournalIsSentAgainToItsDoctor() throws Exception {
+		// Demande transmise au médecin juste avant l'arrêt : journalisée "demandée", sans réponse
+		String nom = Receptionnist.nomPartition(0, 1);
+		JournalReceptionniste journal = new JournalReceptionniste(repertoire, nom, 5, 1);
+		journal.ouvrir();
+		journal.consultation(new Consultation(1, new Date(1_900_000_000_000L), "demandée", ID_PATIENT, ID_MEDECIN));
+		journal.close();
+
+		// Médecin sans disponibilités déclarées : il accepte toute demande
+		Medecin medecin = new Medecin();
+		medecin.setArguments(new Object[]{"Test", "Généraliste"});
+		container.acceptNewAgent("medecin" + ID_MEDECIN, medecin).start();
+
+		CompletableFuture<Consultation> confirmation = new CompletableFuture<>();
+		Patient patient = new Patient();
+		patient.setArguments(new Object[]{"Durand", "Alice", "", ID_PATIENT, (Consumer<Consultation>) confirmation::complete});
+		container.acceptNewAgent("patient" + ID_PATIENT, patient).start();
+		medecin.pret().get(10, TimeUnit.SECONDS);
+		patient.pret().get(10, TimeUnit.SECONDS);
+
+		VuesReceptionnistes vues = new VuesReceptionnistes();
+		container.createNewAgent(nom, Receptionnist.class.getName(), new Object[]{"Receptionnist", 0, 1,
+				new ConfigurationJournal(repertoire, 5, 1, 0, 0), 64, vues}).start();
+
+		Consultation planifiee = confirmation.get(10, TimeUnit.SECONDS);
+		assertThat(planifiee.getId()).isEqualTo(1);
+		assertThat(planifiee.getStatus()).isEqualTo("planifiée");
+		assertThat(vues.vue(nom).consultation(1).getStatus()).isEqualTo("planifiée");
+	}
+}
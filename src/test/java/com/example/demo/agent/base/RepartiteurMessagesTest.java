@@ -0,0 +1,88 @@
+package com.example.demo.agent.base;
+
+import com.example.demo.metrics.AgentMetrics;
+import com.example.demo.ontology.CodecNegotiator;
+import com.example.demo.ontology.MedicalOntology;
+import com.example.demo.ontology.ations.DemanderConsultation;
+import com.example.demo.ontology.ations.EnregistrerPatient;
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.ontology.concepts.Patient;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jade.content.AgentAction;
+import jade.content.ContentManager;
+import jade.content.onto.basic.Action;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.lang.acl.ACLMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepartiteurMessagesTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final CodecNegotiator codecs = new CodecNegotiator(new ContentManager(), MedicalOntology.getInstance());
+
+	@BeforeEach
+	void brancherRegistre() {
+		Metrics.addRegistry(registry);
+	}
+
+	@AfterEach
+	void retirerRegistre() {
+		Metrics.removeRegistry(registry);
+	}
+
+	@Test
+	void routesByPerformativeAndActionClassWithPerRouteMetrics() throws Exception {
+		List<String> traites = new ArrayList<>();
+		RepartiteurMessages repartiteur = new RepartiteurMessages(new Agent(), codecs, new AgentMetrics("test"))
+				.sur(ACLMessage.REQUEST, DemanderConsultation.class,
+						(message, dc) -> traites.add("demande " + dc.getConsultation().getIdMedecin()))
+				.sur(ACLMessage.REQUEST, EnregistrerPatient.class,
+						(message, ep) -> traites.add("patient " + ep.getPatient().getNom()))
+				.sur(ACLMessage.AGREE, message -> traites.add("accord " + message.getInReplyTo()));
+
+		repartiteur.traiter(requete(new DemanderConsultation(new Consultation(0, new Date(0), "demandée", 1, 4))));
+		repartiteur.traiter(requete(new EnregistrerPatient(new Patient(0, "Dupont", "Marie", "Allergie"))));
+		ACLMessage accord = new ACLMessage(ACLMessage.AGREE);
+		accord.setInReplyTo("r-1");
+		repartiteur.traiter(accord);
+		// Aucune route pour INFORM : le message est ignoré
+		repartiteur.traiter(new ACLMessage(ACLMessage.INFORM));
+
+		assertThat(traites).containsExactly("demande 4", "patient Dupont", "accord r-1");
+		assertThat(registry.get("agent.messages").tag("action", "DemanderConsultation").counter().count()).isEqualTo(1);
+		assertThat(registry.get("agent.handler").tag("performative", "AGREE").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void failingHandlerIsCountedAndDoesNotStopDispatch() throws Exception {
+		RepartiteurMessages repartiteur = new RepartiteurMessages(new Agent(), codecs, new AgentMetrics("test"))
+				.sur(ACLMessage.REQUEST, DemanderConsultation.class, (message, dc) -> {
+					throw new IllegalStateException("index indisponible");
+				});
+
+		repartiteur.traiter(requete(new DemanderConsultation(new Consultation(0, new Date(0), "demandée", 1, 4))));
+		repartiteur.traiter(requete(new DemanderConsultation(new Consultation(0, new Date(0), "demandée", 1, 4))));
+
+		assertThat(registry.get("agent.handler.errors").tag("action", "DemanderConsultation").counter().count())
+				.isEqualTo(2);
+	}
+
+	private ACLMessage requete(AgentAction action) throws Exception {
+		ACLMessage message = new ACLMessage(ACLMessage.REQUEST);
+		message.setSender(new AID("patient1@cabinet", AID.ISGUID));
+		codecs.preparer(message);
+		codecs.remplir(message, new Action(new AID("patient1@cabinet", AID.ISGUID), action));
+		return message;
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.agent.Medecin;
+import com.example.demo.agent.Receptionnist;
+import com.example.demo.ontology.concepts.Consultation;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.Runtime;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.AgentController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aller-retour complet dans une plate-forme JADE embarquée :
+ * patient -> réceptionniste -> médecin -> AGREE -> réceptionniste -> confirmation au patient.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AllerRetourBenchmark {
+
+    private static final int ID_MEDECIN = 1;
+    static final String RECEPTIONNISTE = Receptionnist.nomPartition(0, 1);
+
+    @Param({"1299"})
+    public int port;
+
+    private AgentContainer container;
+    private AgentController sonde;
+    private long prochaineMinute;
+
+    @Setup
+    public void setup() throws Exception {
+        Runtime runtime = Runtime.instance();
+        runtime.setCloseVM(false);
+
+        ProfileImpl profile = new ProfileImpl();
+        profile.setParameter(Profile.MAIN_HOST, "localhost");
+        profile.setParameter(Profile.MAIN_PORT, String.valueOf(port));
+        profile.setParameter(Profile.PLATFORM_ID, "Benchmark");
+        profile.setParameter(Profile.NO_MTP, "true");
+        container = runtime.createMainContainer(profile);
+
+        container.createNewAgent(RECEPTIONNISTE, Receptionnist.class.getName(), new Object[0]).start();
+        container.createNewAgent("medecin" + ID_MEDECIN, Medecin.class.getName(),
+                new Object[]{"Benchmark", "Généraliste"}).start();
+        sonde = container.acceptNewAgent("patient" + SondePatient.ID_PATIENT, new SondePatient());
+        sonde.start();
+
+        // Premier aller-retour hors mesure : les agents ont terminé leur setup()
+        allerRetour();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        container.kill();
+    }
+
+    @Benchmark
+    public Consultation allerRetour() throws Exception {
+        SondePatient.Demande demande = new SondePatient.Demande(ID_MEDECIN, new Date(++prochaineMinute * 60_000L));
+        sonde.putO2AObject(demande, AgentController.ASYNC);
+        return demande.reponse.get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.ontology.MedicalOntology;
+import com.example.demo.ontology.ations.DemanderConsultation;
+import com.example.demo.ontology.ations.EnregistrerPatient;
+import com.example.demo.ontology.ations.OrganiserConsultation;
+import com.example.demo.ontology.ations.RedigerDiagnostic;
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.ontology.concepts.Diagnostic;
+import com.example.demo.ontology.concepts.Disponibilite;
+import com.example.demo.ontology.concepts.Patient;
+import jade.content.AgentAction;
+import jade.content.ContentElement;
+import jade.content.ContentManager;
+import jade.content.lang.leap.LEAPCodec;
+import jade.content.lang.sl.SLCodec;
+import jade.content.onto.basic.Action;
+import jade.core.AID;
+import jade.domain.FIPANames;
+import jade.lang.acl.ACLMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit d'encodage/décodage SL et LEAP pour chaque action de l'ontologie
+ * (et donc chaque concept qu'elles transportent). La taille du contenu en
+ * octets est affichée au démarrage de chaque essai.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(CodecBenchmark.class);
+
+    @Param({FIPANames.ContentLanguage.FIPA_SL, LEAPCodec.NAME})
+    public String langue;
+
+    @Param({MedicalOntology.DEMANDER_CONSULTATION, MedicalOntology.ENREGISTRER_PATIENT,
+            MedicalOntology.ORGANISER_CONSULTATION, MedicalOntology.REDIGER_DIAGNOSTIC})
+    public String action;
+
+    private ContentManager contentManager;
+    private Action contenu;
+    private ACLMessage message;
+    private ACLMessage messageRempli;
+
+    @Setup
+    public void setup() throws Exception {
+        contentManager = new ContentManager();
+        contentManager.registerLanguage(new SLCodec());
+        contentManager.registerLanguage(new LEAPCodec());
+        contentManager.registerOntology(MedicalOntology.getInstance());
+
+        contenu = new Action(new AID("patient42@JadeSpringPlatform", AID.ISGUID), action(action));
+        message = nouveauMessage();
+        messageRempli = nouveauMessage();
+        contentManager.fillContent(messageRempli, contenu);
+
+        logger.info("{} en {} : {} octets/message", action, langue, taille(messageRempli));
+    }
+
+    static AgentAction action(String nom) {
+        Consultation consultation = new Consultation(1234, new Date(1_760_000_000_000L), "demandée", 42, 7);
+        switch (nom) {
+            case MedicalOntology.DEMANDER_CONSULTATION:
+                return new DemanderConsultation(consultation);
+            case MedicalOntology.ENREGISTRER_PATIENT:
+                return new EnregistrerPatient(new Patient(42, "Dupont", "Marie", "Allergie pénicilline"));
+            case MedicalOntology.ORGANISER_CONSULTATION:
+                return new OrganiserConsultation(consultation,
+                        new Disponibilite(3, 7, new Date(1_760_000_000_000L), 15));
+            case MedicalOntology.REDIGER_DIAGNOSTIC:
+                return new RedigerDiagnostic(new Diagnostic(9, "Angine", "Repos et hydratation", 1234), consultation);
+            default:
+                throw new IllegalArgumentException("Action inconnue: " + nom);
+        }
+    }
+
+    private ACLMessage nouveauMessage() {
+        ACLMessage msg = new ACLMessage(ACLMessage.REQUEST);
+        msg.setLanguage(langue);
+        msg.setOntology(MedicalOntology.ONTOLOGY_NAME);
+        return msg;
+    }
+
+    private static int taille(ACLMessage msg) {
+        return msg.hasByteSequenceContent()
+                ? msg.getByteSequenceContent().length
+                : msg.getContent().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    @Benchmark
+    public ACLMessage encoder() throws Exception {
+        contentManager.fillContent(message, contenu);
+        return message;
+    }
+
+    @Benchmark
+    public ContentElement decoder() throws Exception {
+        return contentManager.extractContent(messageRempli);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.repository.ConsultationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence des recherches du réceptionniste en fonction de la taille du stockage.
+ * Les variantes "lineaire" reproduisent l'ancien parcours de List pour comparaison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsultationRepositoryBenchmark {
+
+    private static final int NB_MEDECINS = 50;
+    private static final int NB_PATIENTS = 10_000;
+    private static final long QUART_HEURE = 15 * 60 * 1000L;
+
+    @Param({"1000", "100000", "500000"})
+    public int taille;
+
+    private ConsultationRepository repository;
+    private List<Consultation> liste;
+
+    @Setup
+    public void setup() {
+        repository = new ConsultationRepository();
+        liste = new ArrayList<>(taille);
+        for (int i = 1; i <= taille; i++) {
+            Consultation c = consultation(i);
+            repository.save(c);
+            liste.add(c);
+        }
+    }
+
+    static Consultation consultation(int id) {
+        return new Consultation(id, new Date(id * QUART_HEURE), "planifiée",
+                id % NB_PATIENTS, id % NB_MEDECINS);
+    }
+
+    private int idAleatoire() {
+        return ThreadLocalRandom.current().nextInt(1, taille + 1);
+    }
+
+    @Benchmark
+    public Consultation findById() {
+        return repository.findById(idAleatoire());
+    }
+
+    @Benchmark
+    public int findByPatient() {
+        return repository.findByPatient(idAleatoire() % NB_PATIENTS).size();
+    }
+
+    @Benchmark
+    public Consultation findByIdLineaire() {
+        int id = idAleatoire();
+        for (Consultation c : liste) {
+            if (c.getId() == id) {
+                return c;
+            }
+        }
+        return null;
+    }
+}
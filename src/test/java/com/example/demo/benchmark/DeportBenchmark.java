@@ -0,0 +1,168 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.agent.base.ComportementDeporte;
+import jade.core.Agent;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.Runtime;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.AgentController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Réactivité d'un agent dont la file contient des travaux bloquants (aller-retour
+ * DF, écriture disque simulés par une attente de bloquantMs) : chaque opération
+ * dépose travauxParPing travaux puis un ping, et mesure le délai de réponse du ping.
+ * En mode inline, le ping attend la fin des travaux qui le précèdent ; en mode
+ * deporte, ceux-ci s'exécutent sur des threads virtuels. bloquantMs = 0 mesure
+ * le surcoût du déport pour un travail immédiat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeportBenchmark {
+
+    @Param({"inline", "deporte"})
+    public String mode;
+
+    @Param({"0", "2"})
+    public int bloquantMs;
+
+    @Param({"4"})
+    public int travauxParPing;
+
+    @Param({"1298"})
+    public int port;
+
+    private AgentContainer container;
+    private AgentController agent;
+    private Travail[] travaux = new Travail[0];
+
+    static final class Travail {
+        final long dureeNanos;
+        final CompletableFuture<Void> fin = new CompletableFuture<>();
+
+        Travail(long dureeNanos) {
+            this.dureeNanos = dureeNanos;
+        }
+    }
+
+    static final class Ping {
+        final CompletableFuture<Void> reponse = new CompletableFuture<>();
+    }
+
+    /**
+     * Agent recevant travaux et pings par la file O2A, ouverte dès sa construction
+     */
+    public static class AgentTravailleur extends Agent {
+        private final boolean deporte;
+
+        AgentTravailleur(boolean deporte) {
+            this.deporte = deporte;
+            setEnabledO2ACommunication(true, 0);
+        }
+
+        @Override
+        protected void setup() {
+            addBehaviour(new CyclicBehaviour(this) {
+                @Override
+                public void action() {
+                    Object objet = getO2AObject();
+                    if (objet instanceof Ping) {
+                        ((Ping) objet).reponse.complete(null);
+                    } else if (objet instanceof Travail) {
+                        Travail travail = (Travail) objet;
+                        if (deporte) {
+                            myAgent.addBehaviour(new ComportementDeporte<Void>(myAgent) {
+                                @Override
+                                protected Void calculer() {
+                                    attendre(travail.dureeNanos);
+                                    return null;
+                                }
+
+                                @Override
+                                protected void surResultat(Void resultat) {
+                                    travail.fin.complete(null);
+                                }
+                            });
+                        } else {
+                            attendre(travail.dureeNanos);
+                            travail.fin.complete(null);
+                        }
+                    } else {
+                        block();
+                    }
+                }
+            });
+        }
+    }
+
+    private static void attendre(long nanos) {
+        if (nanos > 0) {
+            LockSupport.parkNanos(nanos);
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        Runtime runtime = Runtime.instance();
+        runtime.setCloseVM(false);
+
+        ProfileImpl profile = new ProfileImpl();
+        profile.setParameter(Profile.MAIN_HOST, "localhost");
+        profile.setParameter(Profile.MAIN_PORT, String.valueOf(port));
+        profile.setParameter(Profile.PLATFORM_ID, "Benchmark");
+        profile.setParameter(Profile.NO_MTP, "true");
+        container = runtime.createMainContainer(profile);
+
+        agent = container.acceptNewAgent("travailleur", new AgentTravailleur("deporte".equals(mode)));
+        agent.start();
+        ping();
+    }
+
+    // Les travaux de l'opération précédente sont terminés hors de la mesure
+    @Setup(Level.Invocation)
+    public void attendreTravaux() throws Exception {
+        for (Travail travail : travaux) {
+            travail.fin.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        container.kill();
+    }
+
+    @Benchmark
+    public Object ping() throws Exception {
+        travaux = new Travail[travauxParPing];
+        for (int i = 0; i < travauxParPing; i++) {
+            travaux[i] = new Travail(TimeUnit.MILLISECONDS.toNanos(bloquantMs));
+            agent.putO2AObject(travaux[i], AgentController.ASYNC);
+        }
+        Ping ping = new Ping();
+        agent.putO2AObject(ping, AgentController.ASYNC);
+        ping.reponse.get(10, TimeUnit.SECONDS);
+        return ping;
+    }
+}
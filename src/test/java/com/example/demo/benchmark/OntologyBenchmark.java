@@ -0,0 +1,65 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.ontology.MedicalOntology;
+import com.example.demo.ontology.ations.DemanderConsultation;
+import com.example.demo.ontology.concepts.Consultation;
+import jade.content.abs.AbsObject;
+import jade.content.onto.Ontology;
+import jade.content.schema.ObjectSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherches de schémas dans MedicalOntology et conversion objet Java / abstrait
+ * effectuée par le ContentManager avant chaque encodage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OntologyBenchmark {
+
+    private Ontology ontology;
+    private DemanderConsultation demande;
+    private AbsObject demandeAbstraite;
+
+    @Setup
+    public void setup() throws Exception {
+        ontology = MedicalOntology.getInstance();
+        demande = new DemanderConsultation(new Consultation(1, new Date(), "demandée", 42, 7));
+        demandeAbstraite = ontology.fromObject(demande);
+    }
+
+    @Benchmark
+    public ObjectSchema schemaParNom() throws Exception {
+        return ontology.getSchema(MedicalOntology.DEMANDER_CONSULTATION);
+    }
+
+    @Benchmark
+    public ObjectSchema schemaParClasse() throws Exception {
+        return ontology.getSchema(DemanderConsultation.class);
+    }
+
+    @Benchmark
+    public AbsObject versAbstrait() throws Exception {
+        return ontology.fromObject(demande);
+    }
+
+    @Benchmark
+    public Object depuisAbstrait() throws Exception {
+        return ontology.toObject(demandeAbstraite);
+    }
+}
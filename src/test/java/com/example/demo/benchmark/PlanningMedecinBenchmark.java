@@ -0,0 +1,67 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.ontology.concepts.Disponibilite;
+import com.example.demo.planning.PlanningMedecin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérification de créneau et recherche du prochain créneau libre pour un
+ * médecin ayant publié un nombre croissant de disponibilités de 15 minutes,
+ * dont les trois quarts sont déjà réservées.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanningMedecinBenchmark {
+
+    private static final long QUART_HEURE = 15 * 60 * 1000L;
+
+    @Param({"100", "10000", "100000"})
+    public int creneaux;
+
+    private PlanningMedecin planning;
+
+    @Setup
+    public void setup() {
+        planning = new PlanningMedecin();
+        for (int i = 0; i < creneaux; i++) {
+            // Une heure libre toutes les deux heures
+            long debut = i * 2 * 4 * QUART_HEURE;
+            planning.ajouterDisponibilite(new Disponibilite(i, 1, new Date(debut), 60));
+            for (int q = 0; q < 3; q++) {
+                planning.reserver(new Date(debut + q * QUART_HEURE), PlanningMedecin.DUREE_CONSULTATION);
+            }
+        }
+    }
+
+    private Date dateAleatoire() {
+        return new Date(ThreadLocalRandom.current().nextLong(creneaux * 8L) * QUART_HEURE);
+    }
+
+    @Benchmark
+    public boolean estLibre() {
+        return planning.estLibre(dateAleatoire(), PlanningMedecin.DUREE_CONSULTATION);
+    }
+
+    @Benchmark
+    public Date prochainCreneauLibre() {
+        return planning.prochainCreneauLibre(dateAleatoire(), PlanningMedecin.DUREE_CONSULTATION);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.ontology.CodecNegotiator;
+import com.example.demo.ontology.MedicalOntology;
+import com.example.demo.ontology.ations.DemanderConsultation;
+import com.example.demo.ontology.concepts.Consultation;
+import jade.content.onto.basic.Action;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.lang.acl.ACLMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Agent patient instrumenté : reçoit ses demandes par la file O2A et complète
+ * une future à la réception de la confirmation du réceptionniste.
+ */
+public class SondePatient extends Agent {
+    private static final Logger logger = LoggerFactory.getLogger(SondePatient.class);
+
+    public static final int ID_PATIENT = 1;
+
+    public static class Demande {
+        final int idMedecin;
+        final Date dateHeure;
+        final CompletableFuture<Consultation> reponse = new CompletableFuture<>();
+
+        public Demande(int idMedecin, Date dateHeure) {
+            this.idMedecin = idMedecin;
+            this.dateHeure = dateHeure;
+        }
+    }
+
+    private CodecNegotiator codecs;
+    private final Map<Long, Demande> enAttente = new HashMap<>();
+
+    public SondePatient() {
+        // File O2A ouverte dès la création : une demande déposée avant setup() n'est pas perdue
+        setEnabledO2ACommunication(true, 0);
+    }
+
+    @Override
+    protected void setup() {
+        codecs = new CodecNegotiator(getContentManager(), MedicalOntology.getInstance());
+
+        addBehaviour(new CyclicBehaviour(this) {
+            @Override
+            public void action() {
+                Object objet = getO2AObject();
+                if (objet instanceof Demande) {
+                    envoyer((Demande) objet);
+                }
+
+                ACLMessage message = receive(codecs.template());
+                if (message != null && message.getPerformative() == ACLMessage.INFORM) {
+                    confirmer(message);
+                }
+
+                if (objet == null && message == null) {
+                    block();
+                }
+            }
+        });
+    }
+
+    private void envoyer(Demande demande) {
+        try {
+            Consultation consultation = new Consultation(0, demande.dateHeure, "demandée", ID_PATIENT, demande.idMedecin);
+
+            ACLMessage message = new ACLMessage(ACLMessage.REQUEST);
+            message.addReceiver(new AID(AllerRetourBenchmark.RECEPTIONNISTE, AID.ISLOCALNAME));
+            codecs.preparer(message);
+            getContentManager().fillContent(message, new Action(getAID(), new DemanderConsultation(consultation)));
+
+            enAttente.put(demande.dateHeure.getTime(), demande);
+            send(message);
+        } catch (Exception e) {
+            demande.reponse.completeExceptionally(e);
+        }
+    }
+
+    private void confirmer(ACLMessage message) {
+        try {
+            if (message.getContentObject() instanceof Consultation) {
+                Consultation consultation = (Consultation) message.getContentObject();
+                Demande demande = enAttente.remove(consultation.getDateHeure().getTime());
+                if (demande != null) {
+                    demande.reponse.complete(consultation);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Agent {}: confirmation illisible", getLocalName(), e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.correlation;
+
+import jade.lang.acl.ACLMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TableCorrelationTest {
+
+	@Test
+	void replyIsMatchedThroughInReplyToOnlyOnce() {
+		TableCorrelation<Integer> table = new TableCorrelation<>("receptionnist", 100, 0);
+		ACLMessage premiere = new ACLMessage(ACLMessage.REQUEST);
+		ACLMessage seconde = new ACLMessage(ACLMessage.REQUEST);
+		table.ouvrir(premiere, 7, 1000);
+		table.ouvrir(seconde, 8, 1000);
+		assertThat(premiere.getReplyWith()).isNotEqualTo(seconde.getReplyWith());
+
+		ACLMessage reponse = seconde.createReply();
+		reponse.setPerformative(ACLMessage.AGREE);
+		assertThat(table.resoudre(reponse)).isEqualTo(8);
+		assertThat(table.resoudre(reponse)).isNull();
+		assertThat(table.resoudre(new ACLMessage(ACLMessage.AGREE))).isNull();
+		assertThat(table.size()).isEqualTo(1);
+	}
+
+	@Test
+	void resolvedRequestsNeverExpire() {
+		TableCorrelation<Integer> table = new TableCorrelation<>("receptionnist", 100, 0);
+		for (int i = 0; i < 10; i++) {
+			table.ouvrir(new ACLMessage(ACLMessage.REQUEST), i, 1000 + i * 100L);
+		}
+		ACLMessage resolue = new ACLMessage(ACLMessage.REQUEST);
+		table.ouvrir(resolue, 99, 1000);
+		assertThat(table.resoudre(resolue.createReply())).isEqualTo(99);
+
+		List<Integer> expirees = new ArrayList<>();
+		assertThat(table.expirer(1450, expirees::add)).isEqualTo(5);
+		assertThat(expirees).containsExactlyInAnyOrder(0, 1, 2, 3, 4);
+		assertThat(table.size()).isEqualTo(5);
+	}
+
+}
@@ -0,0 +1,167 @@
+package com.example.demo.journal;
+
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.ontology.concepts.Diagnostic;
+import com.example.demo.ontology.concepts.Disponibilite;
+import com.example.demo.ontology.concepts.Patient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalReceptionnisteTest {
+
+	@TempDir
+	Path repertoire;
+
+	@Test
+	void replayReturnsRecordsInWriteOrder() throws Exception {
+		JournalReceptionniste journal = new JournalReceptionniste(repertoire, "receptionnist", 50, 3);
+		journal.ouvrir();
+		journal.patient(new Patient(1, "Dupont", "Marie", null));
+		journal.consultation(new Consultation(7, new Date(60_000), "demandée", 1, 2));
+		journal.disponibilite(new Disponibilite(0, 2, new Date(0), 120));
+		journal.consultation(new Consultation(7, new Date(60_000), "planifiée", 1, 2));
+		journal.diagnostic(new Diagnostic(0, "Angine", "Repos", 7));
+		journal.close();
+
+		Enregistrements relus = new Enregistrements();
+		assertThat(new JournalReceptionniste(repertoire, "receptionnist", 50, 3).rejouer(0, relus)).isEqualTo(5);
+
+		assertThat(relus.ordre).containsExactly("patient 1", "consultation 7 demandée",
+				"disponibilite 2 120", "consultation 7 planifiée", "diagnostic 7 Angine");
+		assertThat(relus.patients.get(0).getInformationsPersonnelles()).isNull();
+		assertThat(relus.consultations.get(1).getDateHeure()).isEqualTo(new Date(60_000));
+	}
+
+	@Test
+	void tornTailIsTruncatedAndAppendResumes() throws Exception {
+		Path fichier = repertoire.resolve("receptionnist.0.journal");
+		JournalReceptionniste journal = new JournalReceptionniste(repertoire, "receptionnist", 50, 100);
+		journal.ouvrir();
+		journal.consultation(new Consultation(1, new Date(0), "demandée", 1, 1));
+		journal.consultation(new Consultation(2, new Date(0), "demandée", 1, 1));
+		journal.close();
+		long tailleValide = Files.size(fichier);
+
+		// Écriture interrompue : en-tête annonçant plus d'octets que le fichier n'en contient
+		try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.APPEND)) {
+			canal.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 2, 0}));
+		}
+
+		JournalReceptionniste reprise = new JournalReceptionniste(repertoire, "receptionnist", 50, 100);
+		assertThat(reprise.rejouer(0, new Enregistrements())).isEqualTo(2);
+		assertThat(Files.size(fichier)).isEqualTo(tailleValide);
+
+		reprise.ouvrir();
+		reprise.consultation(new Consultation(3, new Date(0), "demandée", 1, 1));
+		reprise.close();
+
+		Enregistrements relus = new Enregistrements();
+		assertThat(new JournalReceptionniste(repertoire, "receptionnist", 50, 100).rejouer(0, relus)).isEqualTo(3);
+		assertThat(relus.consultations).extracting(Consultation::getId).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	void failedWriteMakesTheJournalRefuseNewRecords() throws Exception {
+		List<FileChannel> canaux = new ArrayList<>();
+		CompletableFuture<IOException> defaillance = new CompletableFuture<>();
+		JournalReceptionniste journal = new JournalReceptionniste(repertoire, "receptionnist", 50, 1) {
+			@Override
+			FileChannel ouvrirSegment(long g) throws IOException {
+				FileChannel canal = super.ouvrirSegment(g);
+				canaux.add(canal);
+				return canal;
+			}
+		};
+		journal.surDefaillance(defaillance::complete);
+		journal.ouvrir();
+		journal.consultation(new Consultation(1, new Date(0), "demandée", 1, 1));
+
+		// Disque perdu : toute écriture du segment échoue
+		canaux.get(0).close();
+		journal.consultation(new Consultation(1, new Date(0), "planifiée", 1, 1));
+
+		assertThat(defaillance.get(10, TimeUnit.SECONDS)).isInstanceOf(ClosedChannelException.class);
+		assertThat(journal.estDefaillant()).isTrue();
+		assertThatThrownBy(() -> journal.consultation(new Consultation(2, new Date(0), "demandée", 1, 1)))
+				.isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(journal::basculer).isInstanceOf(IOException.class);
+		journal.close();
+	}
+
+	@Test
+	void snapshotCoversRotatedSegmentsAndOnlyTheTailIsReplayed() throws Exception {
+		JournalReceptionniste journal = new JournalReceptionniste(repertoire, "receptionnist", 50, 100);
+		journal.ouvrir();
+		journal.patient(new Patient(1, "Dupont", "Marie", "Allergie"));
+		journal.consultation(new Consultation(1, new Date(0), "demandée", 1, 1));
+		journal.consultation(new Consultation(1, new Date(0), "planifiée", 1, 1));
+
+		CompletableFuture<Long> bascule = journal.basculer();
+		assertThat(journal.getEnregistrementsDepuisBascule()).isZero();
+		// Ajouté avant que le thread d'écriture ait changé de segment : va quand même dans le nouveau
+		journal.consultation(new Consultation(3, new Date(0), "demandée", 1, 1));
+		long generation = bascule.get(10, TimeUnit.SECONDS);
+		assertThat(generation).isEqualTo(1);
+
+		InstantaneReceptionniste instantane = new InstantaneReceptionniste(repertoire.resolve("receptionnist.snapshot"));
+		instantane.ecrire(generation, List.of(new Patient(1, "Dupont", "Marie", "Allergie")),
+				List.of(new Disponibilite(0, 1, new Date(0), 60)),
+				List.of(new Consultation(1, new Date(0), "planifiée", 1, 1)),
+				List.of(new Diagnostic(0, "Angine", null, 1)));
+		journal.compacter(generation);
+		journal.close();
+		assertThat(repertoire.resolve("receptionnist.0.journal")).doesNotExist();
+
+		Enregistrements relus = new Enregistrements();
+		assertThat(instantane.charger(relus)).isEqualTo(generation);
+		assertThat(new JournalReceptionniste(repertoire, "receptionnist", 50, 100).rejouer(generation, relus)).isEqualTo(1);
+		assertThat(relus.ordre).containsExactly("patient 1", "disponibilite 1 60", "consultation 1 planifiée",
+				"diagnostic 1 Angine", "consultation 3 demandée");
+		assertThat(relus.patients.get(0).getInformationsPersonnelles()).isEqualTo("Allergie");
+	}
+
+	private static class Enregistrements implements JournalReceptionniste.Lecteur {
+		final List<String> ordre = new ArrayList<>();
+		final List<Patient> patients = new ArrayList<>();
+		final List<Consultation> consultations = new ArrayList<>();
+
+		@Override
+		public void patient(Patient patient) {
+			patients.add(patient);
+			ordre.add("patient " + patient.getId());
+		}
+
+		@Override
+		public void consultation(Consultation consultation) {
+			consultations.add(consultation);
+			ordre.add("consultation " + consultation.getId() + " " + consultation.getStatus());
+		}
+
+		@Override
+		public void disponibilite(Disponibilite disponibilite) {
+			ordre.add("disponibilite " + disponibilite.getIdMedecin() + " " + disponibilite.getDuree());
+		}
+
+		@Override
+		public void diagnostic(Diagnostic diagnostic) {
+			ordre.add("diagnostic " + diagnostic.getIdConsultation() + " " + diagnostic.getDescription());
+		}
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.example.demo.ontology;
+
+import com.example.demo.ontology.ations.PublierDisponibilites;
+import com.example.demo.ontology.concepts.Disponibilite;
+import jade.content.ContentElement;
+import jade.content.ContentManager;
+import jade.content.lang.leap.LEAPCodec;
+import jade.content.lang.sl.SLCodec;
+import jade.content.onto.basic.Action;
+import jade.core.AID;
+import jade.lang.acl.ACLMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublierDisponibilitesTest {
+
+	@Test
+	void batchRoundTripsThroughBothLanguages() throws Exception {
+		List<Disponibilite> semaine = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			semaine.add(new Disponibilite(0, 3, new Date(i * 15 * 60_000L), 15));
+		}
+
+		for (String langue : List.of(new SLCodec().getName(), LEAPCodec.NAME)) {
+			CodecNegotiator codecs = new CodecNegotiator(new ContentManager(), MedicalOntology.getInstance());
+			ACLMessage message = new ACLMessage(ACLMessage.INFORM);
+			message.setLanguage(langue);
+			message.setOntology(MedicalOntology.ONTOLOGY_NAME);
+			codecs.remplir(message, new Action(new AID("medecin3@cabinet", AID.ISGUID), new PublierDisponibilites(semaine)));
+
+			ContentElement ce = codecs.extraire(message);
+			assertThat(ce).isInstanceOf(Action.class);
+			PublierDisponibilites lot = (PublierDisponibilites) ((Action) ce).getAction();
+			assertThat(lot.lister()).hasSize(200);
+			assertThat(lot.lister().get(199).getDateHeure()).isEqualTo(new Date(199 * 15 * 60_000L));
+			assertThat(lot.lister().get(0).getIdMedecin()).isEqualTo(3);
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.example.demo.patients;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TablePatientsTest {
+
+	@Test
+	void tracksConversationStatePerPatient() {
+		TablePatients table = new TablePatients(16);
+		assertThat(table.inscrire(42, "Durand", "Alice")).isTrue();
+		assertThat(table.inscrire(42, "Durand", "Alicia")).isFalse();
+
+		table.demandeEnvoyee(42);
+		table.demandeEnvoyee(42);
+		table.demandeEnvoyee(7);
+		table.consultation(42, 3, "planifiée");
+		table.consultation(42, 3, "planifiée");
+		table.demandeTerminee(42);
+
+		assertThat(table.size()).isEqualTo(2);
+		assertThat(table.prenom(42)).isEqualTo("Alicia");
+		assertThat(table.nom(7)).isNull();
+		assertThat(table.enCours(42)).isEqualTo(1);
+		assertThat(table.enCours(7)).isEqualTo(1);
+		assertThat(table.derniereConsultation(42)).isEqualTo(3);
+		assertThat(table.dernierStatut(42)).isEqualTo("planifiée");
+		assertThat(table.consultationsPlanifiees(42)).isEqualTo(1);
+		assertThat(table.contient(8)).isFalse();
+		assertThat(table.enCours(8)).isZero();
+	}
+
+	@Test
+	void keepsEveryPatientAcrossResizes() {
+		TablePatients table = new TablePatients(16);
+		for (int id = -50_000; id <= 50_000; id++) {
+			if (id != 0) {
+				table.consultation(id, id * 2, "refusée");
+			}
+		}
+
+		assertThat(table.size()).isEqualTo(100_000);
+		for (int id = -50_000; id <= 50_000; id += 7) {
+			if (id != 0) {
+				assertThat(table.derniereConsultation(id)).isEqualTo(id * 2);
+				assertThat(table.dernierStatut(id)).isEqualTo("refusée");
+			}
+		}
+		assertThat(table.contient(0)).isFalse();
+		assertThat(table.contient(50_001)).isFalse();
+	}
+}
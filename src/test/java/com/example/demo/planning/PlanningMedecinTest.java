@@ -0,0 +1,99 @@
+package com.example.demo.planning;
+
+import com.example.demo.ontology.concepts.Disponibilite;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanningMedecinTest {
+
+	private static Date minute(long minute) {
+		return new Date(minute * 60_000L);
+	}
+
+	private static Disponibilite disponibilite(long debut, int duree) {
+		return new Disponibilite(0, 1, minute(debut), duree);
+	}
+
+	@Test
+	void overlappingAvailabilitiesAreMerged() {
+		PlanningMedecin planning = new PlanningMedecin();
+		planning.ajouterDisponibilite(disponibilite(0, 30));
+		planning.ajouterDisponibilite(disponibilite(20, 40));
+
+		assertThat(planning.estLibre(minute(25), 30)).isTrue();
+		assertThat(planning.estLibre(minute(50), 15)).isFalse();
+		assertThat(planning.disponibiliteContenant(minute(45)).getDateHeure()).isEqualTo(minute(20));
+	}
+
+	@Test
+	void replacingAvailabilityShrinksCoverage() {
+		PlanningMedecin planning = new PlanningMedecin();
+		planning.ajouterDisponibilite(disponibilite(0, 60));
+		planning.ajouterDisponibilite(disponibilite(0, 15));
+
+		assertThat(planning.estLibre(minute(0), 15)).isTrue();
+		assertThat(planning.estLibre(minute(15), 15)).isFalse();
+		assertThat(planning.getDisponibilites()).hasSize(1);
+	}
+
+	@Test
+	void batchCoalescesContiguousSlotsAndReplacesExistingOnes() {
+		PlanningMedecin planning = new PlanningMedecin();
+		planning.ajouterDisponibilite(disponibilite(200, 60));
+		planning.ajouterDisponibilites(List.of(disponibilite(30, 15), disponibilite(0, 15),
+				disponibilite(15, 15), disponibilite(200, 15), disponibilite(100, 15)));
+
+		assertThat(planning.estLibre(minute(0), 45)).isTrue();
+		assertThat(planning.estLibre(minute(40), 15)).isFalse();
+		assertThat(planning.estLibre(minute(100), 15)).isTrue();
+		assertThat(planning.estLibre(minute(200), 15)).isTrue();
+		assertThat(planning.estLibre(minute(215), 15)).isFalse();
+		assertThat(planning.getDisponibilites()).hasSize(5);
+	}
+
+	@Test
+	void reservationsConflictOnOverlapAndNextSlotSkipsThem() {
+		PlanningMedecin planning = new PlanningMedecin();
+		planning.ajouterDisponibilite(disponibilite(0, 30));
+		planning.ajouterDisponibilite(disponibilite(100, 60));
+
+		assertThat(planning.reserver(minute(0), 15)).isTrue();
+		assertThat(planning.reserver(minute(10), 15)).isFalse();
+		assertThat(planning.estLibre(minute(5), 15)).isFalse();
+		assertThat(planning.prochainCreneauLibre(minute(0), 15)).isEqualTo(minute(15));
+
+		assertThat(planning.reserver(minute(15), 15)).isTrue();
+		assertThat(planning.prochainCreneauLibre(minute(0), 15)).isEqualTo(minute(100));
+		assertThat(planning.prochainCreneauLibre(minute(150), 15)).isNull();
+
+		planning.liberer(minute(0), 15);
+		assertThat(planning.prochainCreneauLibre(minute(0), 15)).isEqualTo(minute(0));
+	}
+
+	@Test
+	void backToBackReservationsMergeAndSplitOnRelease() {
+		PlanningMedecin planning = new PlanningMedecin();
+		planning.ajouterDisponibilite(disponibilite(0, 120));
+		for (long debut = 0; debut < 90; debut += 15) {
+			assertThat(planning.reserver(minute(debut), 15)).isTrue();
+		}
+		assertThat(planning.prochainCreneauLibre(minute(0), 15)).isEqualTo(minute(90));
+
+		// Libération au milieu du bloc : seul ce créneau redevient libre
+		assertThat(planning.liberer(minute(30), 15)).isTrue();
+		assertThat(planning.liberer(minute(30), 15)).isFalse();
+		assertThat(planning.prochainCreneauLibre(minute(0), 15)).isEqualTo(minute(30));
+		assertThat(planning.estLibre(minute(15), 15)).isFalse();
+		assertThat(planning.estLibre(minute(45), 15)).isFalse();
+
+		assertThat(planning.reserver(minute(30), 15)).isTrue();
+		assertThat(planning.liberer(minute(0), 15)).isTrue();
+		assertThat(planning.liberer(minute(75), 15)).isTrue();
+		assertThat(planning.prochainCreneauLibre(minute(10), 15)).isEqualTo(minute(75));
+	}
+
+}
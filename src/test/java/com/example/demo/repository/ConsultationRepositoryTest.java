@@ -0,0 +1,44 @@
+package com.example.demo.repository;
+
+import com.example.demo.ontology.concepts.Consultation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsultationRepositoryTest {
+
+	@Test
+	void indexesFollowSaveAndRemove() {
+		ConsultationRepository repository = new ConsultationRepository();
+		Date date = new Date(1_000_000L);
+		repository.save(new Consultation(1, date, "demandée", 7, 3));
+		repository.save(new Consultation(2, date, "refusée", 8, 3));
+
+		assertThat(repository.findById(1).getIdPatient()).isEqualTo(7);
+		assertThat(repository.size()).isEqualTo(2);
+		assertThat(repository.findByPatient(8)).extracting(Consultation::getId).containsExactly(2);
+
+		repository.remove(1);
+		assertThat(repository.findById(1)).isNull();
+		assertThat(repository.findByPatient(7)).isEmpty();
+		assertThat(repository.findByPatient(8)).hasSize(1);
+	}
+
+	@Test
+	void saveReindexesMovedConsultation() {
+		ConsultationRepository repository = new ConsultationRepository();
+		Consultation consultation = new Consultation(1, new Date(0L), "demandée", 7, 3);
+		repository.save(consultation);
+
+		consultation.setIdPatient(9);
+		consultation.setDateHeure(new Date(60_000L));
+		repository.save(consultation);
+
+		assertThat(repository.findByPatient(7)).isEmpty();
+		assertThat(repository.findByPatient(9)).containsExactly(consultation);
+		assertThat(repository.size()).isEqualTo(1);
+	}
+
+}
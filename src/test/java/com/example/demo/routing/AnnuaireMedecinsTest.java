@@ -0,0 +1,51 @@
+package com.example.demo.routing;
+
+import jade.core.AID;
+import jade.core.Agent;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.Property;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnnuaireMedecinsTest {
+
+	private static DFAgentDescription inscription(String nom, String specialite) {
+		DFAgentDescription dfd = new DFAgentDescription();
+		dfd.setName(new AID(nom + "@cabinet", AID.ISGUID));
+		ServiceDescription sd = new ServiceDescription();
+		sd.setType(AnnuaireMedecins.TYPE_SERVICE);
+		sd.setName(nom);
+		sd.addProperties(new Property(AnnuaireMedecins.PROPRIETE_SPECIALITE, specialite));
+		dfd.addServices(sd);
+		return dfd;
+	}
+
+	private static DFAgentDescription depart(String nom) {
+		DFAgentDescription dfd = new DFAgentDescription();
+		dfd.setName(new AID(nom + "@cabinet", AID.ISGUID));
+		return dfd;
+	}
+
+	@Test
+	void notificationsMaintainIdAndSpecialtyIndexes() {
+		AnnuaireMedecins annuaire = new AnnuaireMedecins(new Agent());
+		annuaire.appliquer(new DFAgentDescription[]{
+				inscription("medecin1", "Cardiologie"), inscription("medecin4", "Cardiologie"),
+				inscription("medecin2", "Pédiatrie"), inscription("Medecin", "Généraliste")});
+
+		assertThat(annuaire.size()).isEqualTo(3);
+		assertThat(annuaire.medecin(4).getName()).isEqualTo("medecin4@cabinet");
+		assertThat(annuaire.medecinsDe("Cardiologie")).containsExactly(1, 4);
+		assertThat(annuaire.suivant(4)).isEqualTo(1);
+		assertThat(annuaire.suivant(2)).isEqualTo(2);
+
+		// Changement de spécialité puis départ
+		annuaire.appliquer(new DFAgentDescription[]{inscription("medecin4", "Pédiatrie"), depart("medecin1")});
+		assertThat(annuaire.medecinsDe("Cardiologie")).isEmpty();
+		assertThat(annuaire.medecinsDe("Pédiatrie")).containsExactly(2, 4);
+		assertThat(annuaire.connait(1)).isFalse();
+	}
+
+}
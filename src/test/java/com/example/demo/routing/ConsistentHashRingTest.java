@@ -0,0 +1,49 @@
+package com.example.demo.routing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+	@Test
+	void addingANodeOnlyMovesItsShareOfKeys() {
+		ConsistentHashRing<String> anneau = new ConsistentHashRing<>();
+		for (int i = 0; i < 4; i++) {
+			anneau.ajouter("receptionniste-" + i, "receptionniste-" + i);
+		}
+
+		int cles = 100_000;
+		String[] avant = new String[cles];
+		int[] charge = new int[4];
+		for (int id = 0; id < cles; id++) {
+			avant[id] = anneau.noeudPour(id);
+			charge[Integer.parseInt(avant[id].substring(avant[id].length() - 1))]++;
+		}
+		for (int c : charge) {
+			assertThat(c).isBetween(cles / 4 - cles / 10, cles / 4 + cles / 10);
+		}
+
+		anneau.ajouter("receptionniste-4", "receptionniste-4");
+		int deplacees = 0;
+		for (int id = 0; id < cles; id++) {
+			String apres = anneau.noeudPour(id);
+			if (!apres.equals(avant[id])) {
+				assertThat(apres).isEqualTo("receptionniste-4");
+				deplacees++;
+			}
+		}
+		assertThat(deplacees).isBetween(cles / 10, cles * 3 / 10);
+
+		anneau.retirer("receptionniste-4");
+		for (int id = 0; id < cles; id++) {
+			assertThat(anneau.noeudPour(id)).isEqualTo(avant[id]);
+		}
+	}
+
+	@Test
+	void emptyRingHasNoOwner() {
+		assertThat(new ConsistentHashRing<String>().noeudPour(42)).isNull();
+	}
+
+}
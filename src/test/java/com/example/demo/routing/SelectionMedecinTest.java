@@ -0,0 +1,77 @@
+package com.example.demo.routing;
+
+import com.example.demo.ontology.concepts.Disponibilite;
+import com.example.demo.planning.PlanningMedecin;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SelectionMedecinTest {
+
+	private static Date minute(long minute) {
+		return new Date(minute * 60_000L);
+	}
+
+	private static PlanningMedecin planning(int idMedecin, long debut, int duree) {
+		PlanningMedecin planning = new PlanningMedecin();
+		planning.ajouterDisponibilite(new Disponibilite(0, idMedecin, minute(debut), duree));
+		return planning;
+	}
+
+	@Test
+	void prefersEarliestFreeSlotThenLeastPendingRequests() {
+		SelectionMedecin selection = new SelectionMedecin();
+		TreeSet<Integer> cardiologues = new TreeSet<>(List.of(1, 2, 3));
+		Map<Integer, PlanningMedecin> plannings = new HashMap<>();
+		plannings.put(1, planning(1, 120, 60));
+		plannings.put(2, planning(2, 60, 60));
+		plannings.put(3, planning(3, 60, 60));
+
+		selection.affecter(2);
+		assertThat(selection.choisir(cardiologues, minute(60), plannings).idMedecin()).isEqualTo(3);
+
+		// Créneau de 3 réservé : 2 reste le plus proche malgré sa demande en attente
+		plannings.get(3).reserver(minute(60), 60);
+		assertThat(selection.choisir(cardiologues, minute(60), plannings).idMedecin()).isEqualTo(2);
+
+		selection.liberer(2);
+		assertThat(selection.enCours(2)).isZero();
+	}
+
+	@Test
+	void spreadsEvenlyWithoutKnownAvailabilities() {
+		SelectionMedecin selection = new SelectionMedecin();
+		TreeSet<Integer> generalistes = new TreeSet<>(List.of(1, 2, 3));
+		int[] affectations = new int[4];
+
+		for (int i = 0; i < 300; i++) {
+			SelectionMedecin.Choix choix = selection.choisir(generalistes, minute(i), Map.of());
+			assertThat(choix.creneau()).isNull();
+			int idMedecin = choix.idMedecin();
+			selection.affecter(idMedecin);
+			affectations[idMedecin]++;
+		}
+
+		assertThat(affectations).containsExactly(0, 100, 100, 100);
+		assertThat(selection.choisir(new TreeSet<>(), minute(0), Map.of())).isNull();
+	}
+
+	@Test
+	void returnsNextFreeSlotWhenRequestedOneIsTaken() {
+		SelectionMedecin selection = new SelectionMedecin();
+		Map<Integer, PlanningMedecin> plannings = new HashMap<>();
+		plannings.put(1, planning(1, 60, 60));
+		plannings.get(1).reserver(minute(60), PlanningMedecin.DUREE_CONSULTATION);
+
+		SelectionMedecin.Choix choix = selection.choisir(new TreeSet<>(List.of(1)), minute(60), plannings);
+
+		assertThat(choix.idMedecin()).isEqualTo(1);
+		assertThat(choix.creneau()).isEqualTo(minute(60 + PlanningMedecin.DUREE_CONSULTATION));
+	}
+}
@@ -0,0 +1,62 @@
+package com.example.demo.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoueTemporelleTest {
+
+	@Test
+	void deadlinesFireOnTheirTickEvenBeyondOneRevolution() {
+		RoueTemporelle<String> roue = new RoueTemporelle<>(8, 100, 0);
+		roue.planifier("court", 250);
+		roue.planifier("tour suivant", 1_050);
+		RoueTemporelle.Echeance<String> annulee = roue.planifier("annulée", 250);
+		assertThat(roue.annuler(annulee)).isTrue();
+		assertThat(roue.annuler(annulee)).isFalse();
+
+		List<String> echus = new ArrayList<>();
+		assertThat(roue.avancer(299, echus::add)).isZero();
+		assertThat(roue.avancer(300, echus::add)).isEqualTo(1);
+		assertThat(roue.avancer(1_000, echus::add)).isZero();
+		assertThat(roue.avancer(1_100, echus::add)).isEqualTo(1);
+		assertThat(echus).containsExactly("court", "tour suivant");
+		assertThat(roue.size()).isZero();
+	}
+
+	@Test
+	void handlesOneHundredThousandPendingDeadlines() {
+		RoueTemporelle<Long> roue = new RoueTemporelle<>(512, 100, 0);
+		Random aleatoire = new Random(42);
+		List<RoueTemporelle.Echeance<Long>> echeances = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++) {
+			long delai = 100 + aleatoire.nextInt(120_000);
+			echeances.add(roue.planifier(delai, delai));
+		}
+		// Réponses reçues pour une demande sur deux
+		for (int i = 0; i < echeances.size(); i += 2) {
+			roue.annuler(echeances.get(i));
+		}
+		assertThat(roue.size()).isEqualTo(50_000);
+
+		long[] trop = {0};
+		int echus = 0;
+		for (long maintenant = 0; maintenant <= 121_000; maintenant += 100) {
+			long instant = maintenant;
+			echus += roue.avancer(maintenant, delai -> {
+				// Jamais avant l'échéance, au plus un tick après
+				if (delai > instant || instant - delai >= 200) {
+					trop[0]++;
+				}
+			});
+		}
+		assertThat(echus).isEqualTo(50_000);
+		assertThat(trop[0]).isZero();
+		assertThat(roue.size()).isZero();
+	}
+
+}
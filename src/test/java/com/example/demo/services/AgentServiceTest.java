@@ -0,0 +1,95 @@
+package com.example.demo.services;
+
+import com.example.demo.agent.PlateformeJade;
+import com.example.demo.agent.base.AbstractAgent;
+import com.example.demo.services.AgentService.DemandeDemarrage;
+import com.example.demo.services.RegistreAgents.EtatAgent;
+import com.example.demo.services.RegistreAgents.FicheAgent;
+import jade.core.behaviours.OneShotBehaviour;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jade.wrapper.AgentContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgentServiceTest {
+
+	private static final String CONTENEUR = "Main-Container";
+
+	private AgentContainer container;
+	private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+	private AgentService service;
+
+	// Agent qui se supprime dès son premier comportement
+	public static class Ephemere extends AbstractAgent {
+		@Override
+		protected void setup() {
+			addBehaviour(new OneShotBehaviour(this) {
+				@Override
+				public void action() {
+					myAgent.doDelete();
+				}
+			});
+		}
+	}
+
+	// Agent dont le premier comportement lève une exception
+	public static class Defaillant extends AbstractAgent {
+		@Override
+		protected void setup() {
+			addBehaviour(new OneShotBehaviour(this) {
+				@Override
+				public void action() {
+					throw new IllegalStateException("panne simulée");
+				}
+			});
+		}
+	}
+
+	// Agent qui se supprime pendant son setup()
+	public static class MortNe extends AbstractAgent {
+		@Override
+		protected void setup() {
+			doDelete();
+		}
+	}
+
+	public static class Durable extends AbstractAgent {
+	}
+
+	@BeforeEach
+	void demarrer() {
+		container = PlateformeJade.demarrer(1599);
+		service = new AgentService(Map.of(CONTENEUR, container), 2, meters);
+	}
+
+	@AfterEach
+	void arreter() throws Exception {
+		service.arreter();
+		container.kill();
+	}
+
+	@Test
+	void agentsEndingOnTheirOwnLeaveTheRegistry() throws Exception {
+		service.startAgents(List.of(
+				new DemandeDemarrage(CONTENEUR, "durable", Durable.class.getName(), null),
+				new DemandeDemarrage(CONTENEUR, "ephemere", Ephemere.class.getName(), null),
+				new DemandeDemarrage(CONTENEUR, "defaillant", Defaillant.class.getName(), null),
+				new DemandeDemarrage(CONTENEUR, "mortne", MortNe.class.getName(), null)), 10_000);
+
+		PlateformeJade.attendre(() -> service.countAgents(EtatAgent.ACTIF) == 1);
+		assertThat(service.listAgents(null, 10).agents()).extracting(FicheAgent::nom).containsExactly("durable");
+		assertThat(meters.get("agent.registry.size").tag("state", "actif").gauge().value()).isEqualTo(1);
+
+		// Redémarré sous le même nom : la fin de l'ancien agent ne retire pas le nouveau
+		service.startAgents(List.of(new DemandeDemarrage(CONTENEUR, "ephemere", Durable.class.getName(), null)), 10_000);
+		assertThat(service.getAgent("ephemere")).isNotNull();
+		assertThat(service.stopAgents(List.of("durable", "ephemere")).traites()).isEqualTo(2);
+		assertThat(service.countAgents(EtatAgent.ACTIF)).isZero();
+	}
+}
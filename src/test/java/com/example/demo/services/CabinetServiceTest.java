@@ -0,0 +1,32 @@
+package com.example.demo.services;
+
+import com.example.demo.ontology.concepts.Disponibilite;
+import com.example.demo.vues.VueReceptionniste;
+import com.example.demo.vues.VuesReceptionnistes;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CabinetServiceTest {
+
+	@Test
+	void doctorAvailabilitiesReplicatedOnEveryShardAreListedOnce() {
+		Disponibilite matin = new Disponibilite(0, 7, new Date(1_000_000_000L), 60);
+		Disponibilite soir = new Disponibilite(0, 7, new Date(2_000_000_000L), 30);
+		VuesReceptionnistes vues = new VuesReceptionnistes();
+		VueReceptionniste complete = VueReceptionniste.VIDE.avecDisponibilites(7, List.of(matin, soir));
+		// Partition qui n'a reçu que le premier lot
+		VueReceptionniste enRetard = VueReceptionniste.VIDE.avecDisponibilites(7, List.of(matin));
+		vues.enregistrer("receptionnist-0", () -> complete);
+		vues.enregistrer("receptionnist-1", () -> enRetard);
+		vues.enregistrer("receptionnist-2", () -> complete);
+
+		CabinetService service = new CabinetService(null, vues);
+
+		assertThat(service.disponibilitesMedecin(7)).containsExactly(matin, soir);
+		assertThat(service.disponibilitesMedecin(8)).isEmpty();
+	}
+}
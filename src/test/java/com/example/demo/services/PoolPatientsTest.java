@@ -0,0 +1,97 @@
+package com.example.demo.services;
+
+import com.example.demo.agent.Medecin;
+import com.example.demo.agent.PlateformeJade;
+import com.example.demo.agent.Receptionnist;
+import com.example.demo.ontology.concepts.Consultation;
+import com.example.demo.services.PoolPatients.PatientLoue;
+import com.example.demo.vues.VuesReceptionnistes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jade.wrapper.AgentContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PoolPatientsTest {
+
+	private static final String CONTENEUR = "Main-Container";
+	private static final int ID_MEDECIN = 3;
+	private static final long DATE = 1_900_000_000_000L / 3_600_000 * 3_600_000;
+
+	private AgentContainer container;
+	private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+	private AgentService service;
+
+	@BeforeEach
+	void demarrerPlateforme() throws Exception {
+		container = PlateformeJade.demarrer(1699);
+		service = new AgentService(Map.of(CONTENEUR, container), 2, meters);
+
+		container.createNewAgent(Receptionnist.nomPartition(0, 1), Receptionnist.class.getName(),
+				new Object[]{"Receptionnist", 0, 1, null, 64, new VuesReceptionnistes()}).start();
+		// Médecin sans disponibilités déclarées : il accepte toute demande
+		Medecin medecin = new Medecin();
+		medecin.setArguments(new Object[]{"Test", "Généraliste"});
+		container.acceptNewAgent("medecin" + ID_MEDECIN, medecin).start();
+		medecin.pret().get(10, TimeUnit.SECONDS);
+	}
+
+	@AfterEach
+	void arreterPlateforme() throws Exception {
+		service.arreter();
+		container.kill();
+	}
+
+	@Test
+	void leasesRebindsAndReturnsAgentsWithinTheCap() throws Exception {
+		PoolPatients pool = new PoolPatients(service, CONTENEUR, 0, 1, 10_000);
+
+		// Location : pool vide, un agent est créé et lié au patient
+		CompletableFuture<Consultation> premiere = new CompletableFuture<>();
+		PatientLoue loue = pool.louer("Durand", "Alice", 11, premiere::complete);
+		String nomAgent = loue.nomAgent();
+		assertThat(pool.taille()).isEqualTo(1);
+		assertThat(pool.disponibles()).isZero();
+		assertThatThrownBy(() -> pool.louer("Martin", "Bob", 12, null)).isInstanceOf(IllegalStateException.class);
+
+		loue.demanderConsultation(ID_MEDECIN, new Date(DATE));
+		Consultation planifiee = premiere.get(10, TimeUnit.SECONDS);
+		assertThat(planifiee.getIdPatient()).isEqualTo(11);
+		assertThat(planifiee.getStatus()).isEqualTo("planifiée");
+
+		// Retour : l'agent redevient libre et n'accepte plus de demande pour ce patient
+		loue.rendre();
+		assertThat(pool.disponibles()).isEqualTo(1);
+		assertThatThrownBy(() -> loue.demanderConsultation(ID_MEDECIN, new Date(DATE)))
+				.isInstanceOf(IllegalStateException.class);
+
+		// Nouvelle location : même agent, nouvelle identité
+		CompletableFuture<Consultation> seconde = new CompletableFuture<>();
+		try (PatientLoue reloue = pool.louer("Martin", "Bob", 12, seconde::complete)) {
+			assertThat(reloue.nomAgent()).isEqualTo(nomAgent);
+			assertThat(pool.taille()).isEqualTo(1);
+			reloue.demanderConsultation(ID_MEDECIN, new Date(DATE + 3_600_000));
+			assertThat(seconde.get(10, TimeUnit.SECONDS).getIdPatient()).isEqualTo(12);
+		}
+		assertThat(premiere.get().getIdPatient()).isEqualTo(11);
+
+		// Agent arrêté hors du pool : écarté à la location suivante, qui en crée un autre sans dépasser le plafond
+		assertThat(service.stopAgents(List.of(nomAgent)).traites()).isEqualTo(1);
+		CompletableFuture<Consultation> troisieme = new CompletableFuture<>();
+		try (PatientLoue remplacant = pool.louer("Petit", "Chloé", 13, troisieme::complete)) {
+			assertThat(remplacant.nomAgent()).isNotEqualTo(nomAgent);
+			assertThat(pool.taille()).isEqualTo(1);
+			remplacant.demanderConsultation(ID_MEDECIN, new Date(DATE + 7_200_000));
+			assertThat(troisieme.get(10, TimeUnit.SECONDS).getIdPatient()).isEqualTo(13);
+		}
+	}
+}
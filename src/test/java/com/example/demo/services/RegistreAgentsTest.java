@@ -0,0 +1,84 @@
+package com.example.demo.services;
+
+import com.example.demo.services.RegistreAgents.EtatAgent;
+import com.example.demo.services.RegistreAgents.FicheAgent;
+import com.example.demo.services.RegistreAgents.PageAgents;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegistreAgentsTest {
+
+	private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+	private final RegistreAgents registre = new RegistreAgents(meters);
+
+	@Test
+	void pagesThroughAgentsInNameOrderWithACursor() {
+		for (int i = 0; i < 25; i++) {
+			registre.ajouter(String.format("patient%03d", i), "Container-Patient", "Patient", null, null);
+		}
+
+		List<String> noms = new ArrayList<>();
+		PageAgents page = registre.page(null, 10);
+		int pages = 1;
+		while (true) {
+			page.agents().forEach(fiche -> noms.add(fiche.nom()));
+			if (page.suivant() == null) {
+				break;
+			}
+			page = registre.page(page.suivant(), 10);
+			pages++;
+		}
+
+		assertThat(pages).isEqualTo(3);
+		assertThat(noms).hasSize(25).isSorted();
+		FicheAgent fiche = registre.page("patient006", 1).agents().get(0);
+		assertThat(fiche.nom()).isEqualTo("patient007");
+		assertThat(fiche.conteneur()).isEqualTo("Container-Patient");
+		assertThat(fiche.etat()).isEqualTo(EtatAgent.ACTIF);
+		assertThatThrownBy(() -> registre.page(null, 0)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void keepsStateCountsExactUnderConcurrentChurn() throws InterruptedException {
+		int nombre = 10_000;
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < nombre; i++) {
+			String nom = "agent" + i;
+			executor.execute(() -> registre.ajouter(nom, "c", "Agent", null, null));
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+		// Suspensions et arrêts croisés sur les mêmes agents
+		executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < nombre; i++) {
+			String nom = "agent" + i;
+			executor.execute(() -> {
+				RegistreAgents.Entree entree = registre.entree(nom);
+				if (entree != null) {
+					registre.changerEtat(entree, EtatAgent.ACTIF, EtatAgent.SUSPENDU);
+				}
+			});
+			if (i % 2 == 0) {
+				executor.execute(() -> registre.retirer(nom));
+			}
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(registre.size()).isEqualTo(nombre / 2);
+		assertThat(registre.nombre(EtatAgent.SUSPENDU)).isEqualTo(nombre / 2);
+		assertThat(registre.nombre(EtatAgent.ACTIF)).isZero();
+		assertThat(meters.get("agent.registry.size").tag("state", "suspendu").gauge().value())
+				.isEqualTo(nombre / 2.0);
+	}
+}
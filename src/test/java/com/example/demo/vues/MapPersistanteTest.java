@@ -0,0 +1,69 @@
+package com.example.demo.vues;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MapPersistanteTest {
+
+	// Clé de hachage imposé, pour forcer les collisions
+	private record Cle(String nom, int hash) {
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	@Test
+	void previousVersionsAreUnchangedByUpdates() {
+		MapPersistante<Integer, String> v0 = MapPersistante.vide();
+		MapPersistante<Integer, String> v1 = v0.avec(1, "a");
+		MapPersistante<Integer, String> v2 = v1.avec(2, "b").avec(1, "c");
+
+		assertThat(v0.size()).isZero();
+		assertThat(v0.get(1)).isNull();
+		assertThat(v1.size()).isEqualTo(1);
+		assertThat(v1.get(1)).isEqualTo("a");
+		assertThat(v2.size()).isEqualTo(2);
+		assertThat(v2.get(1)).isEqualTo("c");
+		assertThat(v2.get(2)).isEqualTo("b");
+		assertThat(v2.avec(2, v2.get(2))).isSameAs(v2);
+	}
+
+	@Test
+	void keepsDistinctKeysWithTheSameHash() {
+		MapPersistante<Cle, Integer> map = MapPersistante.<Cle, Integer>vide()
+				.avec(new Cle("a", 42), 1)
+				.avec(new Cle("b", 42), 2)
+				.avec(new Cle("c", 42 + (1 << 20)), 3);
+		MapPersistante<Cle, Integer> remplacee = map.avec(new Cle("b", 42), 20);
+
+		assertThat(map.size()).isEqualTo(3);
+		assertThat(map.get(new Cle("b", 42))).isEqualTo(2);
+		assertThat(remplacee.size()).isEqualTo(3);
+		assertThat(remplacee.get(new Cle("a", 42))).isEqualTo(1);
+		assertThat(remplacee.get(new Cle("b", 42))).isEqualTo(20);
+		assertThat(remplacee.get(new Cle("c", 42 + (1 << 20)))).isEqualTo(3);
+		assertThat(remplacee.get(new Cle("d", 42))).isNull();
+	}
+
+	@Test
+	void iteratesEveryValueOfALargeMap() {
+		MapPersistante<Integer, Integer> map = MapPersistante.vide();
+		for (int i = 0; i < 100_000; i++) {
+			map = map.avec(i, i);
+		}
+
+		Set<Integer> vues = new HashSet<>(map.valeurs());
+		assertThat(map.size()).isEqualTo(100_000);
+		assertThat(map.valeurs()).hasSize(100_000);
+		assertThat(vues).hasSize(100_000);
+		for (int i = 0; i < 100_000; i += 997) {
+			assertThat(map.get(i)).isEqualTo(i);
+		}
+		assertThat(map.get(100_000)).isNull();
+	}
+}